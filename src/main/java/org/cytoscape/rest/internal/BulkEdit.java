@@ -0,0 +1,229 @@
+package org.cytoscape.rest.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cytoscape.event.CyEventHelper;
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyIdentifiable;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.RowSetRecord;
+import org.cytoscape.model.events.AddedEdgesEvent;
+import org.cytoscape.model.events.AddedNodesEvent;
+import org.cytoscape.model.events.ColumnCreatedEvent;
+import org.cytoscape.model.events.RowsCreatedEvent;
+import org.cytoscape.model.events.RowsSetEvent;
+
+/**
+ * Scope of a bulk change of a new network and its default tables.
+ *
+ * Cytoscape fires events for each added element and each cell, and
+ * listeners process them one by one. The network must have been created in
+ * this scope and not be registered yet: it and its default tables are
+ * silenced in the CyEventHelper, and the changes are recorded here instead.
+ * {@link #close()} turns the events back on and fires one event of each
+ * kind for all recorded changes which still exist: ColumnCreated,
+ * RowsCreated, AddedNodes, AddedEdges and RowsSet. The recorded changes are
+ * also fired every {@link #BATCH_SIZE} changes, so a huge upload does not
+ * keep all of them in memory.
+ *
+ * Existing networks are not changed in such a scope, because the desktop or
+ * other clients may change them at the same time and their events must not
+ * be lost. Changes of existing networks fire the usual Cytoscape events.
+ *
+ */
+public final class BulkEdit implements AutoCloseable {
+
+	/**
+	 * Number of recorded changes which are fired together.
+	 */
+	public static final int BATCH_SIZE = 10000;
+
+	private final CyEventHelper eventHelper;
+	private final CyNetwork network;
+	private final List<Object> sources;
+
+	private final List<CyNode> nodes = new ArrayList<CyNode>();
+	private final List<CyEdge> edges = new ArrayList<CyEdge>();
+	private final Map<CyTable, Set<String>> columns = new LinkedHashMap<CyTable, Set<String>>();
+	private final Map<CyTable, List<RowSetRecord>> cells = new LinkedHashMap<CyTable, List<RowSetRecord>>();
+
+	// Number of recorded changes which have not been fired yet
+	private int pending;
+	private boolean closed;
+
+	/**
+	 * @param eventHelper Cytoscape event helper
+	 * @param network Network which has been created for this scope and is
+	 *            not registered yet
+	 */
+	public BulkEdit(final CyEventHelper eventHelper, final CyNetwork network) {
+		this.eventHelper = eventHelper;
+		this.network = network;
+		this.sources = new ArrayList<Object>(4);
+		sources.add(network);
+		sources.add(network.getDefaultNetworkTable());
+		sources.add(network.getDefaultNodeTable());
+		sources.add(network.getDefaultEdgeTable());
+
+		// Deliver the events fired before this scope in their own order.
+		eventHelper.flushPayloadEvents();
+		for (final Object source : sources) {
+			eventHelper.silenceEventSource(source);
+		}
+	}
+
+	/**
+	 * @return Network of this scope
+	 */
+	public CyNetwork getNetwork() {
+		return network;
+	}
+
+	public void nodeAdded(final CyNode node) {
+		nodes.add(node);
+		recorded();
+	}
+
+	public void edgeAdded(final CyEdge edge) {
+		edges.add(edge);
+		recorded();
+	}
+
+	/**
+	 * Record a new column. Tables other than the default tables of the
+	 * network are not silenced, so they are ignored.
+	 */
+	public void columnCreated(final CyTable table, final String columnName) {
+		if (!sources.contains(table)) {
+			return;
+		}
+		Set<String> names = columns.get(table);
+		if (names == null) {
+			names = new LinkedHashSet<String>();
+			columns.put(table, names);
+		}
+		names.add(columnName);
+	}
+
+	/**
+	 * Record a cell which has been set. Tables other than the default
+	 * tables of the network are not silenced, so they are ignored.
+	 */
+	public void cellSet(final CyTable table, final CyRow row, final String columnName) {
+		if (!sources.contains(table)) {
+			return;
+		}
+		List<RowSetRecord> records = cells.get(table);
+		if (records == null) {
+			records = new ArrayList<RowSetRecord>();
+			cells.put(table, records);
+		}
+		// The same record as the one Cytoscape would have fired
+		final CyColumn column = table.getColumn(columnName);
+		final Object value = column.getType() == List.class ? row.getList(columnName,
+				column.getListElementType()) : row.get(columnName, column.getType());
+		records.add(new RowSetRecord(row, columnName, value, row.getRaw(columnName)));
+		recorded();
+	}
+
+	/**
+	 * Turn the events back on and fire the aggregated events.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		for (final Object source : sources) {
+			eventHelper.unsilenceEventSource(source);
+		}
+		fireRecorded();
+	}
+
+	private final void recorded() {
+		if (++pending < BATCH_SIZE) {
+			return;
+		}
+		for (final Object source : sources) {
+			eventHelper.unsilenceEventSource(source);
+		}
+		fireRecorded();
+		for (final Object source : sources) {
+			eventHelper.silenceEventSource(source);
+		}
+	}
+
+	/**
+	 * Fire the events of the recorded changes and forget them.
+	 */
+	private final void fireRecorded() {
+		for (final Map.Entry<CyTable, Set<String>> entry : columns.entrySet()) {
+			for (final String name : entry.getValue()) {
+				if (entry.getKey().getColumn(name) != null) {
+					eventHelper.fireEvent(new ColumnCreatedEvent(entry.getKey(), name));
+				}
+			}
+		}
+
+		final List<CyNode> addedNodes = new ArrayList<CyNode>(nodes.size());
+		for (final CyNode node : nodes) {
+			if (network.containsNode(node)) {
+				addedNodes.add(node);
+			}
+		}
+		final List<CyEdge> addedEdges = new ArrayList<CyEdge>(edges.size());
+		for (final CyEdge edge : edges) {
+			if (network.containsEdge(edge)) {
+				addedEdges.add(edge);
+			}
+		}
+		if (!addedNodes.isEmpty()) {
+			eventHelper.fireEvent(new RowsCreatedEvent(network.getDefaultNodeTable(), getKeys(addedNodes)));
+			eventHelper.fireEvent(new AddedNodesEvent(network, addedNodes));
+		}
+		if (!addedEdges.isEmpty()) {
+			eventHelper.fireEvent(new RowsCreatedEvent(network.getDefaultEdgeTable(), getKeys(addedEdges)));
+			eventHelper.fireEvent(new AddedEdgesEvent(network, addedEdges));
+		}
+
+		for (final Map.Entry<CyTable, List<RowSetRecord>> entry : cells.entrySet()) {
+			final CyTable table = entry.getKey();
+			final String key = table.getPrimaryKey().getName();
+			final List<RowSetRecord> records = new ArrayList<RowSetRecord>(entry.getValue().size());
+			for (final RowSetRecord record : entry.getValue()) {
+				if (table.getColumn(record.getColumn()) != null && table.rowExists(record.getRow().getRaw(key))) {
+					records.add(record);
+				}
+			}
+			if (!records.isEmpty()) {
+				eventHelper.fireEvent(new RowsSetEvent(table, records));
+			}
+		}
+
+		columns.clear();
+		nodes.clear();
+		edges.clear();
+		cells.clear();
+		pending = 0;
+	}
+
+	private static final Collection<Object> getKeys(final Collection<? extends CyIdentifiable> objects) {
+		final List<Object> keys = new ArrayList<Object>(objects.size());
+		for (final CyIdentifiable obj : objects) {
+			keys.add(obj.getSUID());
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,122 @@
+package org.cytoscape.rest.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Recent changes of a network, table or network view, oldest first.
+ *
+ * The log keeps a fixed number of changes. When it is full, the oldest
+ * change is dropped and the changes up to its version are no longer
+ * available. Changes which cannot be expressed as a delta (e.g. a deleted
+ * column) reset the log in the same way.
+ *
+ */
+public class ChangeLog {
+
+	public enum Type {
+		NODE_ADDED, NODE_REMOVED, EDGE_ADDED, EDGE_REMOVED, CELL_SET, VIEW_SET;
+	}
+
+	/**
+	 * A single change.
+	 */
+	public static final class Change {
+
+		private final long version;
+		private final Type type;
+		private final Long suid;
+		private final Object key;
+		private final Object value;
+
+		Change(final long version, final Type type, final Long suid, final Object key, final Object value) {
+			this.version = version;
+			this.type = type;
+			this.suid = suid;
+			this.key = key;
+			this.value = value;
+		}
+
+		public long getVersion() {
+			return version;
+		}
+
+		public Type getType() {
+			return type;
+		}
+
+		/**
+		 * @return SUID of the node, edge or row
+		 */
+		public Long getSUID() {
+			return suid;
+		}
+
+		/**
+		 * @return Column name for cells, Visual Property for views, null
+		 *         otherwise
+		 */
+		public Object getKey() {
+			return key;
+		}
+
+		/**
+		 * @return New value of the cell or Visual Property
+		 */
+		public Object getValue() {
+			return value;
+		}
+	}
+
+	private final ArrayDeque<Change> changes;
+	private final int capacity;
+
+	// Changes up to this version are not in the log.
+	private long start;
+
+	/**
+	 * @param capacity maximum number of changes
+	 */
+	public ChangeLog(final int capacity) {
+		this.capacity = capacity;
+		this.changes = new ArrayDeque<Change>(Math.min(capacity, 1024));
+	}
+
+	synchronized void add(final long version, final Type type, final Long suid, final Object key,
+			final Object value) {
+		if (changes.size() == capacity) {
+			start = changes.removeFirst().getVersion();
+		}
+		changes.addLast(new Change(version, type, suid, key, value));
+	}
+
+	synchronized void reset(final long version) {
+		changes.clear();
+		start = version;
+	}
+
+	/**
+	 * @param since a version
+	 * @return Changes after the version, oldest first, or null if some of
+	 *         them are no longer available
+	 */
+	public synchronized List<Change> getChanges(final long since) {
+		if (since < start) {
+			return null;
+		}
+		final List<Change> result = new ArrayList<Change>();
+		final Iterator<Change> latest = changes.descendingIterator();
+		while (latest.hasNext()) {
+			final Change change = latest.next();
+			if (change.getVersion() <= since) {
+				break;
+			}
+			result.add(change);
+		}
+		Collections.reverse(result);
+		return result;
+	}
+}
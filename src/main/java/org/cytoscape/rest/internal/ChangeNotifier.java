@@ -0,0 +1,495 @@
+package org.cytoscape.rest.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MediaType;
+
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkTableManager;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.events.AddedEdgesEvent;
+import org.cytoscape.model.events.AddedEdgesListener;
+import org.cytoscape.model.events.AddedNodesEvent;
+import org.cytoscape.model.events.AddedNodesListener;
+import org.cytoscape.model.events.ColumnCreatedEvent;
+import org.cytoscape.model.events.ColumnCreatedListener;
+import org.cytoscape.model.events.ColumnDeletedEvent;
+import org.cytoscape.model.events.ColumnDeletedListener;
+import org.cytoscape.model.events.ColumnNameChangedEvent;
+import org.cytoscape.model.events.ColumnNameChangedListener;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedEvent;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedListener;
+import org.cytoscape.model.events.NetworkAddedEvent;
+import org.cytoscape.model.events.NetworkAddedListener;
+import org.cytoscape.model.events.RemovedEdgesEvent;
+import org.cytoscape.model.events.RemovedEdgesListener;
+import org.cytoscape.model.events.RemovedNodesEvent;
+import org.cytoscape.model.events.RemovedNodesListener;
+import org.cytoscape.model.events.RowsCreatedEvent;
+import org.cytoscape.model.events.RowsCreatedListener;
+import org.cytoscape.model.events.RowsSetEvent;
+import org.cytoscape.model.events.RowsSetListener;
+import org.cytoscape.rest.internal.serializer.JacksonProvider;
+import org.cytoscape.view.model.events.ViewChangedEvent;
+import org.cytoscape.view.model.events.ViewChangedListener;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.glassfish.jersey.media.sse.OutboundEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
+
+/**
+ * Pushes notifications of network, table and view changes to subscribed
+ * clients as Server-Sent Events.
+ *
+ * Notifications are not sent for each Cytoscape event. Changes are
+ * collected for each subscriber and sent in one batch per interval, with
+ * one entry per network listing what has changed (nodes, edges, rows,
+ * columns, views) and the current version. Clients get the details from
+ * the change feed of the network with that version.
+ *
+ * Each subscriber has at most one batch being written at a time. While a
+ * slow client is still receiving a batch, new changes are merged into the
+ * next one. If too many networks are pending, they are dropped and the
+ * next batch starts with a "dropped" event, after which the client should
+ * read the networks again.
+ *
+ * Events:
+ * <ul>
+ * <li>networks: {"version": "V", "added": [SUIDs], "removed": [SUIDs]}</li>
+ * <li>changes: {"version": "V", "networks": [{"SUID": network, "changed":
+ * ["nodes", "edges", "rows", "columns", "views"]}]}</li>
+ * <li>dropped: {"version": "V"}</li>
+ * </ul>
+ *
+ * Settings in cytoscape3.props:
+ * <ul>
+ * <li>rest.events.interval: time between batches in milliseconds. Default
+ * is 200.</li>
+ * <li>rest.events.maxPending: maximum number of pending networks for a
+ * subscriber. Default is 1024.</li>
+ * <li>rest.events.maxWriters: number of threads writing batches to the
+ * subscribers. A slow subscriber holds one of them while its batch is
+ * written, and the batches of others wait for a free one. Default is 8.</li>
+ * </ul>
+ *
+ */
+public class ChangeNotifier implements NetworkAddedListener, NetworkAboutToBeDestroyedListener, AddedNodesListener,
+		AddedEdgesListener, RemovedNodesListener, RemovedEdgesListener, RowsSetListener, RowsCreatedListener,
+		ColumnCreatedListener, ColumnDeletedListener, ColumnNameChangedListener, ViewChangedListener {
+
+	private final static Logger logger = LoggerFactory.getLogger(ChangeNotifier.class);
+
+	public static final String INTERVAL_PROP = "rest.events.interval";
+	public static final String MAX_PENDING_PROP = "rest.events.maxPending";
+	public static final String MAX_WRITERS_PROP = "rest.events.maxWriters";
+
+	public static final String NETWORKS_EVENT = "networks";
+	public static final String CHANGES_EVENT = "changes";
+	public static final String DROPPED_EVENT = "dropped";
+
+	private static final long DEF_INTERVAL = 200;
+	private static final int DEF_MAX_PENDING = 1024;
+	private static final int DEF_MAX_WRITERS = 8;
+
+	private static final String VERSION = "version";
+	private static final String ADDED = "added";
+	private static final String REMOVED = "removed";
+	private static final String NETWORKS = "networks";
+	private static final String SUID = "SUID";
+	private static final String CHANGED = "changed";
+
+	// Comment sent to idle subscribers to detect closed connections.
+	private static final long HEARTBEAT_INTERVAL = 15000;
+
+	/**
+	 * What has changed in a network.
+	 */
+	enum Kind {
+		NODES, EDGES, ROWS, COLUMNS, VIEWS;
+
+		final String getName() {
+			return name().toLowerCase();
+		}
+	}
+
+	private final ModelVersionTracker versionTracker;
+	private final CyNetworkTableManager networkTableManager;
+	private final JacksonProvider jackson;
+	private final int maxPending;
+
+	private final Set<Subscription> subscriptions = new CopyOnWriteArraySet<Subscription>();
+	private final ScheduledExecutorService scheduler;
+	private final ExecutorService writers;
+
+	/**
+	 * @param props Cytoscape properties
+	 * @param versionTracker source of the versions in the notifications
+	 * @param networkTableManager used to find the network of a table
+	 * @param jackson used to write the events
+	 */
+	public ChangeNotifier(final Properties props, final ModelVersionTracker versionTracker,
+			final CyNetworkTableManager networkTableManager, final JacksonProvider jackson) {
+		this.versionTracker = versionTracker;
+		this.networkTableManager = networkTableManager;
+		this.jackson = jackson;
+		this.maxPending = Math.max(1, PropertyUtil.getInt(props, MAX_PENDING_PROP, DEF_MAX_PENDING));
+		final long interval = Math.max(1, PropertyUtil.getLong(props, INTERVAL_PROP, DEF_INTERVAL));
+		final int maxWriters = Math.max(1, PropertyUtil.getInt(props, MAX_WRITERS_PROP, DEF_MAX_WRITERS));
+
+		final ThreadFactory threadFactory = new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, "cyREST events");
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+		// Each subscriber has at most one batch in the queue.
+		final ThreadPoolExecutor writerPool = new ThreadPoolExecutor(maxWriters, maxWriters, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), threadFactory);
+		writerPool.allowCoreThreadTimeOut(true);
+		this.writers = writerPool;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					flush();
+				} catch (Exception e) {
+					logger.warn("Could not send change notifications.", e);
+				}
+			}
+		}, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Send notifications to a client until the output is closed.
+	 *
+	 * @param networks SUIDs of the networks to be watched, or null for all
+	 *            networks
+	 * @param output output of the client
+	 */
+	public void subscribe(final Set<Long> networks, final EventOutput output) {
+		subscriptions.add(new Subscription(networks, output));
+	}
+
+	/**
+	 * Stop sending notifications and close all outputs.
+	 */
+	public void dispose() {
+		scheduler.shutdownNow();
+		writers.shutdownNow();
+		for (final Subscription subscription : subscriptions) {
+			subscription.close();
+		}
+		subscriptions.clear();
+	}
+
+	private final void flush() throws IOException {
+		final long now = System.currentTimeMillis();
+		final String version = versionTracker.getTag(versionTracker.getCurrentVersion());
+		for (final Subscription subscription : subscriptions) {
+			if (subscription.output.isClosed()) {
+				subscriptions.remove(subscription);
+				continue;
+			}
+			final List<OutboundEvent> events = subscription.poll(now, version);
+			if (events != null) {
+				writers.execute(new Runnable() {
+					@Override
+					public void run() {
+						subscription.write(events);
+					}
+				});
+			}
+		}
+	}
+
+	private final void changed(final CyNetwork network, final Kind kind) {
+		if (network == null || subscriptions.isEmpty()) {
+			return;
+		}
+		for (final Subscription subscription : subscriptions) {
+			subscription.changed(network.getSUID(), kind);
+		}
+	}
+
+	private final void changed(final CyTable table, final Kind kind) {
+		if (table != null && !subscriptions.isEmpty()) {
+			changed(networkTableManager.getNetworkForTable(table), kind);
+		}
+	}
+
+	private static final OutboundEvent createEvent(final String name, final String data) {
+		return new OutboundEvent.Builder().name(name).mediaType(MediaType.APPLICATION_JSON_TYPE)
+				.data(String.class, data).build();
+	}
+
+	/**
+	 * Start the data of an event, which is an object with the version.
+	 */
+	private final JsonGenerator startEvent(final SegmentedStringWriter writer, final String version)
+			throws IOException {
+		final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
+		generator.writeStartObject();
+		generator.writeStringField(VERSION, version);
+		return generator;
+	}
+
+	private static final OutboundEvent endEvent(final String name, final JsonGenerator generator,
+			final SegmentedStringWriter writer) throws IOException {
+		generator.writeEndObject();
+		generator.close();
+		return createEvent(name, writer.getAndClear());
+	}
+
+	private static final void writeSuids(final JsonGenerator generator, final String name,
+			final Collection<Long> suids) throws IOException {
+		generator.writeArrayFieldStart(name);
+		for (final Long suid : suids) {
+			generator.writeNumber(suid);
+		}
+		generator.writeEndArray();
+	}
+
+	/**
+	 * Pending notifications of one client.
+	 */
+	private final class Subscription {
+
+		private final Set<Long> networks;
+		private final EventOutput output;
+
+		private Map<Long, EnumSet<Kind>> changes = new LinkedHashMap<Long, EnumSet<Kind>>();
+		private Set<Long> added = new LinkedHashSet<Long>();
+		private Set<Long> removed = new LinkedHashSet<Long>();
+		private boolean dropped;
+		private boolean writing;
+		private long lastWrite = System.currentTimeMillis();
+
+		Subscription(final Set<Long> networks, final EventOutput output) {
+			this.networks = networks;
+			this.output = output;
+		}
+
+		synchronized void changed(final Long network, final Kind kind) {
+			if (networks != null && !networks.contains(network)) {
+				return;
+			}
+			EnumSet<Kind> kinds = changes.get(network);
+			if (kinds == null) {
+				if (isFull()) {
+					drop();
+					return;
+				}
+				kinds = EnumSet.noneOf(Kind.class);
+				changes.put(network, kinds);
+			}
+			kinds.add(kind);
+		}
+
+		synchronized void networkAdded(final Long network) {
+			if (networks != null) {
+				return;
+			} else if (isFull()) {
+				drop();
+			} else {
+				added.add(network);
+			}
+		}
+
+		synchronized void networkRemoved(final Long network) {
+			if (networks != null && !networks.contains(network)) {
+				return;
+			}
+			changes.remove(network);
+			if (!added.remove(network)) {
+				if (isFull()) {
+					drop();
+				} else {
+					removed.add(network);
+				}
+			}
+		}
+
+		private final boolean isFull() {
+			return changes.size() + added.size() + removed.size() >= maxPending;
+		}
+
+		private final void drop() {
+			changes.clear();
+			added.clear();
+			removed.clear();
+			dropped = true;
+		}
+
+		/**
+		 * Take the pending notifications as events.
+		 *
+		 * @return Events to be written, or null if there is nothing to send
+		 *         or the previous batch is still being written.
+		 */
+		synchronized List<OutboundEvent> poll(final long now, final String version) throws IOException {
+			if (writing) {
+				return null;
+			}
+
+			final List<OutboundEvent> events = new ArrayList<OutboundEvent>();
+			final SegmentedStringWriter writer = jackson.createStringWriter();
+			if (dropped) {
+				events.add(endEvent(DROPPED_EVENT, startEvent(writer, version), writer));
+			}
+			if (!added.isEmpty() || !removed.isEmpty()) {
+				final JsonGenerator generator = startEvent(writer, version);
+				writeSuids(generator, ADDED, added);
+				writeSuids(generator, REMOVED, removed);
+				events.add(endEvent(NETWORKS_EVENT, generator, writer));
+			}
+			if (!changes.isEmpty()) {
+				final JsonGenerator generator = startEvent(writer, version);
+				generator.writeArrayFieldStart(NETWORKS);
+				for (final Map.Entry<Long, EnumSet<Kind>> entry : changes.entrySet()) {
+					generator.writeStartObject();
+					generator.writeNumberField(SUID, entry.getKey());
+					generator.writeArrayFieldStart(CHANGED);
+					for (final Kind kind : entry.getValue()) {
+						generator.writeString(kind.getName());
+					}
+					generator.writeEndArray();
+					generator.writeEndObject();
+				}
+				generator.writeEndArray();
+				events.add(endEvent(CHANGES_EVENT, generator, writer));
+			}
+
+			if (events.isEmpty()) {
+				if (now - lastWrite < HEARTBEAT_INTERVAL) {
+					return null;
+				}
+				events.add(new OutboundEvent.Builder().comment("").build());
+			}
+
+			changes = new LinkedHashMap<Long, EnumSet<Kind>>();
+			added = new LinkedHashSet<Long>();
+			removed = new LinkedHashSet<Long>();
+			dropped = false;
+			writing = true;
+			return events;
+		}
+
+		void write(final List<OutboundEvent> events) {
+			try {
+				for (final OutboundEvent event : events) {
+					output.write(event);
+				}
+			} catch (IOException e) {
+				// Client has disconnected
+				subscriptions.remove(this);
+				close();
+			} finally {
+				synchronized (this) {
+					writing = false;
+					lastWrite = System.currentTimeMillis();
+				}
+			}
+		}
+
+		void close() {
+			try {
+				output.close();
+			} catch (IOException e) {
+				logger.debug("Could not close event output.", e);
+			}
+		}
+	}
+
+	// Networks
+
+	@Override
+	public void handleEvent(final NetworkAddedEvent e) {
+		for (final Subscription subscription : subscriptions) {
+			subscription.networkAdded(e.getNetwork().getSUID());
+		}
+	}
+
+	@Override
+	public void handleEvent(final NetworkAboutToBeDestroyedEvent e) {
+		for (final Subscription subscription : subscriptions) {
+			subscription.networkRemoved(e.getNetwork().getSUID());
+		}
+	}
+
+	@Override
+	public void handleEvent(final AddedNodesEvent e) {
+		changed(e.getSource(), Kind.NODES);
+	}
+
+	@Override
+	public void handleEvent(final AddedEdgesEvent e) {
+		changed(e.getSource(), Kind.EDGES);
+	}
+
+	@Override
+	public void handleEvent(final RemovedNodesEvent e) {
+		changed(e.getSource(), Kind.NODES);
+	}
+
+	@Override
+	public void handleEvent(final RemovedEdgesEvent e) {
+		changed(e.getSource(), Kind.EDGES);
+	}
+
+	// Tables
+
+	@Override
+	public void handleEvent(final RowsSetEvent e) {
+		changed(e.getSource(), Kind.ROWS);
+	}
+
+	@Override
+	public void handleEvent(final RowsCreatedEvent e) {
+		changed(e.getSource(), Kind.ROWS);
+	}
+
+	@Override
+	public void handleEvent(final ColumnCreatedEvent e) {
+		changed(e.getSource(), Kind.COLUMNS);
+	}
+
+	@Override
+	public void handleEvent(final ColumnDeletedEvent e) {
+		changed(e.getSource(), Kind.COLUMNS);
+	}
+
+	@Override
+	public void handleEvent(final ColumnNameChangedEvent e) {
+		changed(e.getSource(), Kind.COLUMNS);
+	}
+
+	// Network views
+
+	@Override
+	public void handleEvent(final ViewChangedEvent<?> e) {
+		changed(e.getSource().getModel(), Kind.VIEWS);
+	}
+}
@@ -4,6 +4,7 @@ import java.util.Map;
 import java.util.Properties;
 
 import org.cytoscape.application.CyApplicationManager;
+import org.cytoscape.event.CyEventHelper;
 import org.cytoscape.group.CyGroupFactory;
 import org.cytoscape.group.CyGroupManager;
 import org.cytoscape.io.BasicCyFileFilter;
@@ -14,15 +15,19 @@ import org.cytoscape.io.write.CyNetworkViewWriterFactory;
 import org.cytoscape.io.write.VizmapWriterFactory;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyNetworkTableManager;
 import org.cytoscape.model.CyTableFactory;
 import org.cytoscape.model.CyTableManager;
 import org.cytoscape.model.subnetwork.CyRootNetworkManager;
 import org.cytoscape.property.CyProperty;
 import org.cytoscape.rest.TaskFactoryManager;
 import org.cytoscape.rest.internal.reader.EdgeListReaderFactory;
+import org.cytoscape.rest.internal.serializer.JacksonProvider;
+import org.cytoscape.rest.internal.serializer.RowPlanCache;
 import org.cytoscape.rest.internal.task.CyBinder;
 import org.cytoscape.rest.internal.task.GrizzlyServerManager;
 import org.cytoscape.rest.internal.task.HeadlessTaskMonitor;
+import org.cytoscape.rest.internal.task.JobManager;
 import org.cytoscape.service.util.AbstractCyActivator;
 import org.cytoscape.session.CySessionManager;
 import org.cytoscape.task.NetworkCollectionTaskFactory;
@@ -71,6 +76,8 @@ public class CyActivator extends AbstractCyActivator {
 	}
 
 	private GrizzlyServerManager grizzlyServerManager = null;
+	private ChangeNotifier changeNotifier = null;
+	private JobManager jobManager = null;
 
 	public CyActivator() {
 		super();
@@ -98,12 +105,14 @@ public class CyActivator extends AbstractCyActivator {
 		final CyGroupFactory groupFactory = getService(bc, CyGroupFactory.class);
 		final CyGroupManager groupManager = getService(bc, CyGroupManager.class);
 		final CyTableManager tableManager = getService(bc, CyTableManager.class);
+		final CyNetworkTableManager networkTableManager = getService(bc, CyNetworkTableManager.class);
 		final CyTableFactory tableFactory = getService(bc, CyTableFactory.class);
 		final StreamUtil streamUtil = getService(bc, StreamUtil.class);
 		final CySessionManager sessionManager = getService(bc, CySessionManager.class); 
 		final SaveSessionAsTaskFactory saveSessionAsTaskFactory = getService(bc, SaveSessionAsTaskFactory.class);
 		final OpenSessionTaskFactory openSessionTaskFactory = getService(bc, OpenSessionTaskFactory.class);
 		final NewSessionTaskFactory newSessionTaskFactory = getService(bc, NewSessionTaskFactory.class);
+		final CyEventHelper eventHelper = getService(bc, CyEventHelper.class);
 
 		// Task factories
 		final NewNetworkSelectedNodesAndEdgesTaskFactory networkSelectedNodesAndEdgesTaskFactory = getService(bc,
@@ -135,18 +144,38 @@ public class CyActivator extends AbstractCyActivator {
 		final BasicCyFileFilter elFilter = new BasicCyFileFilter(new String[] { "el" },
 				new String[] { "text/edgelist" }, "Edgelist files", DataCategory.NETWORK, streamUtil);
 		final EdgeListReaderFactory edgeListReaderFactory = new EdgeListReaderFactory(elFilter, netViewFact, netFact,
-				netMan, cyRootNetworkManager);
+				netMan, cyRootNetworkManager, eventHelper);
 		final Properties edgeListReaderFactoryProps = new Properties();
 		edgeListReaderFactoryProps.setProperty("ID", "edgeListReaderFactory");
 		registerService(bc, edgeListReaderFactory, InputStreamTaskFactory.class, edgeListReaderFactoryProps);
 
+		// Serialization plans for table rows are dropped when columns change.
+		// The cache gets the column events, so it does not check each plan.
+		final RowPlanCache rowPlanCache = new RowPlanCache(false);
+		registerAllServices(bc, rowPlanCache, new Properties());
+
+		// Modification versions for ETags
+		final ModelVersionTracker versionTracker = new ModelVersionTracker(eventHelper);
+		registerAllServices(bc, versionTracker, new Properties());
+
+		final JacksonProvider jackson = new JacksonProvider(rowPlanCache);
+
+		// Change notifications for event stream subscribers
+		this.changeNotifier = new ChangeNotifier(cyPropertyServiceRef.getProperties(), versionTracker,
+				networkTableManager, jackson);
+		registerAllServices(bc, changeNotifier, new Properties());
+
+		this.jobManager = new JobManager();
+
 		// Start REST Server
 		final CyBinder binder = new CyBinder(netMan, netViewMan, netFact, taskFactoryManagerManager,
 				applicationManager, visMan, cytoscapeJsWriterFactory, cytoscapeJsReaderFactory, layoutManager,
 				writerListsner, headlessTaskMonitor, tableManager, vsFactory, mappingFactoryManager, groupFactory,
 				groupManager, cyRootNetworkManager, loadNetworkURLTaskFactory, cyPropertyServiceRef,
 				networkSelectedNodesAndEdgesTaskFactory, edgeListReaderFactory, netViewFact, tableFactory, fitContent,
-				new EdgeBundlerImpl(edgeBundler), renderingEngineManager, sessionManager, saveSessionAsTaskFactory, openSessionTaskFactory, newSessionTaskFactory);
+				new EdgeBundlerImpl(edgeBundler), renderingEngineManager, sessionManager, saveSessionAsTaskFactory, openSessionTaskFactory, newSessionTaskFactory,
+				jackson, versionTracker, changeNotifier, eventHelper,
+				jobManager);
 				this.grizzlyServerManager = new GrizzlyServerManager(binder, cyPropertyServiceRef);
 		try {
 			this.grizzlyServerManager.startServer();
@@ -162,6 +191,12 @@ public class CyActivator extends AbstractCyActivator {
 		if (grizzlyServerManager != null) {
 			grizzlyServerManager.stopServer();
 		}
+		if (changeNotifier != null) {
+			changeNotifier.dispose();
+		}
+		if (jobManager != null) {
+			jobManager.dispose();
+		}
 	}
 
 	class EdgeBundlerImpl implements EdgeBundler {
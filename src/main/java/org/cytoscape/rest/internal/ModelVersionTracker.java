@@ -0,0 +1,403 @@
+package org.cytoscape.rest.internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.cytoscape.event.CyEventHelper;
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyIdentifiable;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.RowSetRecord;
+import org.cytoscape.model.events.AboutToRemoveEdgesEvent;
+import org.cytoscape.model.events.AboutToRemoveEdgesListener;
+import org.cytoscape.model.events.AboutToRemoveNodesEvent;
+import org.cytoscape.model.events.AboutToRemoveNodesListener;
+import org.cytoscape.model.events.AddedEdgesEvent;
+import org.cytoscape.model.events.AddedEdgesListener;
+import org.cytoscape.model.events.AddedNodesEvent;
+import org.cytoscape.model.events.AddedNodesListener;
+import org.cytoscape.model.events.ColumnCreatedEvent;
+import org.cytoscape.model.events.ColumnCreatedListener;
+import org.cytoscape.model.events.ColumnDeletedEvent;
+import org.cytoscape.model.events.ColumnDeletedListener;
+import org.cytoscape.model.events.ColumnNameChangedEvent;
+import org.cytoscape.model.events.ColumnNameChangedListener;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedEvent;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedListener;
+import org.cytoscape.model.events.RemovedEdgesEvent;
+import org.cytoscape.model.events.RemovedEdgesListener;
+import org.cytoscape.model.events.RemovedNodesEvent;
+import org.cytoscape.model.events.RemovedNodesListener;
+import org.cytoscape.model.events.RowsCreatedEvent;
+import org.cytoscape.model.events.RowsCreatedListener;
+import org.cytoscape.model.events.RowsDeletedEvent;
+import org.cytoscape.model.events.RowsDeletedListener;
+import org.cytoscape.model.events.RowsSetEvent;
+import org.cytoscape.model.events.RowsSetListener;
+import org.cytoscape.model.events.TableAboutToBeDeletedEvent;
+import org.cytoscape.model.events.TableAboutToBeDeletedListener;
+import org.cytoscape.view.model.events.AboutToRemoveEdgeViewsEvent;
+import org.cytoscape.view.model.events.AboutToRemoveEdgeViewsListener;
+import org.cytoscape.view.model.events.AboutToRemoveNodeViewsEvent;
+import org.cytoscape.view.model.events.AboutToRemoveNodeViewsListener;
+import org.cytoscape.view.model.events.AddedEdgeViewsEvent;
+import org.cytoscape.view.model.events.AddedEdgeViewsListener;
+import org.cytoscape.view.model.events.AddedNodeViewsEvent;
+import org.cytoscape.view.model.events.AddedNodeViewsListener;
+import org.cytoscape.view.model.events.NetworkViewAboutToBeDestroyedEvent;
+import org.cytoscape.view.model.events.NetworkViewAboutToBeDestroyedListener;
+import org.cytoscape.view.model.events.ViewChangedEvent;
+import org.cytoscape.view.model.events.ViewChangeRecord;
+import org.cytoscape.view.model.events.ViewChangedListener;
+import org.cytoscape.view.vizmap.events.VisualStyleAboutToBeRemovedEvent;
+import org.cytoscape.view.vizmap.events.VisualStyleAboutToBeRemovedListener;
+import org.cytoscape.view.vizmap.events.VisualStyleAddedEvent;
+import org.cytoscape.view.vizmap.events.VisualStyleAddedListener;
+import org.cytoscape.view.vizmap.events.VisualStyleChangedEvent;
+import org.cytoscape.view.vizmap.events.VisualStyleChangedListener;
+
+/**
+ * Modification versions of networks, tables, network views and Visual
+ * Styles.
+ *
+ * Versions are taken from a single counter which is incremented for each
+ * change event, so the version of an object only grows and a larger version
+ * is always a later change. An object which has not changed since the
+ * service was started has version 0. Visual Styles have no SUID, so all of
+ * them share a single version.
+ *
+ * Versions are used as entity tags: a client which already has the current
+ * version gets "304 Not Modified" without serializing the object again.
+ *
+ * Added and removed nodes and edges, cells and Visual Property values are
+ * also kept in a {@link ChangeLog} for each network, table and network view,
+ * so clients can ask for the changes since a version instead of the whole
+ * object.
+ *
+ */
+public class ModelVersionTracker implements RowsSetListener, RowsCreatedListener, ColumnCreatedListener,
+		ColumnDeletedListener, ColumnNameChangedListener, TableAboutToBeDeletedListener, AddedNodesListener,
+		AddedEdgesListener, RemovedNodesListener, RemovedEdgesListener, NetworkAboutToBeDestroyedListener,
+		ViewChangedListener, AddedNodeViewsListener, AddedEdgeViewsListener, AboutToRemoveNodeViewsListener,
+		AboutToRemoveEdgeViewsListener, NetworkViewAboutToBeDestroyedListener, VisualStyleChangedListener,
+		VisualStyleAddedListener, VisualStyleAboutToBeRemovedListener, AboutToRemoveNodesListener,
+		AboutToRemoveEdgesListener, RowsDeletedListener {
+
+	/**
+	 * Default number of changes kept for each object.
+	 */
+	public static final int DEF_CHANGE_LOG_SIZE = 64 * 1024;
+
+	private final CyEventHelper eventHelper;
+	private final AtomicLong clock = new AtomicLong();
+	private final ConcurrentMap<Long, Long> versions = new ConcurrentHashMap<>();
+	private final AtomicLong styleVersion = new AtomicLong();
+
+	private final ConcurrentMap<Long, ChangeLog> logs = new ConcurrentHashMap<>();
+	private final int changeLogSize;
+
+	private static final String TAG_SEPARATOR = "-";
+
+	// Distinguishes versions of different runs of the service.
+	private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+	/**
+	 * @param eventHelper used to deliver pending events before removals
+	 */
+	public ModelVersionTracker(final CyEventHelper eventHelper) {
+		this(eventHelper, DEF_CHANGE_LOG_SIZE);
+	}
+
+	/**
+	 * @param eventHelper used to deliver pending events before removals
+	 * @param changeLogSize number of changes kept for each object
+	 */
+	public ModelVersionTracker(final CyEventHelper eventHelper, final int changeLogSize) {
+		this.eventHelper = eventHelper;
+		this.changeLogSize = changeLogSize;
+	}
+
+	/**
+	 * @return Latest version of any object
+	 */
+	public long getCurrentVersion() {
+		return clock.get();
+	}
+
+	/**
+	 * @param suid SUID of a network, table or network view
+	 * @return Current version of the object
+	 */
+	public long getVersion(final Long suid) {
+		final Long version = versions.get(suid);
+		return version == null ? 0 : version;
+	}
+
+	/**
+	 * Get the version of a network including its default node, edge and
+	 * network tables.
+	 *
+	 * @param network target network
+	 * @return Latest version of the network and its tables
+	 */
+	public long getNetworkVersion(final CyNetwork network) {
+		long version = getVersion(network.getSUID());
+		version = Math.max(version, getVersion(network.getDefaultNodeTable().getSUID()));
+		version = Math.max(version, getVersion(network.getDefaultEdgeTable().getSUID()));
+		version = Math.max(version, getVersion(network.getDefaultNetworkTable().getSUID()));
+		return version;
+	}
+
+	/**
+	 * @return Current version of the Visual Styles
+	 */
+	public long getStyleVersion() {
+		return styleVersion.get();
+	}
+
+	/**
+	 * @param suid SUID of a network, table or network view
+	 * @param since a version returned by this tracker
+	 * @return Changes of the object after the version, oldest first, or null
+	 *         if some of them are no longer available
+	 */
+	public List<ChangeLog.Change> getChanges(final Long suid, final long since) {
+		final ChangeLog log = logs.get(suid);
+		if (log == null) {
+			return Collections.emptyList();
+		}
+		return log.getChanges(since);
+	}
+
+	/**
+	 * @param version a version returned by this tracker
+	 * @return Opaque tag for the version, unique across restarts
+	 */
+	public String getTag(final long version) {
+		return epoch + TAG_SEPARATOR + Long.toString(version, Character.MAX_RADIX);
+	}
+
+	/**
+	 * @param tag a tag returned by {@link #getTag(long)}
+	 * @return Version of the tag, or -1 if the tag is from another run of
+	 *         the service
+	 * @throws IllegalArgumentException if the tag is not a version tag
+	 */
+	public long parseTag(final String tag) {
+		final int separator = tag.lastIndexOf(TAG_SEPARATOR);
+		if (separator < 0) {
+			throw new IllegalArgumentException("Invalid version: " + tag);
+		}
+		final long version = Long.parseLong(tag.substring(separator + 1), Character.MAX_RADIX);
+		if (version < 0) {
+			throw new IllegalArgumentException("Invalid version: " + tag);
+		}
+		return epoch.equals(tag.substring(0, separator)) ? version : -1;
+	}
+
+	private final long modified(final CyIdentifiable obj) {
+		final long version = clock.incrementAndGet();
+		if (obj != null) {
+			versions.put(obj.getSUID(), version);
+		}
+		return version;
+	}
+
+	private final void removed(final CyIdentifiable obj) {
+		if (obj != null) {
+			versions.remove(obj.getSUID());
+			logs.remove(obj.getSUID());
+		}
+	}
+
+	private final ChangeLog getLog(final CyIdentifiable obj) {
+		ChangeLog log = logs.get(obj.getSUID());
+		if (log == null) {
+			final ChangeLog newLog = new ChangeLog(changeLogSize);
+			log = logs.putIfAbsent(obj.getSUID(), newLog);
+			if (log == null) {
+				log = newLog;
+			}
+		}
+		return log;
+	}
+
+	/**
+	 * The change cannot be expressed as a delta, so the log starts over.
+	 */
+	private final void reset(final CyIdentifiable obj) {
+		if (obj != null) {
+			getLog(obj).reset(modified(obj));
+		}
+	}
+
+	// Tables
+
+	@Override
+	public void handleEvent(final RowsSetEvent e) {
+		final CyTable table = e.getSource();
+		if (table.getPrimaryKey().getType() != Long.class) {
+			reset(table);
+			return;
+		}
+
+		final long version = modified(table);
+		final String key = table.getPrimaryKey().getName();
+		final ChangeLog log = getLog(table);
+		for (final RowSetRecord record : e.getPayloadCollection()) {
+			log.add(version, ChangeLog.Type.CELL_SET, record.getRow().get(key, Long.class), record.getColumn(),
+					record.getValue());
+		}
+	}
+
+	@Override
+	public void handleEvent(final RowsCreatedEvent e) {
+		modified(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final RowsDeletedEvent e) {
+		// E.g. the rows of removed nodes and edges
+		modified(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final ColumnCreatedEvent e) {
+		reset(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final ColumnDeletedEvent e) {
+		reset(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final ColumnNameChangedEvent e) {
+		reset(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final TableAboutToBeDeletedEvent e) {
+		removed(e.getTable());
+	}
+
+	// Networks
+
+	@Override
+	public void handleEvent(final AddedNodesEvent e) {
+		final long version = modified(e.getSource());
+		final ChangeLog log = getLog(e.getSource());
+		for (final CyNode node : e.getPayloadCollection()) {
+			log.add(version, ChangeLog.Type.NODE_ADDED, node.getSUID(), null, null);
+		}
+	}
+
+	@Override
+	public void handleEvent(final AddedEdgesEvent e) {
+		final long version = modified(e.getSource());
+		final ChangeLog log = getLog(e.getSource());
+		for (final CyEdge edge : e.getPayloadCollection()) {
+			log.add(version, ChangeLog.Type.EDGE_ADDED, edge.getSUID(), null, null);
+		}
+	}
+
+	/*
+	 * Removals are fired right away, but additions are payload events which
+	 * are delivered later.  The pending additions are delivered first, so a
+	 * node or edge added and removed again is logged in that order.
+	 */
+
+	@Override
+	public void handleEvent(final AboutToRemoveNodesEvent e) {
+		eventHelper.flushPayloadEvents();
+		final long version = modified(e.getSource());
+		final ChangeLog log = getLog(e.getSource());
+		for (final CyNode node : e.getNodes()) {
+			log.add(version, ChangeLog.Type.NODE_REMOVED, node.getSUID(), null, null);
+		}
+	}
+
+	@Override
+	public void handleEvent(final AboutToRemoveEdgesEvent e) {
+		eventHelper.flushPayloadEvents();
+		final long version = modified(e.getSource());
+		final ChangeLog log = getLog(e.getSource());
+		for (final CyEdge edge : e.getEdges()) {
+			log.add(version, ChangeLog.Type.EDGE_REMOVED, edge.getSUID(), null, null);
+		}
+	}
+
+	@Override
+	public void handleEvent(final RemovedNodesEvent e) {
+		modified(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final RemovedEdgesEvent e) {
+		modified(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final NetworkAboutToBeDestroyedEvent e) {
+		removed(e.getNetwork());
+	}
+
+	// Network views
+
+	@Override
+	public void handleEvent(final ViewChangedEvent<?> e) {
+		final long version = modified(e.getSource());
+		final ChangeLog log = getLog(e.getSource());
+		for (final ViewChangeRecord<?> record : e.getPayloadCollection()) {
+			log.add(version, ChangeLog.Type.VIEW_SET, record.getView().getModel().getSUID(),
+					record.getVisualProperty(), record.getValue());
+		}
+	}
+
+	@Override
+	public void handleEvent(final AddedNodeViewsEvent e) {
+		modified(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final AddedEdgeViewsEvent e) {
+		modified(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final AboutToRemoveNodeViewsEvent e) {
+		modified(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final AboutToRemoveEdgeViewsEvent e) {
+		modified(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final NetworkViewAboutToBeDestroyedEvent e) {
+		removed(e.getNetworkView());
+	}
+
+	// Visual Styles
+
+	@Override
+	public void handleEvent(final VisualStyleChangedEvent e) {
+		styleVersion.set(clock.incrementAndGet());
+	}
+
+	@Override
+	public void handleEvent(final VisualStyleAddedEvent e) {
+		styleVersion.set(clock.incrementAndGet());
+	}
+
+	@Override
+	public void handleEvent(final VisualStyleAboutToBeRemovedEvent e) {
+		styleVersion.set(clock.incrementAndGet());
+	}
+}
@@ -0,0 +1,41 @@
+package org.cytoscape.rest.internal;
+
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Numeric settings in cytoscape3.props.  An invalid value is logged and the
+ * default is used instead.
+ *
+ */
+public final class PropertyUtil {
+
+	private final static Logger logger = LoggerFactory.getLogger(PropertyUtil.class);
+
+	private PropertyUtil() {
+	}
+
+	public static long getLong(final Properties props, final String key, final long defaultValue) {
+		final String value = props.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			logger.warn("Invalid value for " + key + ": " + value);
+			return defaultValue;
+		}
+	}
+
+	public static int getInt(final Properties props, final String key, final int defaultValue) {
+		final long value = getLong(props, key, defaultValue);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			logger.warn("Invalid value for " + key + ": " + value);
+			return defaultValue;
+		}
+		return (int) value;
+	}
+}
@@ -0,0 +1,120 @@
+package org.cytoscape.rest.internal.datamapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads delimiter separated text (CSV or TSV) one record at a time.
+ * 
+ * Quoting follows RFC 4180, as written by DelimitedTableWriter: a quoted
+ * cell can contain separators, line breaks and doubled double quotes.
+ * Records can end with LF or CRLF.  A byte order mark at the beginning of
+ * the input is ignored.
+ * 
+ */
+final class DelimitedTableReader {
+
+	private static final char QUOTE = '"';
+	private static final char BOM = '\uFEFF';
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int EOF = -1;
+
+	private final Reader reader;
+	private final char separator;
+
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private boolean started;
+
+	private final StringBuilder cell = new StringBuilder();
+	private final List<String> cells = new ArrayList<String>();
+
+	/**
+	 * @param reader Input.  It is read in large blocks, so it does not
+	 *            need to be buffered.
+	 * @param separator Cell separator, e.g. ',' or '\t'
+	 */
+	DelimitedTableReader(final Reader reader, final char separator) {
+		this.reader = reader;
+		this.separator = separator;
+	}
+
+	/**
+	 * @return Cells of the next record, or null at the end of the input.
+	 *         Empty lines are skipped.
+	 * @throws IOException if a quoted cell is not closed
+	 */
+	String[] readRecord() throws IOException {
+		int c = read();
+		if (!started) {
+			started = true;
+			if (c == BOM) {
+				c = read();
+			}
+		}
+		while (c == '\n' || c == '\r') {
+			c = read();
+		}
+		if (c == EOF) {
+			return null;
+		}
+
+		cells.clear();
+		cell.setLength(0);
+		while (true) {
+			if (c == QUOTE && cell.length() == 0) {
+				c = readQuoted();
+				continue;
+			}
+			if (c == separator) {
+				endCell();
+			} else if (c == '\n' || c == '\r' || c == EOF) {
+				endCell();
+				return cells.toArray(new String[cells.size()]);
+			} else {
+				cell.append((char) c);
+			}
+			c = read();
+		}
+	}
+
+	/**
+	 * Read a quoted part of a cell.
+	 * 
+	 * @return Next character after the closing quote
+	 */
+	private final int readQuoted() throws IOException {
+		while (true) {
+			final int c = read();
+			if (c == EOF) {
+				throw new IOException("Quoted cell is not closed.");
+			} else if (c == QUOTE) {
+				final int next = read();
+				if (next != QUOTE) {
+					return next;
+				}
+			}
+			cell.append((char) c);
+		}
+	}
+
+	private final void endCell() {
+		cells.add(cell.toString());
+		cell.setLength(0);
+	}
+
+	private final int read() throws IOException {
+		if (position == limit) {
+			limit = reader.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return EOF;
+			}
+		}
+		return buffer[position++];
+	}
+}
@@ -0,0 +1,185 @@
+package org.cytoscape.rest.internal.datamapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyIdentifiable;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Hash index of the rows of a table by the values of a key column.
+ *
+ * The index is built in one pass over the table when a request starts, so
+ * each lookup is O(1) instead of a scan of the table. Rows are looked up
+ * directly if the key column is the primary key.
+ *
+ */
+public final class KeyIndex {
+
+	private final CyTable table;
+	private final CyColumn column;
+	private final Class<?> type;
+
+	// The value for a key is the row, or a List of rows if more than one
+	// row has the key.  null if the key column is the primary key.
+	private final Map<Object, Object> rows;
+
+	/**
+	 * @param table indexed table
+	 * @param columnName name of the key column
+	 * @throws IllegalArgumentException if there is no such column, or it
+	 *             is a List column
+	 */
+	public KeyIndex(final CyTable table, final String columnName) {
+		this.table = table;
+		this.column = table.getColumn(columnName);
+		if (column == null) {
+			throw new IllegalArgumentException("No such column: " + columnName);
+		} else if (column.getType() == List.class) {
+			throw new IllegalArgumentException("List column cannot be used as a key: " + columnName);
+		}
+		this.type = column.getType();
+		this.rows = column.isPrimaryKey() ? null : createIndex();
+	}
+
+	/**
+	 * @return Indexed table
+	 */
+	public CyTable getTable() {
+		return table;
+	}
+
+	/**
+	 * @return Key column
+	 */
+	public CyColumn getColumn() {
+		return column;
+	}
+
+	/**
+	 * @return Name of the key column
+	 */
+	public String getColumnName() {
+		return column.getName();
+	}
+
+	/**
+	 * @return true if the key column is the primary key of the table
+	 */
+	public boolean isPrimaryKey() {
+		return column.isPrimaryKey();
+	}
+
+	/**
+	 * Convert a JSON value to a key of the column type. Numbers and
+	 * booleans can also be given as strings.
+	 *
+	 * @param value JSON value. Can be null.
+	 * @return Key, or null for a missing value or JSON null
+	 * @throws IllegalArgumentException if the value cannot be converted
+	 */
+	public Object getKey(final JsonNode value) {
+		if (value == null || value.isNull()) {
+			return null;
+		} else if (!value.isValueNode()) {
+			throw new IllegalArgumentException("Key must be a value: " + value);
+		}
+
+		final String text = value.asText().trim();
+		if (type == String.class) {
+			return value.asText();
+		} else if (type == Long.class) {
+			return value.isNumber() ? value.longValue() : Long.valueOf(text);
+		} else if (type == Integer.class) {
+			return value.isNumber() ? value.intValue() : Integer.valueOf(text);
+		} else if (type == Double.class) {
+			return value.isNumber() ? value.doubleValue() : Double.valueOf(text);
+		} else if (type == Boolean.class) {
+			return value.isBoolean() ? value.booleanValue() : Boolean.valueOf(text);
+		} else {
+			throw new IllegalArgumentException("Unsupported key column type: " + type.getSimpleName());
+		}
+	}
+
+	/**
+	 * @param key value of the key column
+	 * @return Rows with the value.  Empty if there is no such row.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<CyRow> getRows(final Object key) {
+		if (rows == null) {
+			return table.rowExists(key) ? Collections.singletonList(table.getRow(key))
+					: Collections.<CyRow> emptyList();
+		}
+
+		final Object value = rows.get(key);
+		if (value == null) {
+			return Collections.emptyList();
+		} else if (value instanceof CyRow) {
+			return Collections.singletonList((CyRow) value);
+		} else {
+			return (List<CyRow>) value;
+		}
+	}
+
+	/**
+	 * Values which appear in more than one row are ambiguous, and cannot be
+	 * looked up with this.
+	 *
+	 * @param key value of the key column
+	 * @return SUID of the row, or null if no row has the value
+	 * @throws IllegalArgumentException if more than one row has the value
+	 */
+	public Long getSUID(final Object key) {
+		final List<CyRow> found = getRows(key);
+		if (found.isEmpty()) {
+			return null;
+		} else if (found.size() > 1) {
+			throw new IllegalArgumentException("More than one row has " + column.getName() + " = " + key);
+		}
+		return found.get(0).get(CyIdentifiable.SUID, Long.class);
+	}
+
+	/**
+	 * Add a new row to the index.
+	 */
+	public void put(final Object key, final Long suid) {
+		if (rows != null) {
+			add(rows, key, table.getRow(suid));
+		}
+	}
+
+	private final Map<Object, Object> createIndex() {
+		final String name = column.getName();
+		final Map<Object, Object> index = new HashMap<Object, Object>();
+		for (final CyRow row : table.getAllRows()) {
+			final Object key = row.get(name, type);
+			if (key != null) {
+				add(index, key, row);
+			}
+		}
+		return index;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static final void add(final Map<Object, Object> index, final Object key, final CyRow row) {
+		final Object previous = index.put(key, row);
+		if (previous instanceof CyRow) {
+			final List<CyRow> list = new ArrayList<CyRow>(2);
+			list.add((CyRow) previous);
+			list.add(row);
+			index.put(key, list);
+		} else if (previous != null) {
+			final List<CyRow> list = (List<CyRow>) previous;
+			list.add(row);
+			index.put(key, list);
+		}
+	}
+}
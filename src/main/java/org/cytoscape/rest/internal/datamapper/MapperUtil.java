@@ -1,7 +1,27 @@
 package org.cytoscape.rest.internal.datamapper;
 
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
 public class MapperUtil {
 
+	/**
+	 * Move to the next element of an array.
+	 * 
+	 * @return First token of the element, or END_ARRAY
+	 * @throws JsonParseException if the input ends before the array
+	 */
+	public static final JsonToken nextElement(final JsonParser parser) throws IOException {
+		final JsonToken token = parser.nextToken();
+		if (token == null) {
+			throw new JsonParseException("Unexpected end of input in array", parser.getCurrentLocation());
+		}
+		return token;
+	}
+
 	public static final Class<?> getColumnClass(final String type) {
 		if (type.equals(Double.class.getSimpleName())) {
 			return Double.class;
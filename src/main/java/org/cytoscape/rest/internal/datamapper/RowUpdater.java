@@ -0,0 +1,135 @@
+package org.cytoscape.rest.internal.datamapper;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Sets the fields of JSON objects as cells of rows in one table.
+ * 
+ * The column of each field name is resolved once and reused for all
+ * following rows.  Columns which do not exist are created from the type of
+ * the first value.  List values are not supported for new columns.
+ * 
+ */
+public class RowUpdater {
+
+	private final CyTable table;
+	private final Collection<String> ignore;
+
+	// Column type of each field name seen so far
+	private final Map<String, Class<?>> types = new HashMap<String, Class<?>>();
+
+	private int invalidValues;
+
+	/**
+	 * @param table Table to be updated.
+	 * @param ignore Names of fields which are not cells.
+	 */
+	public RowUpdater(final CyTable table, final Collection<String> ignore) {
+		this.table = table;
+		this.ignore = ignore;
+	}
+
+	/**
+	 * Set the fields of a JSON object as cells of a row.
+	 * 
+	 * @param entry JSON object.
+	 * @param row Row of the table to be updated.
+	 * 
+	 */
+	public void update(final JsonNode entry, final CyRow row) {
+		final Iterator<Map.Entry<String, JsonNode>> fields = entry.fields();
+		while (fields.hasNext()) {
+			final Map.Entry<String, JsonNode> field = fields.next();
+			final String name = field.getKey();
+			final JsonNode value = field.getValue();
+			if (value == null || ignore.contains(name)) {
+				continue;
+			}
+
+			final Class<?> type = getColumnType(name, value);
+			if (type == null) {
+				continue;
+			}
+			try {
+				setValue(type, value, row, name);
+			} catch (Exception e) {
+				// Invalid value for the column
+				invalidValues++;
+			}
+		}
+	}
+
+	/**
+	 * @return Number of values which could not be set.
+	 */
+	public int getInvalidValues() {
+		return invalidValues;
+	}
+
+	private final Class<?> getColumnType(final String name, final JsonNode value) {
+		Class<?> type = types.get(name);
+		if (type != null) {
+			return type;
+		}
+
+		final CyColumn column = table.getColumn(name);
+		if (column != null) {
+			type = column.getType();
+		} else {
+			// Need to create new column.
+			type = getValueType(value);
+			if (type == List.class) {
+				// List is not supported.
+				return null;
+			}
+			table.createColumn(name, type, false);
+		}
+		types.put(name, type);
+		return type;
+	}
+
+	static final void setValue(final Class<?> type, final JsonNode value, final CyRow row, final String columnName) {
+		if (type == String.class) {
+			row.set(columnName, value.asText());
+		} else if (type == Boolean.class) {
+			row.set(columnName, value.asBoolean());
+		} else if (type == Double.class) {
+			row.set(columnName, value.asDouble());
+		} else if (type == Integer.class) {
+			row.set(columnName, value.asInt());
+		} else if (type == Long.class) {
+			row.set(columnName, value.asLong());
+		} else if (type == Float.class) {
+			row.set(columnName, value.asDouble());
+		}
+	}
+
+	/**
+	 * Check data type.  All numbers will be set to Double.
+	 * 
+	 * @param value
+	 * @return
+	 * 
+	 */
+	private static final Class<?> getValueType(final JsonNode value) {
+		if (value.isArray()) {
+			return List.class;
+		} else if (value.isBoolean()) {
+			return Boolean.class;
+		} else if (value.isNumber()) {
+			return Double.class;
+		} else {
+			return String.class;
+		}
+	}
+}
@@ -1,7 +1,10 @@
 package org.cytoscape.rest.internal.datamapper;
 
-import java.util.Collection;
-import java.util.Iterator;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import javax.ws.rs.NotFoundException;
@@ -12,6 +15,8 @@ import org.cytoscape.model.CyRow;
 import org.cytoscape.model.CyTable;
 import org.cytoscape.rest.internal.resource.JsonTags;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 
 /**
@@ -76,9 +81,35 @@ public class TableMapper {
 		}
 	}
 
-	public void updateColumnValues(final JsonNode rootNode, final CyTable table, final String columnName) {
+	/**
+	 * Set the values of a column from a stream of the JSON array
+	 * <pre>
+	 * [ { "SUID": PRIMARY_KEY, "value": VALUE }, ... ]
+	 * </pre>
+	 * 
+	 * @param parser Parser at the start of the body.
+	 * @param table CyTable to be updated.
+	 * @param columnName Name of the column.
+	 * 
+	 */
+	public void updateColumnValues(final JsonParser parser, final CyTable table, final String columnName)
+			throws IOException {
+		if(parser.nextToken() != JsonToken.START_ARRAY) {
+			throw new IllegalArgumentException("Values should be an array.");
+		}
+		final CyColumn column = table.getColumn(columnName);
+		if(column == null) {
+			throw new NotFoundException("No such column in the table: " + columnName);
+		}
+
 		// This should be an array of objects
-		for(final JsonNode entry:rootNode) {
+		JsonToken token;
+		while((token = MapperUtil.nextElement(parser)) != JsonToken.END_ARRAY) {
+			if(token != JsonToken.START_OBJECT) {
+				parser.skipChildren();
+				continue;
+			}
+			final JsonNode entry = parser.readValueAsTree();
 			final Long primaryKey = entry.get(CyIdentifiable.SUID).asLong();
 			final CyRow row = table.getRow(primaryKey);
 			if(row == null) {
@@ -86,7 +117,7 @@ public class TableMapper {
 			}
 			
 			JsonNode value = entry.get("value");
-			setValue(table.getColumn(columnName).getType(), value, row, columnName);
+			RowUpdater.setValue(column.getType(), value, row, columnName);
 		}
 	}
 	
@@ -94,100 +125,449 @@ public class TableMapper {
 	/**
 	 * This is for PUT method for default tables.
 	 * 
-	 * @param rootNode a JSON array.
+	 * The body is read as a stream.  Records of the "data" array are read
+	 * and applied in batches, so only one batch is held in memory.  Records
+	 * are joined to the rows by a hash index of the key column, which is
+	 * built before the first batch.
+	 * 
+	 * The key columns have to be known when "data" starts: given as
+	 * arguments, or as "key" and "dataKey" before "data" in the body.
+	 * Otherwise the array is read as a whole first.
+	 * 
+	 * @param parser Parser at the start of the body.
 	 * @param table CyTable to be updated.
+	 * @param keyColName Key column of the table.  If null, "key" in the
+	 *            body or SUID is used.
+	 * @param dataKeyColName Key field of the records.  If null, "dataKey"
+	 *            in the body or SUID is used.
+	 * 
+	 * @return Numbers of matched, unmatched and skipped records.
 	 * 
 	 */
 	
 	private static final String KEY = "key";
 	private static final String DATA_KEY = "dataKey";
 	private static final String DATA = "data";
+
+	private static final int BATCH_SIZE = 1000;
+	private static final char LIST_SEPARATOR = '|';
+	// Escapes "|" and itself in the elements of List cells
+	private static final char ESCAPE = '\\';
 	
-	public void updateTableValues(final JsonNode rootNode, final CyTable table) {
-		// Validate body
-		final JsonNode data = rootNode.get(DATA);
-		if(data == null) {
+	public UpdateReport updateTableValues(final JsonParser parser, final CyTable table, String keyColName,
+			String dataKeyColName) throws IOException {
+		if(parser.nextToken() != JsonToken.START_OBJECT) {
+			throw new IllegalArgumentException("Body should be an object.");
+		}
+
+		boolean hasKey = keyColName != null;
+		boolean hasDataKey = dataKeyColName != null;
+		JsonNode bufferedData = null;
+		UpdateReport report = null;
+
+		while(parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			final JsonToken token = parser.nextToken();
+			if(KEY.equals(field) && !hasKey) {
+				keyColName = parser.getValueAsString();
+				hasKey = true;
+			} else if(DATA_KEY.equals(field) && !hasDataKey) {
+				dataKeyColName = parser.getValueAsString();
+				hasDataKey = true;
+			} else if(DATA.equals(field)) {
+				if(token != JsonToken.START_ARRAY) {
+					throw new IllegalArgumentException("Data should be an array.");
+				}
+				if(report != null || bufferedData != null) {
+					throw new IllegalArgumentException("Duplicate data array.");
+				}
+				if(hasKey && hasDataKey) {
+					report = join(table, keyColName, dataKeyColName, parser);
+				} else {
+					bufferedData = parser.readValueAsTree();
+				}
+				continue;
+			}
+			parser.skipChildren();
+		}
+
+		if(bufferedData != null) {
+			final JsonParser dataParser = bufferedData.traverse(parser.getCodec());
+			dataParser.nextToken();
+			report = join(table, keyColName == null ? CyIdentifiable.SUID : keyColName,
+					dataKeyColName == null ? CyIdentifiable.SUID : dataKeyColName, dataParser);
+		}
+		if(report == null) {
 			throw new NotFoundException("Data array is missing.");
 		}
-		if(!data.isArray()) {
-			throw new IllegalArgumentException("Data should be an array.");
+		return report;
+	}
+
+	/**
+	 * This is for PUT method for default tables with a CSV or TSV body.
+	 * 
+	 * The first record is the header with the field names.  Records are
+	 * read and applied in batches, and joined to the rows by a hash index
+	 * of the key column like {@link #updateTableValues(JsonParser, CyTable, String, String)}.
+	 * 
+	 * Columns which do not exist are created.  Their type is inferred from
+	 * the cells of the first batch: Boolean, Integer, Long, Double, or
+	 * String if the cells are mixed.  Empty cells are not set.  Cells of
+	 * List columns are separated by "|", as they are exported.
+	 * 
+	 * @param reader Body.
+	 * @param separator Cell separator, e.g. ',' or '\t'
+	 * @param table CyTable to be updated.
+	 * @param keyColName Key column of the table.  If null, SUID is used.
+	 * @param dataKeyColName Key field of the records.  If null, the key
+	 *            column name is used.
+	 * 
+	 * @return Numbers of matched, unmatched and skipped records.
+	 * 
+	 */
+	public UpdateReport updateTableValues(final Reader reader, final char separator, final CyTable table,
+			String keyColName, String dataKeyColName) throws IOException {
+		final DelimitedTableReader in = new DelimitedTableReader(reader, separator);
+		final String[] header = in.readRecord();
+		if(header == null) {
+			throw new IllegalArgumentException("Header is missing.");
 		}
-		
-		final JsonNode keyCol = rootNode.get(KEY);
-		final String keyColName;
-		if(keyCol == null) {
-			// If not specified, simply use SUID.
+
+		if(keyColName == null) {
 			keyColName = CyIdentifiable.SUID;
-		} else {
-			keyColName = keyCol.asText();
 		}
-
-		// Check such column exists or not.
+		if(dataKeyColName == null) {
+			dataKeyColName = keyColName;
+		}
 		final CyColumn col = table.getColumn(keyColName);
 		if(col == null) {
 			throw new NotFoundException("No such column in the table: " + keyColName);
 		}
-		
-		final JsonNode dataKeyCol = rootNode.get(DATA_KEY);
-		final String dataKeyColName;
-		if(dataKeyCol == null) {
-			dataKeyColName = CyIdentifiable.SUID;
+		final int keyField = Arrays.asList(header).indexOf(dataKeyColName);
+		if(keyField < 0) {
+			throw new IllegalArgumentException("No such field in the header: " + dataKeyColName);
+		}
+
+		final KeyIndex index = new KeyIndex(table, keyColName);
+		final UpdateReport report = new UpdateReport();
+
+		// The first batch is also the sample for the types of new columns.
+		final List<String[]> batch = new ArrayList<String[]>(BATCH_SIZE);
+		readBatch(in, batch);
+		final CyColumn[] columns = getColumns(table, header, batch);
+		while(!batch.isEmpty()) {
+			applyBatch(batch, keyField, index, columns, report);
+			batch.clear();
+			readBatch(in, batch);
+		}
+		return report;
+	}
+
+	private static final void readBatch(final DelimitedTableReader in, final List<String[]> batch)
+			throws IOException {
+		String[] record;
+		while(batch.size() < BATCH_SIZE && (record = in.readRecord()) != null) {
+			batch.add(record);
+		}
+	}
+
+	/**
+	 * Find or create the column of each field.
+	 * 
+	 * @return Column of each field, or null if the field cannot be set.
+	 */
+	private final CyColumn[] getColumns(final CyTable table, final String[] header, final List<String[]> sample) {
+		final CyColumn[] columns = new CyColumn[header.length];
+		for(int i = 0; i < header.length; i++) {
+			final String name = header[i];
+			if(name.isEmpty()) {
+				continue;
+			}
+			CyColumn column = table.getColumn(name);
+			if(column == null) {
+				table.createColumn(name, inferType(sample, i), false);
+				column = table.getColumn(name);
+			}
+			if(!column.isPrimaryKey()) {
+				columns[i] = column;
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Infer the type of a new column from the non-empty cells of a field.
+	 */
+	private static final Class<?> inferType(final List<String[]> sample, final int field) {
+		boolean isBoolean = true;
+		boolean isInteger = true;
+		boolean isLong = true;
+		boolean isDouble = true;
+		boolean isEmpty = true;
+		for(final String[] record : sample) {
+			if(field >= record.length || record[field].isEmpty()) {
+				continue;
+			}
+			isEmpty = false;
+			final String text = record[field].trim();
+			if(isBoolean && !text.equalsIgnoreCase("true") && !text.equalsIgnoreCase("false")) {
+				isBoolean = false;
+			}
+			if(isLong) {
+				try {
+					final long value = Long.parseLong(text);
+					if(value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+						isInteger = false;
+					}
+				} catch(NumberFormatException e) {
+					isInteger = false;
+					isLong = false;
+				}
+			}
+			if(isDouble && !isLong) {
+				try {
+					Double.parseDouble(text);
+				} catch(NumberFormatException e) {
+					isDouble = false;
+				}
+			}
+		}
+
+		if(isEmpty) {
+			return String.class;
+		} else if(isBoolean) {
+			return Boolean.class;
+		} else if(isInteger) {
+			return Integer.class;
+		} else if(isLong) {
+			return Long.class;
+		} else if(isDouble) {
+			return Double.class;
 		} else {
-			dataKeyColName = dataKeyCol.asText();
+			return String.class;
 		}
+	}
 
-		// This should be an array of objects
-		for(final JsonNode entry:data) {
-			final JsonNode keyValue = entry.get(dataKeyColName);
-			if(keyValue == null) {
-				// Skip the entry if there is no mapping key value.
+	private final void applyBatch(final List<String[]> batch, final int keyField, final KeyIndex index,
+			final CyColumn[] columns, final UpdateReport report) {
+		final CyColumn keyColumn = index.getColumn();
+		final Object[] values = new Object[columns.length];
+		for(final String[] record : batch) {
+			if(keyField >= record.length || record[keyField].isEmpty()) {
+				// Skip the record if there is no mapping key value.
+				report.skipped++;
 				continue;
 			}
 
-			final Object key = getValue(keyValue, col.getType());
-			if(key == null) {
+			final List<CyRow> rows;
+			try {
+				rows = index.getRows(parseCell(record[keyField], keyColumn.getType(),
+						keyColumn.getListElementType()));
+			} catch(IllegalArgumentException e) {
 				// Key is invalid.
+				report.skipped++;
 				continue;
 			}
-			final Collection<CyRow> machingRows = table.getMatchingRows(keyColName, key);
-			
-			if(machingRows.isEmpty()) {
+			if(rows.isEmpty()) {
+				report.unmatched++;
 				continue;
 			}
-			
-			for (final CyRow row : machingRows) {
-				final Iterator<String> fields = entry.fieldNames();
-				while (fields.hasNext()) {
-					final String field = fields.next();
-					final JsonNode value = entry.get(field);
-					if(value == null) {
+			report.matched++;
+
+			// Convert the cells once for all matching rows
+			for(int i = 0; i < columns.length; i++) {
+				values[i] = null;
+				if(columns[i] == null || i >= record.length || record[i].isEmpty()) {
+					continue;
+				}
+				try {
+					values[i] = parseCell(record[i], columns[i].getType(), columns[i].getListElementType());
+				} catch(IllegalArgumentException e) {
+					report.invalidValues++;
+				}
+			}
+			for(final CyRow row : rows) {
+				for(int i = 0; i < columns.length; i++) {
+					if(values[i] == null) {
 						continue;
 					}
-					
-					CyColumn column = table.getColumn(field);
-					if (column == null) {
-						// Need to create new column.
-						final Class<?> type = getValueType(value);
-						if(type == List.class) {
-							// List is not supported.
-							continue;
-						}
-						table.createColumn(field, type, false);
-						column = table.getColumn(field);
-					}
-					
 					try {
-						setValue(column.getType(), value, row, field);
-					} catch (Exception e) {
-						// Simply ignore invalid value
-						e.printStackTrace();
-						continue;
+						row.set(columns[i].getName(), values[i]);
+					} catch(IllegalArgumentException e) {
+						report.invalidValues++;
 					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Split a List cell on "|". A backslash before "|" or another
+	 * backslash escapes it, and other backslashes are kept as they are.
+	 */
+	private static final List<String> splitList(final String text) {
+		final List<String> elements = new ArrayList<String>();
+		final StringBuilder element = new StringBuilder();
+		final int length = text.length();
+		for(int i = 0; i < length; i++) {
+			final char c = text.charAt(i);
+			if(c == ESCAPE && i + 1 < length
+					&& (text.charAt(i + 1) == LIST_SEPARATOR || text.charAt(i + 1) == ESCAPE)) {
+				element.append(text.charAt(++i));
+			} else if(c == LIST_SEPARATOR) {
+				elements.add(element.toString());
+				element.setLength(0);
+			} else {
+				element.append(c);
+			}
+		}
+		elements.add(element.toString());
+		return elements;
+	}
+
+	/**
+	 * Convert a cell to a value of a column type.
+	 * 
+	 * @throws IllegalArgumentException if the cell is not a valid value.
+	 */
+	private static final Object parseCell(final String text, final Class<?> type, final Class<?> elementType) {
+		if(type == String.class) {
+			return text;
+		} else if(type == List.class) {
+			final List<Object> list = new ArrayList<Object>();
+			for(final String element : splitList(text)) {
+				if(!element.isEmpty()) {
+					list.add(parseCell(element, elementType, null));
+				}
+			}
+			return list;
+		}
+
+		final String value = text.trim();
+		if(type == Boolean.class) {
+			if(value.equalsIgnoreCase("true")) {
+				return Boolean.TRUE;
+			} else if(value.equalsIgnoreCase("false")) {
+				return Boolean.FALSE;
+			}
+			throw new IllegalArgumentException("Not a boolean: " + text);
+		} else if(type == Integer.class) {
+			return Integer.valueOf(value);
+		} else if(type == Long.class) {
+			return Long.valueOf(value);
+		} else if(type == Double.class) {
+			return Double.valueOf(value);
+		} else if(type == Float.class) {
+			return Float.valueOf(value);
+		} else {
+			throw new IllegalArgumentException("Unsupported column type: " + type);
+		}
+	}
+
+	/**
+	 * Apply the records of a data array to the rows.
+	 * 
+	 * @param parser Parser at the start of the array.
+	 */
+	private final UpdateReport join(final CyTable table, final String keyColName, final String dataKeyColName,
+			final JsonParser parser) throws IOException {
+		// Check such column exists or not.
+		final CyColumn col = table.getColumn(keyColName);
+		if(col == null) {
+			throw new NotFoundException("No such column in the table: " + keyColName);
+		}
+
+		final KeyIndex index = new KeyIndex(table, keyColName);
+		final RowUpdater updater = new RowUpdater(table, Collections.<String>emptySet());
+		final UpdateReport report = new UpdateReport();
+
+		final List<JsonNode> batch = new ArrayList<JsonNode>(BATCH_SIZE);
+		JsonToken token;
+		while((token = MapperUtil.nextElement(parser)) != JsonToken.END_ARRAY) {
+			if(token != JsonToken.START_OBJECT) {
+				parser.skipChildren();
+				report.skipped++;
+				continue;
+			}
+			batch.add(parser.<JsonNode>readValueAsTree());
+			if(batch.size() == BATCH_SIZE) {
+				applyBatch(batch, dataKeyColName, index, updater, report);
+				batch.clear();
+			}
+		}
+		applyBatch(batch, dataKeyColName, index, updater, report);
+		report.invalidValues = updater.getInvalidValues();
+		return report;
+	}
+
+	private final void applyBatch(final List<JsonNode> batch, final String dataKeyColName, final KeyIndex index,
+			final RowUpdater updater, final UpdateReport report) {
+		for(final JsonNode entry:batch) {
+			final JsonNode keyValue = entry.get(dataKeyColName);
+			if(keyValue == null || keyValue.isNull()) {
+				// Skip the entry if there is no mapping key value.
+				report.skipped++;
+				continue;
+			}
+
+			final Object key = getValue(keyValue, index.getColumn().getType());
+			if(key == null) {
+				// Key is invalid.
+				report.skipped++;
+				continue;
+			}
+
+			final List<CyRow> rows = index.getRows(key);
+			if(rows.isEmpty()) {
+				report.unmatched++;
+				continue;
+			}
+			report.matched++;
+			for (final CyRow row : rows) {
+				updater.update(entry, row);
+			}
+		}
+	}
+
+	/**
+	 * Result of {@link TableMapper#updateTableValues(JsonParser, CyTable, String, String)}.
+	 */
+	public static final class UpdateReport {
+
+		private int matched;
+		private int unmatched;
+		private int skipped;
+		private int invalidValues;
+
+		/**
+		 * @return Number of records with at least one matching row.
+		 */
+		public int getMatched() {
+			return matched;
+		}
+
+		/**
+		 * @return Number of records with a key which no row has.
+		 */
+		public int getUnmatched() {
+			return unmatched;
+		}
+
+		/**
+		 * @return Number of records without a valid key.
+		 */
+		public int getSkipped() {
+			return skipped;
+		}
+
+		/**
+		 * @return Number of values which could not be set.
+		 */
+		public int getInvalidValues() {
+			return invalidValues;
+		}
+	}
+
 
 	private final Object getValue(final JsonNode value, final Class<?> type) {
 		if (type == String.class) {
@@ -206,41 +586,4 @@ public class TableMapper {
 			return null;
 		}
 	}
-
-
-	private final void setValue(final Class<?> type, final JsonNode value, final CyRow row, final String columnName) {
-		if (type == String.class) {
-			row.set(columnName, value.asText());
-		} else if (type == Boolean.class) {
-			row.set(columnName, value.asBoolean());
-		} else if (type == Double.class) {
-			row.set(columnName, value.asDouble());
-		} else if (type == Integer.class) {
-			row.set(columnName, value.asInt());
-		} else if (type == Long.class) {
-			row.set(columnName, value.asLong());
-		} else if (type == Float.class) {
-			row.set(columnName, value.asDouble());
-		}
-	}
-
-
-	/**
-	 * Check data type.  All numbers will be set to Double.
-	 * 
-	 * @param value
-	 * @return
-	 * 
-	 */
-	private final Class<?> getValueType(final JsonNode value) {
-		if (value.isArray()) {
-			return List.class;
-		} else if (value.isBoolean()) {
-			return Boolean.class;
-		} else if (value.isNumber()) {
-			return Double.class;
-		} else {
-			return String.class;
-		}
-	}
 }
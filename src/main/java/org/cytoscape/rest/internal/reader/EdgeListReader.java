@@ -1,50 +1,122 @@
 package org.cytoscape.rest.internal.reader;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.cytoscape.event.CyEventHelper;
 import org.cytoscape.io.read.AbstractCyNetworkReader;
+import org.cytoscape.model.CyColumn;
 import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNetworkManager;
 import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
 import org.cytoscape.model.subnetwork.CyRootNetwork;
 import org.cytoscape.model.subnetwork.CyRootNetworkManager;
 import org.cytoscape.model.subnetwork.CySubNetwork;
+import org.cytoscape.rest.internal.BulkEdit;
 import org.cytoscape.view.model.CyNetworkView;
 import org.cytoscape.view.model.CyNetworkViewFactory;
 import org.cytoscape.work.TaskMonitor;
 
 /**
  * Network Reader for Edge Lists
+ * 
+ * Each line is a pair of node names separated by whitespace.  Other lines
+ * are ignored, and lines starting with "#" are comments.
+ * 
+ * The first line can be a header which declares edge columns for the
+ * values after the node names:
+ * 
+ * <pre>
+ * #source target weight:Double interaction score:Integer
+ * a b 0.5 pp 3
+ * </pre>
+ * 
+ * Column types are String (default), Integer, Long, Double and Boolean.
+ * Values which cannot be parsed, and missing values, are left empty.
+ * "interaction" is the standard interaction column.
+ * 
+ * The input is read as a pipeline: one thread cuts the stream into chunks of
+ * whole lines, worker threads split the chunks into names in parallel, and
+ * the task thread adds the nodes and edges to the network in the order of
+ * the input.
  */
 public class EdgeListReader extends AbstractCyNetworkReader {
 
-	private final static Pattern SPLIT_PATTERN = Pattern.compile("[\\s\\t]+");
 	private final static String SOURCE = "source";
 	private final static String TARGET= "target";
+
+	private final static Charset UTF8 = Charset.forName("UTF-8");
+
+	private final static String HEADER_PREFIX = "#";
+	private final static String TYPE_SEPARATOR = ":";
+	private final static String DEF_INTERACTION = "-";
+
+	// Size of the blocks of input tokenized by a worker
+	private final static int CHUNK_SIZE = 4 * 1024 * 1024;
+	// Longer lines are rejected instead of growing the buffer without limit
+	private final static int MAX_LINE_LENGTH = 64 * 1024 * 1024;
+	// Time between checks of the reader while waiting for a chunk
+	private final static long POLL_INTERVAL = 100;
+	// Initial size of the node map, so that most networks are not rehashed
+	private final static int NODE_MAP_CAPACITY = 64 * 1024;
+	private final static int WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+	// Marks the end of the input in the chunk queue
+	private final static Future<Chunk> END = new FutureTask<Chunk>(new Runnable() {
+		@Override
+		public void run() {
+		}
+	}, null);
 	
 	private final CyNetworkManager cyNetworkManager;
 	private final CyRootNetworkManager cyRootNetworkManager;
 	
 	private final String collectionName;
+	private final CyEventHelper eventHelper;
+
+	private boolean nodeNameColumns;
 
 	public EdgeListReader(final InputStream inputStream, final CyNetworkViewFactory cyNetworkViewFactory,
 			final CyNetworkFactory cyNetworkFactory, final CyNetworkManager cyNetworkManager,
-			final CyRootNetworkManager cyRootNetworkManager, final String collecitonName) {
+			final CyRootNetworkManager cyRootNetworkManager, final String collecitonName,
+			final CyEventHelper eventHelper) {
 		super(inputStream, cyNetworkViewFactory, cyNetworkFactory, cyNetworkManager, cyRootNetworkManager);
 		this.collectionName = collecitonName;
+		this.eventHelper = eventHelper;
 		this.cyRootNetworkManager = cyRootNetworkManager;
 		this.cyNetworkManager = cyNetworkManager;
 	}
 	
+	/**
+	 * Copy the source and target node names to the "source" and "target"
+	 * edge columns.  Default is false.
+	 */
+	public void setNodeNameColumns(final boolean nodeNameColumns) {
+		this.nodeNameColumns = nodeNameColumns;
+	}
+
 	private CyRootNetwork getRootNetworkByName(final String collectionName) {
 		
 		for (CyNetwork net : cyNetworkManager.getNetworkSet()) {
@@ -78,10 +150,6 @@ public class EdgeListReader extends AbstractCyNetworkReader {
 
 
 	private final void read(TaskMonitor tm) throws IOException {
-		String line;
-		final BufferedReader br = new BufferedReader(new InputStreamReader(inputStream, Charset.forName("UTF-8")
-				.newDecoder()), 128 * 1024);
-
 		CySubNetwork subNetwork = null;
 		CyRootNetwork rootNetwork = getRootNetwork();
 		
@@ -99,58 +167,504 @@ public class EdgeListReader extends AbstractCyNetworkReader {
 			}
 		}
 		
+		// The new network is not registered yet, so the events of each node,
+		// edge and cell are not needed.  Listeners see the whole network when
+		// it is registered.
+		final BulkEdit edit = new BulkEdit(eventHelper, subNetwork);
+		try {
+			read(subNetwork, tm);
+		} finally {
+			edit.close();
+		}
+		if (cancelled) {
+			return;
+		}
+
+		this.networks = new CyNetwork[] { subNetwork };
+	}
+
+	private final void read(final CySubNetwork subNetwork, final TaskMonitor tm) throws IOException {
+		tm.setTitle("Reading edge list");
+		// The size of a mapped file is known, so the progress can be shown.
+		final long size = inputStream instanceof MappedFileInputStream ? ((MappedFileInputStream) inputStream)
+				.getSize() : 0;
+
 		// Create default columns
-		if(subNetwork.getDefaultEdgeTable().getColumn(SOURCE) == null)
-			subNetwork.getDefaultEdgeTable().createColumn(SOURCE, String.class, true);
-		if(subNetwork.getDefaultEdgeTable().getColumn(TARGET) == null)
-			subNetwork.getDefaultEdgeTable().createColumn(TARGET, String.class, true);
-		
-		Map<Object, CyNode> nMap = new HashMap<>();
+		if (nodeNameColumns) {
+			if(subNetwork.getDefaultEdgeTable().getColumn(SOURCE) == null)
+				subNetwork.getDefaultEdgeTable().createColumn(SOURCE, String.class, true);
+			if(subNetwork.getDefaultEdgeTable().getColumn(TARGET) == null)
+				subNetwork.getDefaultEdgeTable().createColumn(TARGET, String.class, true);
+		}
 
-		while ((line = br.readLine()) != null) {
-			
-			// Cancel called. Clean up the garbage.
+		// One thread reads, the others tokenize.  The queue keeps the chunks
+		// in order and limits the number of chunks in memory.
+		final ExecutorService executor = Executors.newFixedThreadPool(WORKERS + 1, new ReaderThreadFactory());
+		final BlockingQueue<Future<Chunk>> chunks = new ArrayBlockingQueue<Future<Chunk>>(2 * WORKERS);
+		try {
+			final Future<Void> reader = executor.submit(new ChunkReader(inputStream, executor, chunks));
+			build(subNetwork, chunks, reader, tm, size);
+			if (!cancelled) {
+				reader.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Edge list reader was interrupted.");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Could not read edge list.", e.getCause());
+		} finally {
+			// Stops the reader if the build did not reach the end.
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Add the nodes and edges of the chunks, in order.
+	 */
+	private final void build(final CySubNetwork subNetwork, final BlockingQueue<Future<Chunk>> chunks,
+			final Future<Void> reader, final TaskMonitor tm, final long size) throws InterruptedException,
+			ExecutionException {
+		final Map<String, Node> nodes = new HashMap<>(NODE_MAP_CAPACITY);
+		Column[] columns = null;
+		long done = 0;
+
+		Future<Chunk> next;
+		while ((next = nextChunk(chunks, reader)) != END) {
+			// Cancel called.  The rest of the input is dropped.
 			if (cancelled) {
-				nMap.clear();
-				nMap = null;
-				subNetwork = null;
-				br.close();
 				return;
 			}
 
-			// Ignore invalid line
-			if (line.trim().length() <= 0)
-				continue;
+			final Chunk chunk = next.get();
+			if (columns == null) {
+				// All chunks have the columns of the header.
+				columns = chunk.columns;
+				createColumns(subNetwork.getDefaultEdgeTable(), columns);
+			}
+
+			final Node[] chunkNodes = new Node[chunk.names.length];
+			final int[] edges = chunk.edges;
+			for (int i = 0; i < chunk.edgeCount * 2; i += 2) {
+				final Node source = getNode(subNetwork, nodes, chunk, chunkNodes, edges[i]);
+				final Node target = getNode(subNetwork, nodes, chunk, chunkNodes, edges[i + 1]);
 
-			final String[] parts = SPLIT_PATTERN.split(line);
-			if (parts.length == 2) {
-				CyNode sourceNode = nMap.get(parts[0]);
-				if (sourceNode == null) {
-					sourceNode = subNetwork.addNode();
-					subNetwork.getRow(sourceNode).set(CyNetwork.NAME, parts[0]);
-					nMap.put(parts[0], sourceNode);
+				final CyEdge edge = subNetwork.addEdge(source.node, target.node, true);
+				final CyRow row = subNetwork.getRow(edge);
+				row.set(CyEdge.INTERACTION, DEF_INTERACTION);
+				if (nodeNameColumns) {
+					row.set(SOURCE, source.name);
+					row.set(TARGET, target.name);
 				}
-				CyNode targetNode = nMap.get(parts[1]);
-				if (targetNode == null) {
-					targetNode = subNetwork.addNode();
-					subNetwork.getRow(targetNode).set(CyNetwork.NAME, parts[1]);
-					nMap.put(parts[1], targetNode);
+				for (int c = 0; c < columns.length; c++) {
+					final Object value = chunk.values[c][i / 2];
+					if (value != null) {
+						row.set(columns[c].name, value);
+					}
+				}
+			}
+
+			done += chunk.length;
+			if (size > 0) {
+				tm.setProgress(Math.min(1.0, (double) done / size));
+			}
+		}
+		tm.setStatusMessage(subNetwork.getNodeCount() + " nodes and " + subNetwork.getEdgeCount() + " edges");
+	}
+
+	/**
+	 * Wait for the next chunk.  The reader marks the end of the input, but
+	 * it is also checked, so a reader which has died without the mark does
+	 * not block the build forever.
+	 */
+	private static final Future<Chunk> nextChunk(final BlockingQueue<Future<Chunk>> chunks,
+			final Future<Void> reader) throws InterruptedException, ExecutionException {
+		while (true) {
+			final Future<Chunk> next = chunks.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+			if (next != null) {
+				return next;
+			}
+			if (reader.isDone()) {
+				final Future<Chunk> last = chunks.poll();
+				if (last != null) {
+					return last;
 				}
-				
-				final CyEdge edge = subNetwork.addEdge(sourceNode, targetNode, true);
-				subNetwork.getRow(edge).set(CyEdge.INTERACTION, "-");
-				subNetwork.getRow(edge).set(SOURCE, parts[0]);
-				subNetwork.getRow(edge).set(TARGET, parts[1]);
-				
-			} else if(parts.length == 1){
-				// No edge will be added.  Node only.
+				// Throws the failure of the reader.
+				reader.get();
+				return END;
 			}
 		}
+	}
 
-		br.close();
-		nMap.clear();
-		nMap = null;
+	private static final void createColumns(final CyTable table, final Column[] columns) {
+		for (final Column column : columns) {
+			final CyColumn existing = table.getColumn(column.name);
+			if (existing == null) {
+				table.createColumn(column.name, column.type, false);
+			} else if (existing.isPrimaryKey() || existing.getType() != column.type) {
+				throw new IllegalArgumentException("Column " + column.name + " already exists with type "
+						+ existing.getType().getSimpleName() + ".");
+			}
+		}
+	}
 
-		this.networks = new CyNetwork[] { subNetwork };
+	private final Node getNode(final CySubNetwork subNetwork, final Map<String, Node> nodes, final Chunk chunk,
+			final Node[] chunkNodes, final int index) {
+		Node node = chunkNodes[index];
+		if (node == null) {
+			final String name = chunk.names[index];
+			node = nodes.get(name);
+			if (node == null) {
+				node = new Node(subNetwork.addNode(), name);
+				subNetwork.getRow(node.node).set(CyNetwork.NAME, name);
+				nodes.put(name, node);
+			}
+			chunkNodes[index] = node;
+		}
+		return node;
+	}
+
+	private static final boolean isLineEnd(final byte b) {
+		return b == '\n' || b == '\r';
+	}
+
+	private static final boolean isSpace(final byte b) {
+		return b == ' ' || b == '\t' || b == 0x0B || b == '\f';
+	}
+
+	/**
+	 * Node and the name shared by all its edges.
+	 */
+	private static final class Node {
+
+		private final CyNode node;
+		private final String name;
+
+		Node(final CyNode node, final String name) {
+			this.node = node;
+			this.name = name;
+		}
+	}
+
+	/**
+	 * Edge column declared in the header.
+	 */
+	private static final class Column {
+
+		private final String name;
+		private final Class<?> type;
+
+		Column(final String name, final Class<?> type) {
+			this.name = name;
+			this.type = type;
+		}
+	}
+
+	/**
+	 * Tokenized lines of a chunk.  Each distinct name appears once in names,
+	 * in the order of first use.  Edge i is the pair of names at
+	 * edges[2i] and edges[2i + 1], and its value of column c is
+	 * values[c][i].
+	 */
+	private static final class Chunk {
+
+		private final String[] names;
+		private final int[] edges;
+		private final int edgeCount;
+		private final Column[] columns;
+		private final Object[][] values;
+		// Number of bytes of the input
+		private final int length;
+
+		Chunk(final String[] names, final int[] edges, final int edgeCount, final Column[] columns,
+				final Object[][] values, final int length) {
+			this.names = names;
+			this.edges = edges;
+			this.edgeCount = edgeCount;
+			this.columns = columns;
+			this.values = values;
+			this.length = length;
+		}
+	}
+
+	/**
+	 * Cuts the input into chunks which end at a line end, and submits them
+	 * to the tokenizers.
+	 */
+	private static final class ChunkReader implements Callable<Void> {
+
+		private final InputStream is;
+		private final ExecutorService executor;
+		private final BlockingQueue<Future<Chunk>> chunks;
+
+		// Set from the first chunk
+		private Column[] columns;
+
+		ChunkReader(final InputStream is, final ExecutorService executor, final BlockingQueue<Future<Chunk>> chunks) {
+			this.is = is;
+			this.executor = executor;
+			this.chunks = chunks;
+		}
+
+		@Override
+		public Void call() throws IOException, InterruptedException {
+			try {
+				readChunks();
+			} finally {
+				// Also after an Error or an interrupt, so it must not block.
+				// If the queue is full, the build finds the reader done after
+				// taking the other chunks.
+				chunks.offer(END);
+			}
+			return null;
+		}
+
+		private final void readChunks() throws IOException, InterruptedException {
+			byte[] buffer = new byte[CHUNK_SIZE];
+			int length = 0;
+			int read;
+			while ((read = is.read(buffer, length, buffer.length - length)) >= 0) {
+				length += read;
+				if (length < buffer.length) {
+					continue;
+				}
+
+				final int end = getLastLineEnd(buffer, length);
+				if (end == 0) {
+					// A line longer than the buffer
+					if (buffer.length >= MAX_LINE_LENGTH) {
+						throw new IOException("Line is longer than " + MAX_LINE_LENGTH + " bytes.");
+					}
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+					continue;
+				}
+				final byte[] rest = new byte[Math.max(CHUNK_SIZE, 2 * (length - end))];
+				System.arraycopy(buffer, end, rest, 0, length - end);
+				submit(buffer, end);
+				buffer = rest;
+				length -= end;
+			}
+			if (length > 0) {
+				submit(buffer, length);
+			}
+		}
+
+		private final void submit(final byte[] bytes, final int length) throws IOException, InterruptedException {
+			if (columns == null) {
+				// The first chunk ends at a line end, so it has the whole
+				// header.
+				columns = parseHeader(bytes, length);
+			}
+			chunks.put(executor.submit(new Tokenizer(bytes, length, columns)));
+		}
+
+		/**
+		 * Parse the header if the first line is one.  Comments and the
+		 * header must start with "#".
+		 */
+		private static final Column[] parseHeader(final byte[] bytes, final int length) throws IOException {
+			int end = 0;
+			while (end < length && !isLineEnd(bytes[end])) {
+				end++;
+			}
+			final String line = new String(bytes, 0, end, UTF8).trim();
+			if (!line.startsWith(HEADER_PREFIX)) {
+				return new Column[0];
+			}
+
+			final String[] names = line.substring(HEADER_PREFIX.length()).trim().split("\\s+");
+			if (names.length < 2 || !names[0].equalsIgnoreCase(SOURCE) || !names[1].equalsIgnoreCase(TARGET)) {
+				// Only a comment
+				return new Column[0];
+			}
+
+			final Column[] columns = new Column[names.length - 2];
+			for (int i = 2; i < names.length; i++) {
+				final String[] parts = names[i].split(TYPE_SEPARATOR, 2);
+				if (parts[0].isEmpty()) {
+					throw new IOException("Column name is missing in header: " + names[i]);
+				}
+				columns[i - 2] = new Column(parts[0], parts.length == 1 ? String.class : getType(parts[1]));
+			}
+			return columns;
+		}
+
+		private static final Class<?> getType(final String type) throws IOException {
+			for (final Class<?> supported : new Class<?>[] { String.class, Integer.class, Long.class,
+					Double.class, Boolean.class }) {
+				if (supported.getSimpleName().equalsIgnoreCase(type)) {
+					return supported;
+				}
+			}
+			throw new IOException("Unsupported column type in header: " + type);
+		}
+
+		private static final int getLastLineEnd(final byte[] bytes, final int length) {
+			for (int i = length - 1; i >= 0; i--) {
+				if (isLineEnd(bytes[i])) {
+					return i + 1;
+				}
+			}
+			return 0;
+		}
+	}
+
+	/**
+	 * Splits the lines of a chunk at whitespace, and keeps the lines with at
+	 * least two names.  The values of the header columns are parsed here, so
+	 * they are ready to be set.  Whitespace and line ends are ASCII, so they
+	 * never appear inside a UTF-8 encoded name.
+	 */
+	private static final class Tokenizer implements Callable<Chunk> {
+
+		private final byte[] bytes;
+		private final int length;
+		private final Column[] columns;
+
+		Tokenizer(final byte[] bytes, final int length, final Column[] columns) {
+			this.bytes = bytes;
+			this.length = length;
+			this.columns = columns;
+		}
+
+		@Override
+		public Chunk call() {
+			// Size estimates for short lines, e.g. "YKR026C YGL122C"
+			final Map<String, Integer> index = new HashMap<>(Math.max(16, length / 16));
+			final List<String> names = new ArrayList<>(Math.max(16, length / 32));
+			int[] edges = new int[Math.max(16, length / 8)];
+			Object[][] values = new Object[columns.length][edges.length / 2];
+			int edgeCount = 0;
+
+			// Without a header, lines with more than two tokens are invalid.
+			final int maxTokens = columns.length == 0 ? 2 : 2 + columns.length;
+			// Start and end of the tokens of a line
+			final int[] tokens = new int[2 * maxTokens];
+			int pos = 0;
+			while (pos < length) {
+				int count = 0;
+				boolean comment = false;
+				while (pos < length && !isLineEnd(bytes[pos])) {
+					if (isSpace(bytes[pos])) {
+						pos++;
+						continue;
+					}
+					if (count == 0 && bytes[pos] == '#') {
+						comment = true;
+					}
+					final int start = pos;
+					while (pos < length && !isLineEnd(bytes[pos]) && !isSpace(bytes[pos])) {
+						pos++;
+					}
+					if (count < maxTokens) {
+						tokens[2 * count] = start;
+						tokens[2 * count + 1] = pos;
+					}
+					count++;
+				}
+				pos++;
+
+				if (comment || count < 2 || (columns.length == 0 && count > 2)) {
+					// Lines with one name add no node, others are invalid.
+					continue;
+				}
+
+				if (edges.length < 2 * edgeCount + 2) {
+					edges = Arrays.copyOf(edges, edges.length * 2);
+					for (int c = 0; c < columns.length; c++) {
+						values[c] = Arrays.copyOf(values[c], edges.length / 2);
+					}
+				}
+				edges[2 * edgeCount] = intern(tokens[0], tokens[1], index, names);
+				edges[2 * edgeCount + 1] = intern(tokens[2], tokens[3], index, names);
+				for (int c = 0; c < columns.length && c + 2 < count; c++) {
+					values[c][edgeCount] = parseValue(columns[c].type, tokens[2 * c + 4], tokens[2 * c + 5]);
+				}
+				edgeCount++;
+			}
+			return new Chunk(names.toArray(new String[names.size()]), edges, edgeCount, columns, values,
+					length);
+		}
+
+		private final int intern(final int start, final int end, final Map<String, Integer> index,
+				final List<String> names) {
+			final String name = new String(bytes, start, end - start, UTF8);
+			final Integer i = index.get(name);
+			if (i != null) {
+				return i;
+			}
+			index.put(name, names.size());
+			names.add(name);
+			return names.size() - 1;
+		}
+
+		/**
+		 * @return value of the token, or null if it is not valid
+		 */
+		private final Object parseValue(final Class<?> type, final int start, final int end) {
+			if (type == Integer.class) {
+				final Long value = parseLong(start, end);
+				if (value == null || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+					return null;
+				}
+				return Integer.valueOf(value.intValue());
+			} else if (type == Long.class) {
+				return parseLong(start, end);
+			} else if (type == Double.class) {
+				try {
+					return Double.valueOf(new String(bytes, start, end - start, UTF8));
+				} catch (NumberFormatException e) {
+					return null;
+				}
+			} else if (type == Boolean.class) {
+				final String value = new String(bytes, start, end - start, UTF8);
+				if (value.equalsIgnoreCase("true")) {
+					return Boolean.TRUE;
+				} else if (value.equalsIgnoreCase("false")) {
+					return Boolean.FALSE;
+				}
+				return null;
+			} else {
+				return new String(bytes, start, end - start, UTF8);
+			}
+		}
+
+		/**
+		 * Parse decimal digits without creating a String.
+		 */
+		private final Long parseLong(final int start, final int end) {
+			int i = start;
+			boolean negative = false;
+			if (bytes[i] == '-' || bytes[i] == '+') {
+				negative = bytes[i] == '-';
+				i++;
+			}
+			if (i == end) {
+				return null;
+			}
+			long value = 0;
+			for (; i < end; i++) {
+				final int digit = bytes[i] - '0';
+				if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+					return null;
+				}
+				value = value * 10 + digit;
+			}
+			return negative ? -value : value;
+		}
+	}
+
+	private static final class ReaderThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable r) {
+			final Thread thread = new Thread(r, "cyREST-edgelist-reader-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
 	}
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package org.cytoscape.rest.internal.reader;
 
 import java.io.InputStream;
 
+import org.cytoscape.event.CyEventHelper;
 import org.cytoscape.io.CyFileFilter;
 import org.cytoscape.io.read.AbstractInputStreamTaskFactory;
 import org.cytoscape.model.CyNetworkFactory;
@@ -20,12 +21,14 @@ public class EdgeListReaderFactory extends AbstractInputStreamTaskFactory {
 	private final CyNetworkFactory cyNetworkFactory;
 	private final CyNetworkManager cyNetworkManager;;
 	private final CyRootNetworkManager cyRootNetworkManager;
+	private final CyEventHelper eventHelper;
 
 
 	public EdgeListReaderFactory(CyFileFilter filter, CyNetworkViewFactory cyNetworkViewFactory,
 			CyNetworkFactory cyNetworkFactory, final CyNetworkManager cyNetworkManager,
-			CyRootNetworkManager cyRootNetworkManager) {
+			CyRootNetworkManager cyRootNetworkManager, final CyEventHelper eventHelper) {
 		super(filter);
+		this.eventHelper = eventHelper;
 		this.cyNetworkManager = cyNetworkManager;
 		this.cyRootNetworkManager = cyRootNetworkManager;
 		this.cyNetworkFactory = cyNetworkFactory;
@@ -35,6 +38,6 @@ public class EdgeListReaderFactory extends AbstractInputStreamTaskFactory {
 	@Override
 	public TaskIterator createTaskIterator(InputStream inputStream, String collectionName) {
 		return new TaskIterator(new EdgeListReader(inputStream, cyNetworkViewFactory, cyNetworkFactory,
-				this.cyNetworkManager, this.cyRootNetworkManager, collectionName));
+				this.cyNetworkManager, this.cyRootNetworkManager, collectionName, eventHelper));
 	}
 }
@@ -0,0 +1,110 @@
+package org.cytoscape.rest.internal.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * InputStream of a local file which is memory mapped.
+ *
+ * The file is mapped one window at a time, so files larger than 2 GB can be
+ * read.  Bytes are copied from the page cache straight into the buffer of the
+ * reader, without a read system call for each block.
+ *
+ */
+public class MappedFileInputStream extends InputStream {
+
+	// Size of the mapped region of the file
+	private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+	private final FileChannel channel;
+	private final long size;
+
+	private MappedByteBuffer window;
+	private long windowStart;
+
+	/**
+	 * @param file regular file to be read
+	 * @throws IOException if the file cannot be opened
+	 */
+	public MappedFileInputStream(final File file) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		this.channel = raf.getChannel();
+		this.size = channel.size();
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!hasRemaining()) {
+			return -1;
+		}
+		return window.get() & 0xff;
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!hasRemaining()) {
+			return -1;
+		}
+		final int count = Math.min(len, window.remaining());
+		window.get(b, off, count);
+		return count;
+	}
+
+	@Override
+	public long skip(final long n) throws IOException {
+		if (n <= 0) {
+			return 0;
+		}
+		final long position = getPosition();
+		final long skipped = Math.min(n, size - position);
+		window = null;
+		windowStart = position + skipped;
+		return skipped;
+	}
+
+	/**
+	 * @return Size of the file in bytes. Unlike {@link #available()}, it is
+	 *         not limited to 2 GB.
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (int) Math.min(Integer.MAX_VALUE, size - getPosition());
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+	private final long getPosition() {
+		return window == null ? windowStart : windowStart + window.position();
+	}
+
+	/**
+	 * Map the next window if the current one has been read.
+	 */
+	private final boolean hasRemaining() throws IOException {
+		if (window != null && window.hasRemaining()) {
+			return true;
+		}
+		final long position = getPosition();
+		if (position >= size) {
+			return false;
+		}
+		windowStart = position;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+		return true;
+	}
+}
@@ -1,9 +1,12 @@
 package org.cytoscape.rest.internal.resource;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
 import java.util.Set;
 
 import javax.validation.constraints.NotNull;
@@ -11,14 +14,22 @@ import javax.ws.rs.InternalServerErrorException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
 
 import org.cytoscape.application.CyApplicationManager;
+import org.cytoscape.event.CyEventHelper;
 import org.cytoscape.io.read.InputStreamTaskFactory;
 import org.cytoscape.io.write.CyNetworkViewWriterFactory;
 import org.cytoscape.io.write.CyWriter;
+import org.cytoscape.model.CyColumn;
 import org.cytoscape.model.CyIdentifiable;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkFactory;
@@ -31,10 +42,14 @@ import org.cytoscape.model.subnetwork.CyRootNetworkManager;
 import org.cytoscape.property.CyProperty;
 import org.cytoscape.rest.TaskFactoryManager;
 import org.cytoscape.rest.internal.CyActivator.WriterListener;
+import org.cytoscape.rest.internal.ModelVersionTracker;
 import org.cytoscape.rest.internal.datamapper.MapperUtil;
 import org.cytoscape.rest.internal.reader.EdgeListReaderFactory;
+import org.cytoscape.rest.internal.serializer.BinaryJsonProvider;
 import org.cytoscape.rest.internal.serializer.GraphObjectSerializer;
+import org.cytoscape.rest.internal.serializer.JacksonProvider;
 import org.cytoscape.rest.internal.task.HeadlessTaskMonitor;
+import org.cytoscape.rest.internal.task.JobManager;
 import org.cytoscape.task.create.NewNetworkSelectedNodesAndEdgesTaskFactory;
 import org.cytoscape.task.read.LoadNetworkURLTaskFactory;
 import org.cytoscape.view.model.CyNetworkView;
@@ -43,8 +58,8 @@ import org.cytoscape.view.model.CyNetworkViewManager;
 import org.cytoscape.view.model.VisualLexicon;
 import org.cytoscape.view.vizmap.VisualMappingManager;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
 
 /**
  * Prepare services to be injected.
@@ -56,6 +71,19 @@ public abstract class AbstractResource {
 	protected static final String API_VERSION = "v1";
 	protected static final String ERROR_TAG = "\"error\":";
 
+	// Column projection
+	protected static final String COLUMNS = "columns";
+
+	// Paging
+	protected static final String LIMIT = "limit";
+	protected static final String CURSOR = "cursor";
+	private static final String NEXT = "next";
+
+	// Binary encodings of JSON. Text JSON is listed first in all resources
+	// and stays the default.
+	protected static final String APPLICATION_SMILE = BinaryJsonProvider.APPLICATION_SMILE;
+	protected static final String APPLICATION_CBOR = BinaryJsonProvider.APPLICATION_CBOR;
+
 
 	/**
 	 * Create a informative error message instead of plain 500.
@@ -133,11 +161,29 @@ public abstract class AbstractResource {
 	protected EdgeListReaderFactory edgeListReaderFactory;
 	
 
-	protected final GraphObjectSerializer serializer;
+	@Context
+	protected JacksonProvider jackson;
+
+	@Context
+	protected GraphObjectSerializer serializer;
 
-	public AbstractResource() {
-		this.serializer = new GraphObjectSerializer();
-	}
+	@Context
+	protected ModelVersionTracker versionTracker;
+
+	@Context
+	protected CyEventHelper eventHelper;
+
+	@Context
+	protected JobManager jobManager;
+
+	@Context
+	private Request request;
+
+	@Context
+	private HttpHeaders httpHeaders;
+
+	@Context
+	private UriInfo requestUriInfo;
 
 	protected final CyNetwork getCyNetwork(final Long id) {
 		if (id == null) {
@@ -151,6 +197,18 @@ public abstract class AbstractResource {
 		return network;
 	}
 
+	/**
+	 * Update view of each network
+	 * 
+	 * @param network
+	 */
+	protected final void updateViews(final CyNetwork network) {
+		final Collection<CyNetworkView> views = networkViewManager.getNetworkViews(network);
+		for (final CyNetworkView view : views) {
+			view.updateView();
+		}
+	}
+
 	protected final Collection<CyNetworkView> getCyNetworkViews(final Long id) {
 		final Collection<CyNetworkView> views = networkViewManager.getNetworkViews(getCyNetwork(id));
 		if (views.isEmpty()) {
@@ -178,13 +236,175 @@ public abstract class AbstractResource {
 		}
 	}
 
-	protected final String getNames(final Collection<String> names) throws IOException {
-		final JsonFactory factory = new JsonFactory();
+	/**
+	 * Split a comma separated list of column names.
+	 * 
+	 * @param columnNames comma separated column names. Can be null.
+	 * 
+	 * @return Column names, or null if no name is given.
+	 */
+	protected final List<String> getColumnNames(final String columnNames) {
+		if (columnNames == null) {
+			return null;
+		}
 
-		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = null;
-		generator = factory.createGenerator(stream);
+		final List<String> names = new ArrayList<>();
+		for (final String name : columnNames.split(",")) {
+			final String columnName = name.trim();
+			if (!columnName.isEmpty()) {
+				names.add(columnName);
+			}
+		}
+		return names.isEmpty() ? null : names;
+	}
+
+	/**
+	 * Resolve a comma separated list of column names.
+	 * 
+	 * @param table target table
+	 * @param columnNames comma separated column names. Can be null.
+	 * 
+	 * @return Columns in the given order, or all columns if no name is given.
+	 */
+	protected final Collection<CyColumn> getColumns(final CyTable table, final String columnNames) {
+		final Collection<CyColumn> projection = getProjection(table, columnNames);
+		return projection == null ? table.getColumns() : projection;
+	}
+
+	/**
+	 * Resolve a column projection for serializers.
+	 * 
+	 * @param table target table
+	 * @param columnNames comma separated column names. Can be null.
+	 * 
+	 * @return Columns in the given order, or null if no name is given.
+	 */
+	protected final Collection<CyColumn> getProjection(final CyTable table, final String columnNames) {
+		final List<String> names = getColumnNames(columnNames);
+		if (names == null) {
+			return null;
+		}
+
+		final List<CyColumn> columns = new ArrayList<>(names.size());
+		for (final String name : names) {
+			final CyColumn column = table.getColumn(name);
+			if (column == null) {
+				throw getError("No such column: " + name, new IllegalArgumentException(),
+						Response.Status.BAD_REQUEST);
+			}
+			columns.add(column);
+		}
+		return columns;
+	}
+
+	/**
+	 * Select a page of objects ordered by SUID.
+	 * 
+	 * @param pager SUID accessor for the objects
+	 * @param items all objects
+	 * @param cursor SUID of the last object in the previous page. Can be null.
+	 * @param limit maximum number of objects. Can be null.
+	 * 
+	 * @return Selected page
+	 */
+	protected final <T> SuidPager.Page<T> getPage(final SuidPager<T> pager, final Collection<T> items,
+			final Long cursor, final Integer limit) {
+		if (limit != null && limit <= 0) {
+			throw getError("Limit should be a positive integer: " + limit, new IllegalArgumentException(),
+					Response.Status.BAD_REQUEST);
+		}
+		return pager.getPage(items, cursor, limit);
+	}
+
+	/**
+	 * Create a response for a page. If there are more objects, the URL of
+	 * the next page is returned in a Link header with rel="next".
+	 * 
+	 * @param entity serialized page
+	 * @param page current page
+	 * @param uriInfo URI of the current request
+	 * 
+	 * @return Response for the page
+	 */
+	protected final Response getPageResponse(final Object entity, final SuidPager.Page<?> page, final UriInfo uriInfo) {
+		return getPageResponse(entity, page, uriInfo, null);
+	}
+
+	/**
+	 * Create a response for a page with an entity tag.
+	 * 
+	 * @param entity serialized page
+	 * @param page current page
+	 * @param uriInfo URI of the current request
+	 * @param tag entity tag of the current version. Can be null.
+	 * 
+	 * @return Response for the page
+	 */
+	protected final Response getPageResponse(final Object entity, final SuidPager.Page<?> page,
+			final UriInfo uriInfo, final EntityTag tag) {
+		final ResponseBuilder builder = Response.ok(entity).tag(tag);
+		if (page.getNext() != null) {
+			builder.link(uriInfo.getRequestUriBuilder().replaceQueryParam(CURSOR, page.getNext()).build(), NEXT);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Deliver the pending payload events of Cytoscape to the
+	 * {@link ModelVersionTracker}.  Events are fired asynchronously, so
+	 * without this a version read right after a change can still be the old
+	 * one.  Call this before the version for an entity tag is read, and
+	 * after a change of many elements or cells, so the listeners have
+	 * processed it before the views are updated.
+	 */
+	protected final void flushEvents() {
+		eventHelper.flushPayloadEvents();
+	}
+
+	/**
+	 * Create a weak entity tag for a version of the requested object.
+	 * 
+	 * Query parameters and the Accept header select different
+	 * representations of the same object, so they are part of the tag.
+	 * 
+	 * @param version version from {@link ModelVersionTracker}
+	 * 
+	 * @return Tag for the current request
+	 */
+	protected final EntityTag getEntityTag(final long version) {
+		final String variant = requestUriInfo.getRequestUri().getRawQuery() + " "
+				+ httpHeaders.getHeaderString(HttpHeaders.ACCEPT);
+		return new EntityTag(versionTracker.getTag(version) + "-" + Integer.toHexString(variant.hashCode()), true);
+	}
+
+	/**
+	 * Check If-None-Match header of the request. Call this before the object
+	 * is serialized.
+	 * 
+	 * @param tag tag of the current version
+	 * 
+	 * @return "304 Not Modified" response if the client already has the
+	 *         current version, otherwise null.
+	 */
+	protected final Response getNotModified(final EntityTag tag) {
+		final ResponseBuilder builder = request.evaluatePreconditions(tag);
+		return builder == null ? null : builder.tag(tag).build();
+	}
+
+	/**
+	 * @return version number of Cytoscape, or null if it is not known
+	 */
+	protected final String getCytoscapeVersion() {
+		if (props == null || !(props.getProperties() instanceof Properties)) {
+			return null;
+		}
+		final Object versionNumber = ((Properties) props.getProperties()).get("cytoscape.version.number");
+		return versionNumber == null ? null : versionNumber.toString();
+	}
+
+	protected final String getNames(final Collection<String> names) throws IOException {
+		final SegmentedStringWriter writer = jackson.createStringWriter();
+		final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
 		generator.writeStartArray();
 
 		for (final String name : names) {
@@ -193,26 +413,20 @@ public abstract class AbstractResource {
 
 		generator.writeEndArray();
 		generator.close();
-		result = stream.toString("UTF-8");
-		stream.close();
-		return result;
+		return writer.getAndClear();
 	}
 
 	protected final String getNumberObjectString(final String fieldName, final Number value) {
-		final JsonFactory factory = new JsonFactory();
-
 		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = null;
+		final SegmentedStringWriter writer = jackson.createStringWriter();
 		try {
-			generator = factory.createGenerator(stream);
+			final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
 			generator.writeStartObject();
 			generator.writeFieldName(fieldName);
 			generator.writeNumber(value.longValue());
 			generator.writeEndObject();
 			generator.close();
-			result = stream.toString("UTF-8");
-			stream.close();
+			result = writer.getAndClear();
 		} catch (IOException e) {
 			throw getError("Could not serialize number: " + value, e, Response.Status.INTERNAL_SERVER_ERROR);
 		}
@@ -246,19 +460,47 @@ public abstract class AbstractResource {
 	}
 	
 	
-	protected final String getNetworkString(final CyNetwork network) {
-		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		CyWriter writer = cytoscapeJsWriterFactory.createWriter(stream, network);
-		String jsonString = null;
+	/**
+	 * Create a response body which runs the Cytoscape.js writer directly
+	 * against the response stream. Since the length is unknown, Grizzly sends
+	 * it with chunked transfer encoding and nothing is buffered on the heap.
+	 * 
+	 * @param network network to be serialized
+	 * @return Streaming response body
+	 */
+	protected final StreamingOutput getNetworkStream(final CyNetwork network) {
+		return new StreamingOutput() {
+			@Override
+			public void write(final OutputStream os) throws IOException, WebApplicationException {
+				writeNetwork(network, os);
+			}
+		};
+	}
+
+	/**
+	 * Write a network in Cytoscape.js JSON to the given stream.
+	 * 
+	 * @param network network to be serialized
+	 * @param os target stream
+	 * @throws IOException if the writer fails
+	 */
+	protected final void writeNetwork(final CyNetwork network, final OutputStream os) throws IOException {
+		runWriter(cytoscapeJsWriterFactory.createWriter(os, network), "Could not serialize network into JSON.");
+	}
+
+	/**
+	 * Run a Cytoscape writer while the response is written.
+	 * 
+	 * @param message error message if the writer fails
+	 */
+	protected final void runWriter(final CyWriter writer, final String message) throws IOException {
 		try {
 			writer.run(new HeadlessTaskMonitor());
-			jsonString = stream.toString("UTF-8");
-			stream.close();
+		} catch (IOException e) {
+			throw e;
 		} catch (Exception e) {
-			throw getError("Could not serialize network into JSON.", e, Response.Status.PRECONDITION_FAILED);
+			throw new IOException(message, e);
 		}
-		
-		return jsonString;
 	}
 	
 	protected final VisualLexicon getLexicon() {
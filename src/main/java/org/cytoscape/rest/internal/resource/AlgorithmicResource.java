@@ -64,7 +64,7 @@ public class AlgorithmicResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/layouts/{algorithmName}/{networkId}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public Response applyLayout(
 			@PathParam("algorithmName") String algorithmName,
 			@PathParam("networkId") Long networkId) {
@@ -112,7 +112,7 @@ public class AlgorithmicResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/styles/{styleName}/{networkId}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public Response applyStyle(@PathParam("styleName") String styleName,
 			@PathParam("networkId") Long networkId) {
 
@@ -162,7 +162,7 @@ public class AlgorithmicResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/fit/{networkId}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public Response fitContent(@PathParam("networkId") Long networkId) {
 		final CyNetwork network = getCyNetwork(networkId);
 
@@ -199,7 +199,7 @@ public class AlgorithmicResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/edgebundling/{networkId}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public Response bundleEdge(@PathParam("networkId") Long networkId) {
 		final CyNetwork network = getCyNetwork(networkId);
 
@@ -235,7 +235,7 @@ public class AlgorithmicResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/layouts")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public Collection<String> getLayoutNames() {
 		try {
 			final Collection<CyLayoutAlgorithm> layouts = layoutManager
@@ -261,7 +261,7 @@ public class AlgorithmicResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/styles")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public Collection<String> getStyleNames() {
 		final Set<VisualStyle> styles = vmm.getAllVisualStyles();
 		final List<String> styleNames = new ArrayList<String>();
@@ -0,0 +1,20 @@
+package org.cytoscape.rest.internal.resource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.ws.rs.NameBinding;
+
+/**
+ * Marks a resource method whose serialized responses can be kept in the
+ * {@link ResponseCache}. The method must set an entity tag which changes
+ * whenever the response would change.
+ *
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface Cacheable {
+}
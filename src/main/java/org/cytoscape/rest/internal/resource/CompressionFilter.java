@@ -0,0 +1,387 @@
+package org.cytoscape.rest.internal.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.cytoscape.rest.internal.PropertyUtil;
+import org.cytoscape.rest.internal.serializer.BinaryJsonProvider;
+import org.cytoscape.rest.internal.serializer.ColumnarTableWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * gzip and deflate Content-Encoding for requests and responses.
+ *
+ * Responses are compressed if the client accepts it, the media type is one
+ * of the configured types, and the body is at least the minimum size. The
+ * first bytes of the body are buffered until the minimum size is reached,
+ * so small responses are sent as they are. Responses which already have a
+ * Content-Encoding are not touched.
+ *
+ * Request bodies sent with "Content-Encoding: gzip" or "deflate" are
+ * decoded before they are passed to the resources. This does not depend on
+ * the response settings.
+ *
+ * Settings in cytoscape3.props:
+ * <ul>
+ * <li>rest.compression.enabled: true or false. Default is true.</li>
+ * <li>rest.compression.mimeTypes: comma separated list of media types.</li>
+ * <li>rest.compression.minSize: minimum body size in bytes. Default is
+ * 1024.</li>
+ * <li>rest.compression.level: 1 (fastest) to 9 (smallest). Default is
+ * the zlib default (6).</li>
+ * </ul>
+ *
+ * This runs before the {@link ResponseCache}, so cached bodies are not
+ * compressed.
+ *
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class CompressionFilter implements ContainerResponseFilter, WriterInterceptor, ReaderInterceptor {
+
+	private final static Logger logger = LoggerFactory.getLogger(CompressionFilter.class);
+
+	public static final String ENABLED_PROP = "rest.compression.enabled";
+	public static final String MIME_TYPES_PROP = "rest.compression.mimeTypes";
+	public static final String MIN_SIZE_PROP = "rest.compression.minSize";
+	public static final String LEVEL_PROP = "rest.compression.level";
+
+	private static final String DEF_MIME_TYPES = MediaType.APPLICATION_JSON + "," + MediaType.TEXT_PLAIN
+			+ ",text/csv,text/tab-separated-values," + BinaryJsonProvider.APPLICATION_SMILE + ","
+			+ BinaryJsonProvider.APPLICATION_CBOR + "," + ColumnarTableWriter.MEDIA_TYPE;
+	private static final int DEF_MIN_SIZE = 1024;
+
+	private static final String GZIP = "gzip";
+	private static final String X_GZIP = "x-gzip";
+	private static final String DEFLATE = "deflate";
+	private static final String ANY = "*";
+
+	// Request property for the encoding selected by the response filter.
+	private static final String ENCODING_PROPERTY = CompressionFilter.class.getName() + ".encoding";
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	private final boolean enabled;
+	private final List<MediaType> mimeTypes;
+	private final int minSize;
+	private final int level;
+
+	/**
+	 * @param props Cytoscape properties
+	 */
+	public CompressionFilter(final Properties props) {
+		this.enabled = !"false".equalsIgnoreCase(props.getProperty(ENABLED_PROP, "true").trim());
+		this.minSize = Math.max(0, PropertyUtil.getInt(props, MIN_SIZE_PROP, DEF_MIN_SIZE));
+
+		final int level = PropertyUtil.getInt(props, LEVEL_PROP, Deflater.DEFAULT_COMPRESSION);
+		this.level = level >= Deflater.BEST_SPEED && level <= Deflater.BEST_COMPRESSION ? level
+				: Deflater.DEFAULT_COMPRESSION;
+
+		final List<MediaType> types = new ArrayList<MediaType>();
+		for (final String type : props.getProperty(MIME_TYPES_PROP, DEF_MIME_TYPES).split(",")) {
+			if (type.trim().isEmpty()) {
+				continue;
+			}
+			try {
+				types.add(MediaType.valueOf(type.trim()));
+			} catch (IllegalArgumentException e) {
+				logger.warn("Invalid media type in " + MIME_TYPES_PROP + ": " + type);
+			}
+		}
+		this.mimeTypes = Collections.unmodifiableList(types);
+	}
+
+	@Override
+	public void filter(final ContainerRequestContext request, final ContainerResponseContext response)
+			throws IOException {
+		if (!enabled || !response.hasEntity() || response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+				|| !isCompressible(response.getMediaType())) {
+			return;
+		}
+
+		response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		final String encoding = selectEncoding(request.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+		if (encoding != null) {
+			request.setProperty(ENCODING_PROPERTY, encoding);
+		}
+	}
+
+	private final boolean isCompressible(final MediaType type) {
+		if (type == null) {
+			return false;
+		}
+		for (final MediaType compressible : mimeTypes) {
+			if (compressible.isCompatible(type)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Select an encoding from the Accept-Encoding header.
+	 *
+	 * @param acceptEncoding value of the header. Can be null.
+	 * @return gzip or deflate, or null if neither is acceptable. gzip is
+	 *         preferred if both have the same quality value.
+	 */
+	static String selectEncoding(final String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return null;
+		}
+
+		double gzip = -1;
+		double deflate = -1;
+		double any = -1;
+		for (final String coding : acceptEncoding.split(",")) {
+			final String[] parts = coding.trim().split(";");
+			final String name = parts[0].trim().toLowerCase();
+			double q = 1;
+			for (int i = 1; i < parts.length; i++) {
+				final String param = parts[i].trim();
+				if (param.startsWith("q=")) {
+					try {
+						q = Double.parseDouble(param.substring(2));
+					} catch (NumberFormatException e) {
+						q = 0;
+					}
+				}
+			}
+			if (name.equals(GZIP) || name.equals(X_GZIP)) {
+				gzip = Math.max(gzip, q);
+			} else if (name.equals(DEFLATE)) {
+				deflate = Math.max(deflate, q);
+			} else if (name.equals(ANY)) {
+				any = q;
+			}
+		}
+		// "*" applies to the codings not listed explicitly.
+		if (gzip < 0) {
+			gzip = any;
+		}
+		if (deflate < 0) {
+			deflate = any;
+		}
+
+		if (gzip <= 0 && deflate <= 0) {
+			return null;
+		}
+		return gzip >= deflate ? GZIP : DEFLATE;
+	}
+
+	@Override
+	public void aroundWriteTo(final WriterInterceptorContext context) throws IOException, WebApplicationException {
+		final Object encoding = context.getProperty(ENCODING_PROPERTY);
+		if (encoding == null) {
+			context.proceed();
+			return;
+		}
+
+		final CompressingOutputStream os = new CompressingOutputStream(context.getOutputStream(),
+				context.getHeaders(), encoding.toString());
+		context.setOutputStream(os);
+		try {
+			context.proceed();
+			os.finish();
+		} finally {
+			// The body may be incomplete, but the deflater is not leaked.
+			os.release();
+		}
+	}
+
+	@Override
+	public Object aroundReadFrom(final ReaderInterceptorContext context) throws IOException,
+			WebApplicationException {
+		final String encoding = context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+		if (encoding != null) {
+			final String name = encoding.trim().toLowerCase();
+			InputStream decoded = null;
+			if (name.equals(GZIP) || name.equals(X_GZIP)) {
+				decoded = new GZIPInputStream(context.getInputStream(), BUFFER_SIZE);
+			} else if (name.equals(DEFLATE)) {
+				decoded = new InflaterInputStream(context.getInputStream());
+			}
+			if (decoded != null) {
+				context.setInputStream(decoded);
+				context.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+			}
+		}
+		return context.proceed();
+	}
+
+	/**
+	 * Buffers the body until the minimum size is reached, then sets the
+	 * Content-Encoding header and compresses the rest. Headers are sent with
+	 * the first byte written to the target, so they can be changed until
+	 * then.
+	 */
+	private final class CompressingOutputStream extends OutputStream {
+
+		private final OutputStream out;
+		private final MultivaluedMap<String, Object> headers;
+		private final String encoding;
+
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		private EncodingOutputStream compressed;
+		private boolean finished;
+
+		CompressingOutputStream(final OutputStream out, final MultivaluedMap<String, Object> headers,
+				final String encoding) {
+			this.out = out;
+			this.headers = headers;
+			this.encoding = encoding;
+		}
+
+		@Override
+		public void write(final int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			if (compressed != null) {
+				compressed.write(b, off, len);
+				return;
+			}
+			buffer.write(b, off, len);
+			if (buffer.size() >= minSize) {
+				startCompression();
+			}
+		}
+
+		private final void startCompression() throws IOException {
+			headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+			headers.remove(HttpHeaders.CONTENT_LENGTH);
+			compressed = new EncodingOutputStream(out, encoding.equals(GZIP), level);
+			buffer.writeTo(compressed);
+			buffer = null;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			// Nothing is flushed before the encoding is decided.
+			if (compressed != null) {
+				compressed.flush();
+			}
+		}
+
+		/**
+		 * Write out the rest of the body without closing the target.
+		 */
+		void finish() throws IOException {
+			if (finished) {
+				return;
+			}
+			finished = true;
+			if (compressed != null) {
+				compressed.end();
+			} else {
+				// Smaller than the minimum size
+				buffer.writeTo(out);
+			}
+			out.flush();
+		}
+
+		/**
+		 * Release the deflater, also if the body has not been finished.
+		 */
+		void release() {
+			if (compressed != null) {
+				compressed.release();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				finish();
+			} finally {
+				release();
+			}
+			out.close();
+		}
+	}
+
+	/**
+	 * gzip (RFC 1952) or zlib (RFC 1950, "deflate" in HTTP) stream with a
+	 * configurable level. The deflater is released without closing the
+	 * target.
+	 */
+	private static final class EncodingOutputStream extends DeflaterOutputStream {
+
+		private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0,
+				(byte) 0xff };
+
+		private final CRC32 crc;
+
+		EncodingOutputStream(final OutputStream out, final boolean gzip, final int level) throws IOException {
+			super(out, new Deflater(level, gzip), BUFFER_SIZE);
+			this.crc = gzip ? new CRC32() : null;
+			if (gzip) {
+				out.write(GZIP_HEADER);
+			}
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			super.write(b, off, len);
+			if (crc != null) {
+				crc.update(b, off, len);
+			}
+		}
+
+		void end() throws IOException {
+			try {
+				finish();
+				if (crc != null) {
+					writeInt((int) crc.getValue());
+					writeInt((int) def.getBytesRead());
+				}
+			} finally {
+				release();
+			}
+		}
+
+		/**
+		 * Free the native memory of the deflater. It may be called again.
+		 */
+		void release() {
+			def.end();
+		}
+
+		private final void writeInt(final int value) throws IOException {
+			// Little-endian
+			out.write(value & 0xff);
+			out.write((value >> 8) & 0xff);
+			out.write((value >> 16) & 0xff);
+			out.write((value >> 24) & 0xff);
+		}
+	}
+}
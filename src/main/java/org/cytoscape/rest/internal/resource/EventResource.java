@@ -0,0 +1,77 @@
+package org.cytoscape.rest.internal.resource;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.inject.Singleton;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+
+import org.cytoscape.rest.internal.ChangeNotifier;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.glassfish.jersey.media.sse.SseFeature;
+
+/**
+ * Push notifications of changes as Server-Sent Events.
+ * 
+ * @servicetag Events
+ * 
+ */
+@Singleton
+@Path("/v1/events")
+public class EventResource extends AbstractResource {
+
+	@Context
+	private ChangeNotifier changeNotifier;
+
+	/**
+	 * Opens a stream of Server-Sent Events which is kept open until the
+	 * client disconnects. Changes are sent in batches, with one entry per
+	 * network listing what has changed and the current version. Use the
+	 * change feed of the network (/v1/networks/{networkId}/changes) with
+	 * the previous version to get the details.
+	 * 
+	 * <ul>
+	 * <li>networks: networks added to or removed from the session. Only
+	 * sent if no networks are given.</li>
+	 * <li>changes: networks with changed nodes, edges, rows, columns or
+	 * views</li>
+	 * <li>dropped: some notifications were dropped because the client did
+	 * not keep up. All watched networks should be read again.</li>
+	 * </ul>
+	 * 
+	 * @summary Subscribe to changes of networks
+	 * 
+	 * @param networks (Optional) Comma separated list of network SUIDs to be
+	 *            watched. All networks are watched by default.
+	 * 
+	 * @return Event stream
+	 */
+	@GET
+	@Path("/")
+	@Produces(SseFeature.SERVER_SENT_EVENTS)
+	public EventOutput subscribe(@QueryParam("networks") String networks) {
+		Set<Long> suids = null;
+		if (networks != null) {
+			suids = new HashSet<Long>();
+			for (final String suid : networks.split(",")) {
+				if (suid.trim().isEmpty()) {
+					continue;
+				}
+				try {
+					suids.add(getCyNetwork(Long.parseLong(suid.trim())).getSUID());
+				} catch (NumberFormatException e) {
+					throw getError("Invalid network SUID: " + suid, e, Response.Status.BAD_REQUEST);
+				}
+			}
+		}
+
+		final EventOutput output = new EventOutput();
+		changeNotifier.subscribe(suids, output);
+		return output;
+	}
+}
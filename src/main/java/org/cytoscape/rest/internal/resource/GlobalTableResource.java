@@ -12,9 +12,7 @@ import javax.ws.rs.core.MediaType;
 
 import org.cytoscape.model.CyTable;
 import org.cytoscape.model.CyTableFactory;
-import org.cytoscape.rest.internal.serializer.TableModule;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Singleton
 @Path("/v1/tables")
@@ -24,12 +22,8 @@ public class GlobalTableResource extends AbstractResource {
 	@NotNull
 	private CyTableFactory tableFactory;
 
-	private final ObjectMapper tableObjectMapper;
-
 	public GlobalTableResource() {
 		super();
-		this.tableObjectMapper = new ObjectMapper();
-		this.tableObjectMapper.registerModule(new TableModule());
 	}
 
 	/**
@@ -40,7 +34,7 @@ public class GlobalTableResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/count")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getTableCount() {
 		final Set<CyTable> globals = tableManager.getGlobalTables();
 		return getNumberObjectString(JsonTags.COUNT, globals.size());
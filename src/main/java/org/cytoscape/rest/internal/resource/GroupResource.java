@@ -13,9 +13,11 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
 import org.cytoscape.group.CyGroup;
 import org.cytoscape.group.CyGroupFactory;
@@ -24,17 +26,14 @@ import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.subnetwork.CySubNetwork;
 import org.cytoscape.rest.internal.datamapper.GroupMapper;
-import org.cytoscape.rest.internal.serializer.GroupModule;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Singleton
 @Path("/v1/networks/{networkId}/groups")
 public class GroupResource extends AbstractResource {
 
-	private final ObjectMapper groupMapper;
 	private final GroupMapper mapper;
 
 	@Context
@@ -45,8 +44,6 @@ public class GroupResource extends AbstractResource {
 
 	public GroupResource() {
 		super();
-		this.groupMapper = new ObjectMapper();
-		this.groupMapper.registerModule(new GroupModule());
 		this.mapper = new GroupMapper();
 	}
 
@@ -56,17 +53,27 @@ public class GroupResource extends AbstractResource {
 	 * @param networkId
 	 *            Network SUID
 	 * 
+	 * @param limit
+	 *            (Optional) Maximum number of groups to be returned. If given,
+	 *            groups are sorted by group node SUID.
+	 * @param cursor
+	 *            (Optional) Return groups after this group node SUID. If there
+	 *            are more groups, the URL of the next page is returned in the
+	 *            Link header.
+	 * 
 	 * @return List of all groups in the network
 	 * 
 	 */
 	@GET
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
-	public String getAllGroups(@PathParam("networkId") Long networkId) {
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response getAllGroups(@PathParam("networkId") Long networkId, @QueryParam(LIMIT) Integer limit,
+			@QueryParam(CURSOR) Long cursor, @Context UriInfo uriInfo) {
 		final CyNetwork network = getCyNetwork(networkId);
 		final Set<CyGroup> groups = groupManager.getGroupSet(network);
+		final SuidPager.Page<CyGroup> page = getPage(SuidPager.GROUPS, groups, cursor, limit);
 		try {
-			return this.groupMapper.writeValueAsString(groups);
+			return getPageResponse(jackson.getGroupWriter().writeValueAsString(page.getItems()), page, uriInfo);
 		} catch (JsonProcessingException e) {
 			throw getError("Could not serialize groups.", e, Response.Status.INTERNAL_SERVER_ERROR);
 		}
@@ -84,7 +91,7 @@ public class GroupResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/count")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getGroupCount(@PathParam("networkId") Long networkId) {
 		final CyNetwork network = getCyNetwork(networkId);
 		return getNumberObjectString(JsonTags.COUNT, groupManager.getGroupSet(network).size());
@@ -102,7 +109,7 @@ public class GroupResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{nodeId}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getGroup(@PathParam("networkId") Long networkId, @PathParam("nodeId") Long nodeId) {
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyNode node = network.getNode(nodeId);
@@ -115,7 +122,7 @@ public class GroupResource extends AbstractResource {
 			throw new NotFoundException("Could not find group.");
 		}
 		try {
-			return groupMapper.writeValueAsString(group);
+			return jackson.getGroupWriter().writeValueAsString(group);
 		} catch (JsonProcessingException e) {
 			throw getError("Could not serialize Group.", e, Response.Status.INTERNAL_SERVER_ERROR);
 		}
@@ -246,14 +253,13 @@ public class GroupResource extends AbstractResource {
 	@POST
 	@Path("/")
 	@Consumes(MediaType.APPLICATION_JSON)
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String createGroup(@PathParam("networkId") Long networkId, final InputStream is) {
 		final CyNetwork network = getCyNetwork(networkId);
-		final ObjectMapper objMapper = new ObjectMapper();
 
 		JsonNode rootNode = null;
 		try {
-			rootNode = objMapper.readValue(is, JsonNode.class);
+			rootNode = jackson.readTree(is);
 		} catch (IOException ex) {
 			throw getError("Could not create JSON root node.", ex, Response.Status.INTERNAL_SERVER_ERROR);
 		}
@@ -0,0 +1,156 @@
+package org.cytoscape.rest.internal.resource;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Singleton;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.cytoscape.rest.internal.serializer.JacksonProvider;
+import org.cytoscape.rest.internal.serializer.JsonContent;
+import org.cytoscape.rest.internal.task.Job;
+import org.cytoscape.rest.internal.task.JobTaskMonitor;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qmino.miredot.annotations.ReturnType;
+
+/**
+ * Background jobs, e.g. network imports started with async=true.
+ *
+ */
+@Singleton
+@Path("/v1/jobs")
+public class JobResource extends AbstractResource {
+
+	public JobResource() {
+		super();
+	}
+
+	/**
+	 *
+	 * @summary Get all jobs
+	 *
+	 * @return List of jobs in the order of submission. Only the last 100
+	 *         finished jobs are kept.
+	 *
+	 */
+	@GET
+	@Path("/")
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	@ReturnType("java.util.List<java.util.Map<String, Object>>")
+	public StreamingOutput getJobs() {
+		return new JobWriter(jackson, jobManager.getJobs(), true);
+	}
+
+	/**
+	 * The state is one of QUEUED, RUNNING, DONE, FAILED and CANCELLED.
+	 * Progress is from 0 to 1, or -1 if the task does not report it. The
+	 * result is set when the job is DONE, and the error when it has FAILED.
+	 *
+	 * @summary Get a job
+	 *
+	 * @param jobId Job ID
+	 *
+	 * @return State, progress and result of the job
+	 *
+	 */
+	@GET
+	@Path("/{jobId}")
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	@ReturnType("java.util.Map<String, Object>")
+	public StreamingOutput getJob(@PathParam("jobId") Long jobId) {
+		final Job job = jobManager.getJob(jobId);
+		if (job == null) {
+			throw new NotFoundException("Could not find job: " + jobId);
+		}
+		return new JobWriter(jackson, Collections.singletonList(job), false);
+	}
+
+	/**
+	 * Cancels the job if it is queued or running.  A finished job is removed.
+	 *
+	 * @summary Cancel or remove a job
+	 *
+	 * @param jobId Job ID
+	 *
+	 * @return The job
+	 *
+	 */
+	@DELETE
+	@Path("/{jobId}")
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	@ReturnType("java.util.Map<String, Object>")
+	public StreamingOutput deleteJob(@PathParam("jobId") Long jobId) {
+		final Job job = jobManager.cancel(jobId);
+		if (job == null) {
+			throw new NotFoundException("Could not find job: " + jobId);
+		}
+		return new JobWriter(jackson, Collections.singletonList(job), false);
+	}
+
+	private static final class JobWriter extends JsonContent {
+
+		private final ObjectMapper mapper;
+		private final List<Job> jobs;
+		private final boolean array;
+
+		JobWriter(final JacksonProvider jackson, final List<Job> jobs, final boolean array) {
+			super(jackson);
+			// Binary generators have no codec for the results.
+			this.mapper = jackson.getObjectMapper();
+			this.jobs = jobs;
+			this.array = array;
+		}
+
+		@Override
+		public void writeTo(final JsonGenerator generator) throws IOException {
+			if (array) {
+				generator.writeStartArray();
+			}
+			for (final Job job : jobs) {
+				writeJob(job, generator);
+			}
+			if (array) {
+				generator.writeEndArray();
+			}
+		}
+
+		private final void writeJob(final Job job, final JsonGenerator generator) throws IOException {
+			final JobTaskMonitor monitor = job.getMonitor();
+			final Job.State state = job.getState();
+
+			generator.writeStartObject();
+			generator.writeNumberField("id", job.getId());
+			generator.writeStringField(JsonTags.TITLE, job.getTitle());
+			generator.writeStringField("state", state.name());
+			generator.writeNumberField("progress", state == Job.State.DONE ? 1.0 : monitor.getProgress());
+			if (monitor.getStatusMessage() != null) {
+				generator.writeStringField("status", monitor.getStatusMessage());
+			}
+			generator.writeNumberField("created", job.getCreated());
+			if (job.getStarted() != 0) {
+				generator.writeNumberField("started", job.getStarted());
+			}
+			if (job.getFinished() != 0) {
+				generator.writeNumberField("finished", job.getFinished());
+			}
+			if (job.getResult() != null) {
+				generator.writeFieldName("result");
+				mapper.writeValue(generator, job.getResult());
+			}
+			if (job.getError() != null) {
+				generator.writeStringField("error", job.getError());
+			}
+			generator.writeEndObject();
+		}
+	}
+}
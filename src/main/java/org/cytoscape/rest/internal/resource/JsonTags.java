@@ -28,8 +28,10 @@ public class JsonTags {
 	public static final String DIRECTED = "directed";
 	
 	public static final String NETWORK_SUID = "networkSUID";
+	public static final String JOB_ID = "jobId";
 	
 	public static final String URL = "url";
+	public static final String FILE = "file";
 	public static final String FORMAT_EDGELIST = "edgelist";
 	
 	
@@ -35,7 +35,7 @@ public class MiscResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
+	@Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8", APPLICATION_SMILE, APPLICATION_CBOR })
 	public ServerStatus getStatus() {
 		return new ServerStatus();
 	}
@@ -48,7 +48,7 @@ public class MiscResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/gc")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public void runGarbageCollection() {
 		Runtime.getRuntime().gc();
 	}
@@ -63,7 +63,7 @@ public class MiscResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/version")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public CytoscapeVersion getCytoscapeVersion() {
 
 		if (props == null) {
@@ -1,6 +1,12 @@
 package org.cytoscape.rest.internal.resource;
 
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Singleton;
 import javax.ws.rs.GET;
@@ -9,8 +15,10 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.cytoscape.model.CyNetwork;
+import org.cytoscape.rest.internal.serializer.NetworkArrayWriter;
 
 import com.qmino.miredot.annotations.ReturnType;
 
@@ -18,8 +26,19 @@ import com.qmino.miredot.annotations.ReturnType;
 @Path("/v1/networks.json")
 public class NetworkFullResource extends AbstractResource {
 
+	// Maximum number of networks serialized at once.
+	private static final int WINDOW = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+	private final ExecutorService writerExecutor;
+
 	public NetworkFullResource() {
 		super();
+		
+		// Threads will be released when idle.
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(WINDOW, WINDOW, 30, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new WriterThreadFactory());
+		executor.allowCoreThreadTimeOut(true);
+		this.writerExecutor = executor;
 	}
 	
 	/**
@@ -38,9 +57,9 @@ public class NetworkFullResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON + "; charset=UTF-8")
+	@Produces({ MediaType.APPLICATION_JSON + "; charset=UTF-8", APPLICATION_SMILE, APPLICATION_CBOR })
 	@ReturnType("java.util.List<org.cytoscape.rest.internal.model.CyJsNetwork>")
-	public String getNetworks(@QueryParam("column") String column, @QueryParam("query") String query) {
+	public StreamingOutput getNetworks(@QueryParam("column") String column, @QueryParam("query") String query) {
 		Set<CyNetwork> networks;
 		
 		if (column == null && query == null) {
@@ -55,25 +74,19 @@ public class NetworkFullResource extends AbstractResource {
 			networks = getNetworksByQuery(query, column);
 		}
 		
-		return getNetworksAsString(networks);
+		return new NetworkArrayWriter(networks, cytoscapeJsWriterFactory, writerExecutor, WINDOW);
 	}
 
 
-	private final String getNetworksAsString(final Set<CyNetwork> networks) {
-		if (networks.isEmpty()) {
-			return "[]";
-		}
+	private static final class WriterThreadFactory implements ThreadFactory {
 
-		final StringBuilder result = new StringBuilder();
-		result.append("[");
+		private final AtomicInteger count = new AtomicInteger();
 
-		for (final CyNetwork network : networks) {
-			result.append(getNetworkString(network));
-			result.append(",");
+		@Override
+		public Thread newThread(final Runnable r) {
+			final Thread thread = new Thread(r, "cyREST-network-writer-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
 		}
-		String jsonString = result.toString();
-		jsonString = jsonString.substring(0, jsonString.length() - 1);
-
-		return jsonString + "]";
 	}
 }
@@ -1,15 +1,23 @@
 package org.cytoscape.rest.internal.resource;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 
 import javax.inject.Singleton;
@@ -19,14 +27,19 @@ import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
 
 import org.cytoscape.io.read.AbstractCyNetworkReader;
 import org.cytoscape.io.read.CyNetworkReader;
@@ -39,8 +52,19 @@ import org.cytoscape.model.CyRow;
 import org.cytoscape.model.CyTable;
 import org.cytoscape.model.subnetwork.CyRootNetwork;
 import org.cytoscape.model.subnetwork.CySubNetwork;
+import org.cytoscape.rest.internal.ChangeLog;
+import org.cytoscape.rest.internal.datamapper.KeyIndex;
 import org.cytoscape.rest.internal.datamapper.MapperUtil;
+import org.cytoscape.rest.internal.datamapper.RowUpdater;
+import org.cytoscape.rest.internal.reader.EdgeListReader;
+import org.cytoscape.rest.internal.reader.MappedFileInputStream;
+import org.cytoscape.rest.internal.serializer.JacksonProvider;
+import org.cytoscape.rest.internal.serializer.JsonContent;
+import org.cytoscape.rest.internal.serializer.NetworkChangesWriter;
+import org.cytoscape.rest.internal.serializer.ProjectedNetworkWriter;
+import org.cytoscape.rest.internal.serializer.VisualStyleSerializer;
 import org.cytoscape.rest.internal.task.HeadlessTaskMonitor;
+import org.cytoscape.rest.internal.task.Job;
 import org.cytoscape.task.AbstractNetworkCollectionTask;
 import org.cytoscape.view.model.CyNetworkView;
 import org.cytoscape.view.presentation.property.BasicVisualLexicon;
@@ -48,20 +72,34 @@ import org.cytoscape.view.vizmap.VisualStyle;
 import org.cytoscape.work.ObservableTask;
 import org.cytoscape.work.Task;
 import org.cytoscape.work.TaskIterator;
+import org.cytoscape.work.TaskMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.qmino.miredot.annotations.ReturnType;
 
 @Singleton
 @Path("/v1/networks")
 public class NetworkResource extends AbstractResource {
 
+	private final static Logger logger = LoggerFactory.getLogger(NetworkResource.class);
+
 	// Preset types
 	private static final String DEF_COLLECTION_PREFIX = "Posted: ";
 
+	/**
+	 * Directories from which networks can be read with source=file.
+	 */
+	public static final String ALLOWED_DIRS_PROP = "rest.files.allowedDirs";
+
+	@Context
+	private VisualStyleSerializer styleSerializer;
+
 	public NetworkResource() {
 		super();
 	}
@@ -75,7 +113,7 @@ public class NetworkResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/count")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getNetworkCount() {
 		return getNumberObjectString(JsonTags.COUNT, networkManager.getNetworkSet().size());
 	}
@@ -90,7 +128,7 @@ public class NetworkResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{networkId}/nodes/count")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getNodeCount(@PathParam("networkId") Long networkId) {
 		return getNumberObjectString(JsonTags.COUNT, getCyNetwork(networkId).getNodeCount());
 	}
@@ -106,7 +144,7 @@ public class NetworkResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{networkId}/edges/count")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getEdgeCount(@PathParam("networkId") Long networkId) {
 		return getNumberObjectString(JsonTags.COUNT, getCyNetwork(networkId).getEdgeCount());
 	}
@@ -158,7 +196,7 @@ public class NetworkResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON + "; charset=UTF-8")
+	@Produces({ MediaType.APPLICATION_JSON + "; charset=UTF-8", APPLICATION_SMILE, APPLICATION_CBOR })
 	public Collection<Long> getNetworksAsSUID(@QueryParam("column") String column, @QueryParam("query") String query) {
 		Collection<CyNetwork> networks = new HashSet<>();
 		
@@ -195,15 +233,112 @@ public class NetworkResource extends AbstractResource {
 	 * @param networkId
 	 *            Network SUID
 	 * 
+	 * @param columns
+	 *            (Optional) Comma separated list of column names. If given,
+	 *            only these columns are written for the network, nodes and
+	 *            edges.
+	 * 
 	 * @return Network with all associated tables in Cytoscape.js format.
 	 * 
 	 */
 	@GET
 	@Path("/{networkId}")
-	@Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
+	@Cacheable
+	@Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8", APPLICATION_SMILE, APPLICATION_CBOR })
 	@ReturnType("org.cytoscape.rest.internal.model.CyJsNetwork")
-	public String getNetwork(@PathParam("networkId") Long networkId) {
-		return getNetworkString(getCyNetwork(networkId));
+	public Response getNetwork(@PathParam("networkId") Long networkId, @QueryParam(COLUMNS) String columns) {
+		final CyNetwork network = getCyNetwork(networkId);
+		flushEvents();
+		final EntityTag tag = getEntityTag(versionTracker.getNetworkVersion(network));
+		final Response notModified = getNotModified(tag);
+		if (notModified != null) {
+			return notModified;
+		}
+
+		final List<String> columnNames = getColumnNames(columns);
+		if (columnNames == null) {
+			return Response.ok(getNetworkStream(network)).tag(tag).build();
+		}
+
+		// Each name should exist in at least one of the tables.
+		for (final String name : columnNames) {
+			if (network.getDefaultNetworkTable().getColumn(name) == null
+					&& network.getDefaultNodeTable().getColumn(name) == null
+					&& network.getDefaultEdgeTable().getColumn(name) == null) {
+				throw getError("No such column: " + name, new IllegalArgumentException(), Response.Status.BAD_REQUEST);
+			}
+		}
+		return Response.ok(new ProjectedNetworkWriter(network, columnNames, getCytoscapeVersion(), jackson)).tag(tag).build();
+	}
+
+	/**
+	 * Returns only what has changed in the network since a version: added
+	 * and removed node and edge SUIDs, cells of the default tables, and
+	 * Visual Property values of the views. A client mirroring a network
+	 * can apply this delta instead of downloading the whole network again.
+	 * 
+	 * The response contains the version to be used as "since" in the next
+	 * request. Versions are opaque strings, which are also sent by the
+	 * events endpoint. To start, call this without "since" before
+	 * downloading the network. Applying a change twice has no effect, so changes made
+	 * during the download can safely be included in the next delta.
+	 * 
+	 * If the changes are no longer available (too many changes, a column
+	 * was added, removed or renamed, or Cytoscape was restarted), the
+	 * status is 410 Gone and the network should be downloaded again.
+	 * 
+	 * @summary Get changes of a network since a version
+	 * 
+	 * @param networkId Network SUID
+	 * @param since (Optional) Version returned by a previous request. If
+	 *            not given, no changes are returned, only the current
+	 *            version.
+	 * 
+	 * @return Changes since the version
+	 */
+	@GET
+	@Path("/{networkId}/changes")
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public NetworkChangesWriter getChanges(@PathParam("networkId") Long networkId,
+			@QueryParam("since") String since) {
+		final CyNetwork network = getCyNetwork(networkId);
+		flushEvents();
+		final long version = versionTracker.getCurrentVersion();
+		final long start;
+		if (since == null) {
+			start = version;
+		} else {
+			try {
+				start = versionTracker.parseTag(since);
+			} catch (IllegalArgumentException e) {
+				throw getError("Invalid version: " + since, e, Response.Status.BAD_REQUEST);
+			}
+			// Versions of another run of the service are not comparable.
+			if (start < 0 || start > version) {
+				throw getError("Unknown version: " + since, new IllegalStateException(), Response.Status.GONE);
+			}
+		}
+
+		final List<ChangeLog.Change> networkChanges = getChanges(network, start);
+		final Map<String, List<ChangeLog.Change>> tableChanges = new LinkedHashMap<String, List<ChangeLog.Change>>();
+		tableChanges.put("defaultnetwork", getChanges(network.getDefaultNetworkTable(), start));
+		tableChanges.put("defaultnode", getChanges(network.getDefaultNodeTable(), start));
+		tableChanges.put("defaultedge", getChanges(network.getDefaultEdgeTable(), start));
+		final Map<Long, List<ChangeLog.Change>> viewChanges = new LinkedHashMap<Long, List<ChangeLog.Change>>();
+		for (final CyNetworkView view : networkViewManager.getNetworkViews(network)) {
+			viewChanges.put(view.getSUID(), getChanges(view, start));
+		}
+		return new NetworkChangesWriter(jackson, styleSerializer, versionTracker.getTag(start),
+				versionTracker.getTag(version), networkChanges, tableChanges, viewChanges);
+	}
+
+	private final List<ChangeLog.Change> getChanges(final CyIdentifiable obj, final long since) {
+		final List<ChangeLog.Change> changes = versionTracker.getChanges(obj.getSUID(), since);
+		if (changes == null) {
+			throw getError("Changes since version " + since + " are no longer available.",
+					new IllegalStateException(), Response.Status.GONE);
+		}
+		return changes;
 	}
 
 	/**
@@ -212,15 +347,21 @@ public class NetworkResource extends AbstractResource {
 	 * @param networkId Network SUID
 	 * @param column Optional.  Node table column name to be used for search.
 	 * @param query Optional.  Search query.
+	 * @param limit Optional.  Maximum number of SUIDs to be returned.  If given, SUIDs are sorted.
+	 * @param cursor Optional.  Return SUIDs after this one.  If there are more nodes, 
+	 * 			the URL of the next page is returned in the Link header.
 	 * 
 	 * @return List of matched node SUIDs.  If no parameter is given, returns all node SUIDs.
 	 */
 	@GET
 	@Path("/{networkId}/nodes")
-	@Produces(MediaType.APPLICATION_JSON)
-	public Collection<Long> getNodes(@PathParam("networkId") Long networkId, @QueryParam("column") String column,
-			@QueryParam("query") String query) {
-		return getByQuery(networkId, "nodes", column, query);
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response getNodes(@PathParam("networkId") Long networkId, @QueryParam("column") String column,
+			@QueryParam("query") String query, @QueryParam(LIMIT) Integer limit, @QueryParam(CURSOR) Long cursor,
+			@Context UriInfo uriInfo) {
+		final SuidPager.Page<Long> page = getPage(SuidPager.SUIDS, getByQuery(networkId, "nodes", column, query),
+				cursor, limit);
+		return getPageResponse(page.getItems(), page, uriInfo);
 	}
 
 
@@ -230,15 +371,21 @@ public class NetworkResource extends AbstractResource {
 	 * @param networkId Network SUID
 	 * @param column Optional.  Edge table column name to be used for search.
 	 * @param query Optional.  Search query.
+	 * @param limit Optional.  Maximum number of SUIDs to be returned.  If given, SUIDs are sorted.
+	 * @param cursor Optional.  Return SUIDs after this one.  If there are more edges, 
+	 * 			the URL of the next page is returned in the Link header.
 	 * 
 	 * @return List of matched edge SUIDs.  If no parameter is given, returns all edge SUIDs.
 	 */
 	@GET
 	@Path("/{networkId}/edges")
-	@Produces(MediaType.APPLICATION_JSON)
-	public Collection<Long> getEdges(@PathParam("networkId") Long networkId, @QueryParam("column") String column,
-			@QueryParam("query") String query) {
-		return getByQuery(networkId, "edges", column, query);
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response getEdges(@PathParam("networkId") Long networkId, @QueryParam("column") String column,
+			@QueryParam("query") String query, @QueryParam(LIMIT) Integer limit, @QueryParam(CURSOR) Long cursor,
+			@Context UriInfo uriInfo) {
+		final SuidPager.Page<Long> page = getPage(SuidPager.SUIDS, getByQuery(networkId, "edges", column, query),
+				cursor, limit);
+		return getPageResponse(page.getItems(), page, uriInfo);
 	}
 
 	/**
@@ -255,7 +402,7 @@ public class NetworkResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{networkId}/nodes/{nodeId}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	@ReturnType("org.cytoscape.rest.internal.model.Node")
 	public String getNode(@PathParam("networkId") Long networkId, @PathParam("nodeId") Long nodeId) {
 		final CyNetwork network = getCyNetwork(networkId);
@@ -280,7 +427,7 @@ public class NetworkResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{networkId}/edges/{edgeId}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	@ReturnType("org.cytoscape.rest.internal.model.Edge")
 	public String getEdge(@PathParam("networkId") Long networkId, @PathParam("edgeId") Long edgeId) {
 		final CyNetwork network = getCyNetwork(networkId);
@@ -306,7 +453,7 @@ public class NetworkResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{networkId}/edges/{edgeId}/{type}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getEdgeComponent(@PathParam("networkId") Long networkId, @PathParam("edgeId") Long edgeId,
 			@PathParam("type") String type) {
 		final CyNetwork network = getCyNetwork(networkId);
@@ -341,7 +488,7 @@ public class NetworkResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{networkId}/edges/{edgeId}/isDirected")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public Boolean getEdgeDirected(@PathParam("networkId") Long networkId, @PathParam("edgeId") Long edgeId) {
 		final CyNetwork network = getCyNetwork(networkId);
 		CyEdge edge = network.getEdge(edgeId);
@@ -365,7 +512,7 @@ public class NetworkResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{networkId}/nodes/{nodeId}/adjEdges")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public Collection<Long> getAdjEdges(@PathParam("networkId") Long networkId, @PathParam("nodeId") Long nodeId) {
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyNode node = getNode(network, nodeId);
@@ -385,7 +532,7 @@ public class NetworkResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{networkId}/nodes/{nodeId}/pointer")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getNetworkPointer(@PathParam("networkId") Long networkId, @PathParam("nodeId") Long nodeId) {
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyNode node = getNode(network, nodeId);
@@ -410,7 +557,7 @@ public class NetworkResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{networkId}/nodes/{nodeId}/neighbors")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public Collection<Long> getNeighbours(@PathParam("networkId") Long networkId, @PathParam("nodeId") Long nodeId) {
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyNode node = getNode(network, nodeId);
@@ -444,6 +591,10 @@ public class NetworkResource extends AbstractResource {
 	 * <br />
 	 * Node name will be used for "name" column. 
 	 * 
+	 * The body is parsed as a stream and the response is streamed, so the
+	 * size of a request is not limited by memory. If the body is invalid,
+	 * nodes added by the request are removed again.
+	 * 
 	 * @summary Add node(s) to existing network
 	 * 
 	 * @param networkId Network SUID
@@ -453,49 +604,58 @@ public class NetworkResource extends AbstractResource {
 	@POST
 	@Path("/{networkId}/nodes")
 	@Consumes(MediaType.APPLICATION_JSON)
-	@Produces(MediaType.APPLICATION_JSON)
-	public String createNode(@PathParam("networkId") Long networkId, final InputStream is) {
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public StreamingOutput createNode(@PathParam("networkId") Long networkId, final InputStream is) {
 		final CyNetwork network = getCyNetwork(networkId);
-		final ObjectMapper objMapper = new ObjectMapper();
-		JsonNode rootNode = null;
-		try {
-			rootNode = objMapper.readValue(is, JsonNode.class);
+		final SuidList suids = new SuidList();
+		try (final JsonParser parser = jackson.getJsonFactory().createParser(is)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw getError("Need to post as array.", new IllegalArgumentException(),
+						Response.Status.PRECONDITION_FAILED);
+			}
+			JsonToken token;
+			while ((token = MapperUtil.nextElement(parser)) != JsonToken.END_ARRAY) {
+				final String nodeName = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+				parser.skipChildren();
+				final CyNode newNode = network.addNode();
+				final CyRow row = network.getRow(newNode);
+				row.set(CyNetwork.NAME, nodeName);
+				suids.add(newNode.getSUID());
+			}
 		} catch (IOException e) {
-			throw getError("Could not JSON root node.", e, Response.Status.INTERNAL_SERVER_ERROR);
+			removeNodes(network, suids);
+			throw getError("Could not parse node list.", e, Response.Status.INTERNAL_SERVER_ERROR);
+		} catch (WebApplicationException e) {
+			removeNodes(network, suids);
+			throw e;
+		} catch (Exception e) {
+			removeNodes(network, suids);
+			throw getError("Could not create node list.", e, Response.Status.INTERNAL_SERVER_ERROR);
+		} finally {
+			flushEvents();
 		}
+		updateViews(network);
 
-		// Single or multiple
-		if (rootNode.isArray()) {
-			final JsonFactory factory = new JsonFactory();
-
-			String result = null;
-			try {
-				ByteArrayOutputStream stream = new ByteArrayOutputStream();
-				JsonGenerator generator = null;
-				generator = factory.createGenerator(stream);
+		final CyTable nodeTable = network.getDefaultNodeTable();
+		return new JsonContent(jackson) {
+			@Override
+			public void writeTo(final JsonGenerator generator) throws IOException {
 				generator.writeStartArray();
-				for (final JsonNode node : rootNode) {
-					final String nodeName = node.textValue();
-					final CyNode newNode = network.addNode();
-					network.getRow(newNode).set(CyNetwork.NAME, nodeName);
+				for (int i = 0; i < suids.size(); i++) {
+					final long suid = suids.get(i);
 					generator.writeStartObject();
-					generator.writeStringField(CyNetwork.NAME, nodeName);
-					generator.writeNumberField(CyIdentifiable.SUID, newNode.getSUID());
+					if (nodeTable.rowExists(suid)) {
+						generator.writeStringField(CyNetwork.NAME,
+								nodeTable.getRow(suid).get(CyNetwork.NAME, String.class));
+					} else {
+						generator.writeNullField(CyNetwork.NAME);
+					}
+					generator.writeNumberField(CyIdentifiable.SUID, suid);
 					generator.writeEndObject();
 				}
 				generator.writeEndArray();
-				generator.close();
-				result = stream.toString("UTF-8");
-				stream.close();
-				updateViews(network);
-			} catch (Exception e) {
-				throw getError("Could not create node list.", e, Response.Status.INTERNAL_SERVER_ERROR);
 			}
-			return result;
-		} else {
-			throw getError("Need to post as array.", new IllegalArgumentException(),
-					Response.Status.PRECONDITION_FAILED);
-		}
+		};
 	}
 	
 	
@@ -512,9 +672,23 @@ public class NetworkResource extends AbstractResource {
 	 * ]
 	 * </pre>
 	 * 
+	 * The body is parsed as a stream and the response is streamed. If the
+	 * body is invalid, edges added by the request are removed again.
+	 * 
+	 * With keyColumn, "source" and "target" are values of that node column
+	 * (e.g. names) instead of SUIDs. The values are looked up in an index
+	 * built once for the request, and must match exactly one node. With
+	 * createMissing, a node is added for each value without a match, and
+	 * the value is also used as its name.
+	 * 
 	 * @summary Add edge(s) to existing network
 	 * 
 	 * @param networkId Network SUID
+	 * @param keyColumn (Optional) Name of a node column with unique values
+	 *            used to find the source and target nodes. Default is
+	 *            SUID.
+	 * @param createMissing (Optional) If true, add nodes for key values
+	 *            which do not exist. Default is false.
 	 * 
 	 * @return SUIDs of the new edges with source and target SUIDs.
 	 * 
@@ -522,70 +696,483 @@ public class NetworkResource extends AbstractResource {
 	@POST
 	@Path("/{networkId}/edges")
 	@Consumes(MediaType.APPLICATION_JSON)
-	@Produces(MediaType.APPLICATION_JSON)
-	public String createEdge(@PathParam("networkId") Long networkId, final InputStream is) {
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public StreamingOutput createEdge(@PathParam("networkId") Long networkId,
+			@QueryParam("keyColumn") String keyColumn,
+			@DefaultValue("false") @QueryParam("createMissing") boolean createMissing, final InputStream is) {
 		final CyNetwork network = getCyNetwork(networkId);
-		final ObjectMapper objMapper = new ObjectMapper();
 
-		JsonNode rootNode = null;
-		try {
-			rootNode = objMapper.readValue(is, JsonNode.class);
-		} catch (IOException e) {
-			throw getError("Could not find root node in the given JSON..", e, Response.Status.PRECONDITION_FAILED);
+		KeyIndex index = null;
+		if (keyColumn != null) {
+			try {
+				index = new KeyIndex(network.getDefaultNodeTable(), keyColumn);
+			} catch (IllegalArgumentException e) {
+				throw getError(e.getMessage(), e, Response.Status.BAD_REQUEST);
+			}
 		}
 
-		// Single or multiple
-		if (rootNode.isArray()) {
-			final JsonFactory factory = new JsonFactory();
+		// Edge, source and target SUIDs of each new edge
+		final SuidList suids = new SuidList();
+		final SuidList newNodes = new SuidList();
+		try (final JsonParser parser = jackson.getJsonFactory().createParser(is)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw getError("Need to POST as array.", new IllegalArgumentException(),
+						Response.Status.INTERNAL_SERVER_ERROR);
+			}
+			JsonToken token;
+			while ((token = MapperUtil.nextElement(parser)) != JsonToken.END_ARRAY) {
+				if (token != JsonToken.START_OBJECT) {
+					parser.skipChildren();
+					continue;
+				}
 
-			String result = null;
-			try {
-				ByteArrayOutputStream stream = new ByteArrayOutputStream();
-				JsonGenerator generator = null;
-				generator = factory.createGenerator(stream);
-				generator.writeStartArray();
-				for (final JsonNode node : rootNode) {
-					JsonNode source = node.get(JsonTags.SOURCE);
-					JsonNode target = node.get(JsonTags.TARGET);
-					JsonNode interaction = node.get(CyEdge.INTERACTION);
-					JsonNode isDirected = node.get(JsonTags.DIRECTED);
-					if (source == null || target == null) {
-						continue;
+				Object source = null;
+				Object target = null;
+				String interaction = null;
+				boolean isDirected = true;
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					final String field = parser.getCurrentName();
+					parser.nextToken();
+					if (JsonTags.SOURCE.equals(field)) {
+						source = index == null ? parser.getValueAsLong() : readKey(index, parser);
+					} else if (JsonTags.TARGET.equals(field)) {
+						target = index == null ? parser.getValueAsLong() : readKey(index, parser);
+					} else if (CyEdge.INTERACTION.equals(field)) {
+						interaction = parser.getCurrentToken() == JsonToken.VALUE_STRING ? parser.getText() : null;
+					} else if (JsonTags.DIRECTED.equals(field)) {
+						isDirected = parser.getValueAsBoolean();
 					}
+					parser.skipChildren();
+				}
+				if (source == null || target == null) {
+					continue;
+				}
 
-					final Long sourceSUID = source.asLong();
-					final Long targetSUID = target.asLong();
-					final CyNode sourceNode = network.getNode(sourceSUID);
-					final CyNode targetNode = network.getNode(targetSUID);
-
-					final CyEdge edge;
-					if (isDirected != null) {
-						edge = network.addEdge(sourceNode, targetNode, isDirected.asBoolean());
-					} else {
-						edge = network.addEdge(sourceNode, targetNode, true);
-					}
-					if (interaction != null) {
-						network.getRow(edge).set(CyEdge.INTERACTION, interaction.textValue());
-					}
+				final CyNode sourceNode = getEdgeNode(network, index, source, createMissing, newNodes);
+				final CyNode targetNode = getEdgeNode(network, index, target, createMissing, newNodes);
+				final CyEdge edge = network.addEdge(sourceNode, targetNode, isDirected);
+				if (interaction != null) {
+					final CyRow row = network.getRow(edge);
+					row.set(CyEdge.INTERACTION, interaction);
+				}
+				suids.add(edge.getSUID());
+				suids.add(sourceNode.getSUID());
+				suids.add(targetNode.getSUID());
+			}
+		} catch (IOException e) {
+			removeEdges(network, suids);
+			removeNodes(network, newNodes);
+			throw getError("Could not parse edge list.", e, Response.Status.PRECONDITION_FAILED);
+		} catch (WebApplicationException e) {
+			removeEdges(network, suids);
+			removeNodes(network, newNodes);
+			throw e;
+		} catch (IllegalArgumentException e) {
+			removeEdges(network, suids);
+			removeNodes(network, newNodes);
+			throw getError(e.getMessage(), e, Response.Status.BAD_REQUEST);
+		} catch (Exception e) {
+			removeEdges(network, suids);
+			removeNodes(network, newNodes);
+			throw getError("Could not create edge.", e, Response.Status.INTERNAL_SERVER_ERROR);
+		} finally {
+			flushEvents();
+		}
+		updateViews(network);
 
+		return new JsonContent(jackson) {
+			@Override
+			public void writeTo(final JsonGenerator generator) throws IOException {
+				generator.writeStartArray();
+				for (int i = 0; i < suids.size(); i += 3) {
 					generator.writeStartObject();
-					generator.writeNumberField(CyIdentifiable.SUID, edge.getSUID());
-					generator.writeNumberField(JsonTags.SOURCE, sourceSUID);
-					generator.writeNumberField(JsonTags.TARGET, targetSUID);
+					generator.writeNumberField(CyIdentifiable.SUID, suids.get(i));
+					generator.writeNumberField(JsonTags.SOURCE, suids.get(i + 1));
+					generator.writeNumberField(JsonTags.TARGET, suids.get(i + 2));
 					generator.writeEndObject();
 				}
 				generator.writeEndArray();
-				generator.close();
-				result = stream.toString("UTF-8");
-				stream.close();
-				updateViews(network);
-			} catch (Exception e) {
-				throw getError("Could not create edge.", e, Response.Status.INTERNAL_SERVER_ERROR);
 			}
-			return result;
-		} else {
-			throw getError("Need to POST as array.", new IllegalArgumentException(),
-					Response.Status.INTERNAL_SERVER_ERROR);
+		};
+	}
+
+	/**
+	 * Create or update nodes by the values of a key column.
+	 * 
+	 * <pre>
+	 * [
+	 * 	{
+	 * 		"name": "KEY_VALUE",
+	 * 		"COLUMN_NAME": VALUE, ...
+	 * 	} ...
+	 * ]
+	 * </pre>
+	 * 
+	 * Each object is matched to a node by the value of the key column. A
+	 * node is added for each value without a match, and the value is also
+	 * used as its name. All other fields are set as cells of the node
+	 * table, and columns which do not exist are created. Objects without a
+	 * key value are skipped.
+	 * 
+	 * The nodes are looked up in an index built once for the request, and
+	 * the body is parsed as a stream. If the body is invalid, nodes added
+	 * by the request are removed again.
+	 * 
+	 * @summary Create or update node(s) by key
+	 * 
+	 * @param networkId Network SUID
+	 * @param keyColumn (Optional) Name of a node column with unique values.
+	 *            Default is name.
+	 * 
+	 * @return Numbers of created, updated and skipped nodes, and SUID of
+	 *         the node for each key value.
+	 * 
+	 */
+	@PUT
+	@Path("/{networkId}/nodes")
+	@Consumes(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public StreamingOutput upsertNodes(@PathParam("networkId") Long networkId,
+			@DefaultValue(CyNetwork.NAME) @QueryParam("keyColumn") String keyColumn, final InputStream is) {
+		final CyNetwork network = getCyNetwork(networkId);
+		final CyTable table = network.getDefaultNodeTable();
+		final KeyIndex index = getKeyIndex(table, keyColumn);
+		final Set<String> ignore = new HashSet<String>();
+		ignore.add(CyIdentifiable.SUID);
+		ignore.add(index.getColumnName());
+
+		final RowUpdater updater = new RowUpdater(table, ignore);
+		final UpsertResult result = new UpsertResult(jackson);
+		final SuidList newNodes = new SuidList();
+		try (final JsonParser parser = jackson.getJsonFactory().createParser(is)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw getError("Need to PUT as array.", new IllegalArgumentException(),
+						Response.Status.BAD_REQUEST);
+			}
+			JsonToken token;
+			while ((token = MapperUtil.nextElement(parser)) != JsonToken.END_ARRAY) {
+				if (token != JsonToken.START_OBJECT) {
+					parser.skipChildren();
+					result.skipped++;
+					continue;
+				}
+				final JsonNode entry = parser.readValueAsTree();
+				final Object key = index.getKey(entry.get(index.getColumnName()));
+				if (key == null) {
+					result.skipped++;
+					continue;
+				}
+
+				Long suid = index.getSUID(key);
+				if (suid == null) {
+					suid = addKeyedNode(network, index, key).getSUID();
+					newNodes.add(suid);
+					result.created++;
+				} else {
+					result.updated++;
+				}
+				updater.update(entry, table.getRow(suid));
+				result.suids.put(key, suid);
+			}
+		} catch (IOException e) {
+			removeNodes(network, newNodes);
+			throw getError("Could not parse node list.", e, Response.Status.BAD_REQUEST);
+		} catch (WebApplicationException e) {
+			removeNodes(network, newNodes);
+			throw e;
+		} catch (IllegalArgumentException e) {
+			removeNodes(network, newNodes);
+			throw getError(e.getMessage(), e, Response.Status.BAD_REQUEST);
+		} catch (Exception e) {
+			removeNodes(network, newNodes);
+			throw getError("Could not update node list.", e, Response.Status.INTERNAL_SERVER_ERROR);
+		} finally {
+			flushEvents();
+		}
+		updateViews(network);
+		return result;
+	}
+
+	/**
+	 * Create or update edges by the values of a key column.
+	 * 
+	 * <pre>
+	 * [
+	 * 	{
+	 * 		"name": "KEY_VALUE",
+	 * 		"source": SOURCE_NODE_SUID,
+	 * 		"target": TARGET_NODE_SUID,
+	 * 		"directed": (Optional boolean value.  Default is True),
+	 * 		"COLUMN_NAME": VALUE, ...
+	 * 	} ...
+	 * ]
+	 * </pre>
+	 * 
+	 * Each object is matched to an edge by the value of the key column.
+	 * Source and target are required only for new edges, and are ignored
+	 * for existing ones. All other fields (including interaction) are set
+	 * as cells of the edge table. Objects without a key value are skipped.
+	 * 
+	 * With nodeKeyColumn, "source" and "target" are values of that node
+	 * column instead of SUIDs, as in POST. With createMissing, a node is
+	 * added for each value without a match.
+	 * 
+	 * If the body is invalid, edges and nodes added by the request are
+	 * removed again.
+	 * 
+	 * @summary Create or update edge(s) by key
+	 * 
+	 * @param networkId Network SUID
+	 * @param keyColumn (Optional) Name of an edge column with unique values.
+	 *            Default is name.
+	 * @param nodeKeyColumn (Optional) Name of a node column with unique
+	 *            values used to find the source and target nodes. Default
+	 *            is SUID.
+	 * @param createMissing (Optional) If true, add nodes for node key values
+	 *            which do not exist. Default is false.
+	 * 
+	 * @return Numbers of created, updated and skipped edges, and SUID of
+	 *         the edge for each key value.
+	 * 
+	 */
+	@PUT
+	@Path("/{networkId}/edges")
+	@Consumes(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public StreamingOutput upsertEdges(@PathParam("networkId") Long networkId,
+			@DefaultValue(CyNetwork.NAME) @QueryParam("keyColumn") String keyColumn,
+			@QueryParam("nodeKeyColumn") String nodeKeyColumn,
+			@DefaultValue("false") @QueryParam("createMissing") boolean createMissing, final InputStream is) {
+		final CyNetwork network = getCyNetwork(networkId);
+		final CyTable table = network.getDefaultEdgeTable();
+		final KeyIndex index = getKeyIndex(table, keyColumn);
+		final KeyIndex nodeIndex = nodeKeyColumn == null ? null : getKeyIndex(network.getDefaultNodeTable(),
+				nodeKeyColumn);
+		final Set<String> ignore = new HashSet<String>();
+		ignore.add(CyIdentifiable.SUID);
+		ignore.add(index.getColumnName());
+		ignore.add(JsonTags.SOURCE);
+		ignore.add(JsonTags.TARGET);
+		ignore.add(JsonTags.DIRECTED);
+
+		final RowUpdater updater = new RowUpdater(table, ignore);
+		final UpsertResult result = new UpsertResult(jackson);
+		// Edge, source and target SUIDs of each new edge
+		final SuidList newEdges = new SuidList();
+		final SuidList newNodes = new SuidList();
+		try (final JsonParser parser = jackson.getJsonFactory().createParser(is)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw getError("Need to PUT as array.", new IllegalArgumentException(),
+						Response.Status.BAD_REQUEST);
+			}
+			JsonToken token;
+			while ((token = MapperUtil.nextElement(parser)) != JsonToken.END_ARRAY) {
+				if (token != JsonToken.START_OBJECT) {
+					parser.skipChildren();
+					result.skipped++;
+					continue;
+				}
+				final JsonNode entry = parser.readValueAsTree();
+				final Object key = index.getKey(entry.get(index.getColumnName()));
+				if (key == null) {
+					result.skipped++;
+					continue;
+				}
+
+				Long suid = index.getSUID(key);
+				if (suid == null) {
+					if (index.isPrimaryKey()) {
+						throw new IllegalArgumentException("Cannot create edges with a given "
+								+ index.getColumnName());
+					}
+					final CyNode source = getEdgeNode(network, nodeIndex,
+							getNodeRef(nodeIndex, entry.get(JsonTags.SOURCE), key), createMissing, newNodes);
+					final CyNode target = getEdgeNode(network, nodeIndex,
+							getNodeRef(nodeIndex, entry.get(JsonTags.TARGET), key), createMissing, newNodes);
+					final JsonNode directed = entry.get(JsonTags.DIRECTED);
+					final CyEdge edge = network.addEdge(source, target, directed == null || directed.asBoolean());
+					suid = edge.getSUID();
+					setKey(network.getRow(edge), index, key);
+					index.put(key, suid);
+					newEdges.add(suid);
+					newEdges.add(source.getSUID());
+					newEdges.add(target.getSUID());
+					result.created++;
+				} else {
+					result.updated++;
+				}
+				updater.update(entry, table.getRow(suid));
+				result.suids.put(key, suid);
+			}
+		} catch (IOException e) {
+			removeEdges(network, newEdges);
+			removeNodes(network, newNodes);
+			throw getError("Could not parse edge list.", e, Response.Status.BAD_REQUEST);
+		} catch (WebApplicationException e) {
+			removeEdges(network, newEdges);
+			removeNodes(network, newNodes);
+			throw e;
+		} catch (IllegalArgumentException e) {
+			removeEdges(network, newEdges);
+			removeNodes(network, newNodes);
+			throw getError(e.getMessage(), e, Response.Status.BAD_REQUEST);
+		} catch (Exception e) {
+			removeEdges(network, newEdges);
+			removeNodes(network, newNodes);
+			throw getError("Could not update edge list.", e, Response.Status.INTERNAL_SERVER_ERROR);
+		} finally {
+			flushEvents();
+		}
+		updateViews(network);
+		return result;
+	}
+
+	private final KeyIndex getKeyIndex(final CyTable table, final String columnName) {
+		try {
+			return new KeyIndex(table, columnName);
+		} catch (IllegalArgumentException e) {
+			throw getError(e.getMessage(), e, Response.Status.BAD_REQUEST);
+		}
+	}
+
+	/**
+	 * Source or target of a new edge in an upsert request.
+	 * 
+	 * @return SUID, or key value if an index is given
+	 * @throws IllegalArgumentException if the value is missing
+	 */
+	private static final Object getNodeRef(final KeyIndex nodeIndex, final JsonNode value, final Object edgeKey) {
+		if (value == null || value.isNull()) {
+			throw new IllegalArgumentException("Source and target are required for new edge: " + edgeKey);
+		}
+		return nodeIndex == null ? (Object) value.asLong() : nodeIndex.getKey(value);
+	}
+
+	/**
+	 * Response of an upsert request.
+	 */
+	private static final class UpsertResult extends JsonContent {
+
+		private static final String CREATED = "created";
+		private static final String UPDATED = "updated";
+		private static final String SKIPPED = "skipped";
+
+		private final Map<Object, Long> suids = new LinkedHashMap<Object, Long>();
+		private int created;
+		private int updated;
+		private int skipped;
+
+		UpsertResult(final JacksonProvider jackson) {
+			super(jackson);
+		}
+
+		@Override
+		public void writeTo(final JsonGenerator generator) throws IOException {
+			generator.writeStartObject();
+			generator.writeNumberField(CREATED, created);
+			generator.writeNumberField(UPDATED, updated);
+			generator.writeNumberField(SKIPPED, skipped);
+			generator.writeObjectFieldStart(CyIdentifiable.SUID);
+			for (final Map.Entry<Object, Long> entry : suids.entrySet()) {
+				generator.writeNumberField(entry.getKey().toString(), entry.getValue());
+			}
+			generator.writeEndObject();
+			generator.writeEndObject();
+		}
+	}
+
+	/**
+	 * Find the source or target node of a new edge.
+	 * 
+	 * @param ref SUID, or key value if an index is given
+	 * @param newNodes SUIDs of the nodes added for missing keys
+	 * @return The node
+	 * @throws IllegalArgumentException if there is no such node
+	 */
+	private final CyNode getEdgeNode(final CyNetwork network, final KeyIndex index, final Object ref,
+			final boolean createMissing, final SuidList newNodes) {
+		if (index == null) {
+			final CyNode node = network.getNode((Long) ref);
+			if (node == null) {
+				throw new IllegalArgumentException("No such node: " + ref);
+			}
+			return node;
+		}
+
+		final Long suid = index.getSUID(ref);
+		if (suid != null) {
+			return network.getNode(suid);
+		} else if (!createMissing) {
+			throw new IllegalArgumentException("No node with " + index.getColumnName() + " = " + ref);
+		}
+		final CyNode node = addKeyedNode(network, index, ref);
+		newNodes.add(node.getSUID());
+		return node;
+	}
+
+	/**
+	 * Add a node for a key value which does not exist yet. The value is
+	 * also used as the name of the node.
+	 * 
+	 * @throws IllegalArgumentException if the key column is SUID
+	 */
+	private final CyNode addKeyedNode(final CyNetwork network, final KeyIndex index, final Object key) {
+		if (index.isPrimaryKey()) {
+			throw new IllegalArgumentException("Cannot create nodes with a given " + index.getColumnName());
+		}
+		final CyNode node = network.addNode();
+		setKey(network.getRow(node), index, key);
+		index.put(key, node.getSUID());
+		return node;
+	}
+
+	/**
+	 * Set the key of a new node or edge. The value is also used as its
+	 * name.
+	 */
+	private static final void setKey(final CyRow row, final KeyIndex index, final Object key) {
+		row.set(index.getColumnName(), key);
+		if (!CyNetwork.NAME.equals(index.getColumnName())) {
+			row.set(CyNetwork.NAME, key.toString());
+		}
+	}
+
+	/**
+	 * Read the current value of the parser as a key of the index.
+	 */
+	private static final Object readKey(final KeyIndex index, final JsonParser parser) throws IOException {
+		return index.getKey(parser.<JsonNode> readValueAsTree());
+	}
+
+	/**
+	 * Undo a bulk request which has failed.
+	 */
+	private final void removeNodes(final CyNetwork network, final SuidList suids) {
+		final List<CyNode> nodes = new ArrayList<CyNode>(suids.size());
+		for (int i = 0; i < suids.size(); i++) {
+			final CyNode node = network.getNode(suids.get(i));
+			if (node != null) {
+				nodes.add(node);
+			}
+		}
+		if (!nodes.isEmpty()) {
+			network.removeNodes(nodes);
+		}
+	}
+
+	/**
+	 * Undo a bulk request which has failed.
+	 */
+	private final void removeEdges(final CyNetwork network, final SuidList suids) {
+		final List<CyEdge> edges = new ArrayList<CyEdge>(suids.size() / 3);
+		for (int i = 0; i < suids.size(); i += 3) {
+			final CyEdge edge = network.getEdge(suids.get(i));
+			if (edge != null) {
+				edges.add(edge);
+			}
+		}
+		if (!edges.isEmpty()) {
+			network.removeEdges(edges);
 		}
 	}
 
@@ -692,44 +1279,47 @@ public class NetworkResource extends AbstractResource {
 		updateViews(network);
 	}
 
-	/**
-	 * Update view of each network
-	 * 
-	 * @param network
-	 */
-	private final void updateViews(final CyNetwork network) {
-		final Collection<CyNetworkView> views = networkViewManager.getNetworkViews(network);
-		for (final CyNetworkView view : views) {
-			view.updateView();
-		}
-	}
-
 	// ///////////////////// Object Creation ////////////////////
 
 	
 	/**
+	 * With source=file, the network is read from a file on the machine
+	 * running Cytoscape instead of the request body.  The file must be in one
+	 * of the directories listed in the "rest.files.allowedDirs" property
+	 * (separated by the path separator of the platform).  If the property is
+	 * not set, files cannot be read.  The file is memory mapped, so large
+	 * networks are not copied through HTTP.
+	 * 
 	 * @summary Create a new network from Cytoscape.js JSON or Edgelist
 	 * 
 	 * @param collection Name of new network collection
 	 * @param title Title of the new network
-	 * @param source Optional.  "url"
+	 * @param source Optional.  "url" or "file"
 	 * @param format "edgelist" or "json" 
-	 * 
-	 * @return SUID of the new network
+	 * @param path Path of the file for source=file
+	 * @param nodeNameColumns Optional.  For edgelist, copy the node names to
+	 *            "source" and "target" edge columns.  Default is false.
+	 * @param async Optional.  If true, the network is read in the background.
+	 *            The response is 202 with the ID of the job, and the job can be
+	 *            polled at /v1/jobs/{jobId}.  Default is false.
+	 * 
+	 * @return SUID of the new network, or the job ID in async mode
 	 */
 	@POST
 	@Path("/")
 	@Consumes(MediaType.APPLICATION_JSON)
-	@Produces(MediaType.APPLICATION_JSON)
-	public String createNetwork(@DefaultValue(DEF_COLLECTION_PREFIX) @QueryParam("collection") String collection,
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response createNetwork(@DefaultValue(DEF_COLLECTION_PREFIX) @QueryParam("collection") String collection,
 			@QueryParam("source") String source, @QueryParam("format") String format, 
-			@QueryParam("title") String title, final InputStream is,
-			@Context HttpHeaders headers) {
+			@QueryParam("title") final String title, @QueryParam("path") String path,
+			@DefaultValue("false") @QueryParam("nodeNameColumns") boolean nodeNameColumns,
+			@DefaultValue("false") @QueryParam("async") boolean async, final InputStream is,
+			@Context HttpHeaders headers, @Context UriInfo uriInfo) {
 
 		// 1. If source is URL, load from the array of URL
 		if (source != null && source.equals(JsonTags.URL)) {
 			try {
-				return loadNetwork(collection, is);
+				return Response.ok(loadNetwork(collection, is)).build();
 			} catch (IOException e) {
 				throw getError("Could not load networks from given locations.", e,
 						Response.Status.INTERNAL_SERVER_ERROR);
@@ -750,22 +1340,99 @@ public class NetworkResource extends AbstractResource {
 			collectionName = collection;
 		}
 
+		// Local files are read instead of the body.
+		final InputStream input;
+		File bodyFile = null;
+		if (source != null && source.equals(JsonTags.FILE)) {
+			input = openFile(path);
+		} else if (async) {
+			// The body cannot be read after the response has been sent.
+			try {
+				bodyFile = File.createTempFile("cyREST-network-", ".tmp");
+				Files.copy(is, bodyFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				input = new MappedFileInputStream(bodyFile);
+			} catch (IOException e) {
+				deleteFile(bodyFile);
+				throw getError("Could not store the network for the job.", e, Response.Status.INTERNAL_SERVER_ERROR);
+			}
+		} else {
+			input = is;
+		}
+
 		final TaskIterator it;
 		if (format != null && format.trim().equals(JsonTags.FORMAT_EDGELIST)) {
-			it = edgeListReaderFactory.createTaskIterator(is, collection);
+			it = edgeListReaderFactory.createTaskIterator(input, collection);
 		} else {
-			it = cytoscapeJsReaderFactory.createTaskIterator(is, collection);
+			it = cytoscapeJsReaderFactory.createTaskIterator(input, collection);
 		}
 
 		final CyNetworkReader reader = (CyNetworkReader) it.next();
+		if (reader instanceof EdgeListReader) {
+			((EdgeListReader) reader).setNodeNameColumns(nodeNameColumns);
+		}
+
+		if (async) {
+			final File tempFile = bodyFile;
+			final Job job = jobManager.submit(new Job("Create network", new Job.Work() {
+				@Override
+				public Object execute(final TaskMonitor monitor) throws Exception {
+					reader.run(monitor);
+					final CyNetwork[] networks = reader.getNetworks();
+					if (networks == null || networks.length == 0) {
+						// Cancelled
+						return null;
+					}
+					return Collections.singletonMap(JsonTags.NETWORK_SUID,
+							addNewNetwork(networks, reader, title, collectionName));
+				}
+
+				@Override
+				public void cancel() {
+					reader.cancel();
+				}
+
+				@Override
+				public void dispose() {
+					try {
+						input.close();
+					} catch (IOException e) {
+						logger.warn("Could not close the network input stream.", e);
+					}
+					deleteFile(tempFile);
+				}
+			}));
+			final URI location = uriInfo.getBaseUriBuilder().path(JobResource.class)
+					.path(Long.toString(job.getId())).build();
+			return Response.accepted(getNumberObjectString(JsonTags.JOB_ID, job.getId())).location(location).build();
+		}
 
 		try {
 			reader.run(new HeadlessTaskMonitor());
 		} catch (Exception e) {
+			closeFile(input, is);
 			throw getError("Could not parse the given network JSON.", e, Response.Status.PRECONDITION_FAILED);
 		}
 		
-		final CyNetwork[] networks = reader.getNetworks();
+		final Long suid = addNewNetwork(reader.getNetworks(), reader, title, collectionName);
+
+		try {
+			is.close();
+		} catch (IOException e) {
+			throw getError("Could not close the network input stream.", e, Response.Status.INTERNAL_SERVER_ERROR);
+		}
+		closeFile(input, is);
+
+		// Return SUID-to-Original map
+		return Response.ok(getNumberObjectString(JsonTags.NETWORK_SUID, suid)).build();
+	}
+
+	/**
+	 * Set the title of the network which has been read, and register it.
+	 * 
+	 * @return SUID of the new network
+	 */
+	private final Long addNewNetwork(final CyNetwork[] networks, final CyNetworkReader reader, final String title,
+			final String collectionName) {
 		final CyNetwork newNetwork = networks[0];
 		
 		if(title!= null && title.isEmpty() == false) {
@@ -777,15 +1444,105 @@ public class NetworkResource extends AbstractResource {
 		}
 		
 		addNetwork(networks, reader, collectionName);
+		return newNetwork.getSUID();
+	}
+
+	private static final void deleteFile(final File file) {
+		if (file != null && !file.delete()) {
+			file.deleteOnExit();
+		}
+	}
 
+	/**
+	 * Open a file in one of the allowed directories.
+	 */
+	private final InputStream openFile(final String path) {
+		if (path == null || path.isEmpty()) {
+			throw getError("File path is missing.", new IllegalArgumentException(), Response.Status.BAD_REQUEST);
+		}
+		final String dirs = props == null ? null
+				: ((Properties) props.getProperties()).getProperty(ALLOWED_DIRS_PROP);
+		if (dirs == null || dirs.trim().isEmpty()) {
+			throw getError("Reading local files is disabled.  Set " + ALLOWED_DIRS_PROP + " to enable it.",
+					new IllegalStateException(), Response.Status.FORBIDDEN);
+		}
+
+		final List<java.nio.file.Path> allowedDirs = new ArrayList<java.nio.file.Path>();
+		for (final String dir : dirs.split(File.pathSeparator)) {
+			if (!dir.trim().isEmpty()) {
+				try {
+					allowedDirs.add(Paths.get(dir.trim()).toAbsolutePath().normalize());
+				} catch (InvalidPathException e) {
+					logger.warn("Invalid directory in " + ALLOWED_DIRS_PROP + ": " + dir);
+				}
+			}
+		}
+
+		// The path is checked before the file system is looked at, so
+		// clients cannot find out which files exist outside the directories.
+		final java.nio.file.Path normalized;
 		try {
-			is.close();
+			normalized = Paths.get(path).toAbsolutePath().normalize();
+		} catch (InvalidPathException e) {
+			throw getFileForbidden(path);
+		}
+		if (!isInDirectory(normalized, allowedDirs)) {
+			throw getFileForbidden(path);
+		}
+
+		final java.nio.file.Path file;
+		try {
+			file = normalized.toRealPath();
 		} catch (IOException e) {
-			throw getError("Could not close the network input stream.", e, Response.Status.INTERNAL_SERVER_ERROR);
+			throw new NotFoundException("File does not exist: " + path);
+		}
+		// Symbolic links are resolved, so a link cannot point out of the
+		// directories.
+		final List<java.nio.file.Path> realDirs = new ArrayList<java.nio.file.Path>(allowedDirs.size());
+		for (final java.nio.file.Path dir : allowedDirs) {
+			try {
+				realDirs.add(dir.toRealPath());
+			} catch (IOException e) {
+				// Missing directory
+			}
+		}
+		if (!isInDirectory(file, realDirs)) {
+			throw getFileForbidden(path);
+		}
+		if (!Files.isRegularFile(file)) {
+			throw new NotFoundException("Not a file: " + path);
 		}
 
-		// Return SUID-to-Original map
-		return getNumberObjectString(JsonTags.NETWORK_SUID, newNetwork.getSUID());
+		try {
+			return new MappedFileInputStream(file.toFile());
+		} catch (IOException e) {
+			throw getError("Could not open file: " + path, e, Response.Status.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+	private final WebApplicationException getFileForbidden(final String path) {
+		return getError("File is not in an allowed directory: " + path, new SecurityException(),
+				Response.Status.FORBIDDEN);
+	}
+
+	private static final boolean isInDirectory(final java.nio.file.Path file, final List<java.nio.file.Path> dirs) {
+		for (final java.nio.file.Path dir : dirs) {
+			if (file.startsWith(dir)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private final void closeFile(final InputStream input, final InputStream body) {
+		if (input == body) {
+			return;
+		}
+		try {
+			input.close();
+		} catch (IOException e) {
+			throw getError("Could not close the network file.", e, Response.Status.INTERNAL_SERVER_ERROR);
+		}
 	}
 
 	/**
@@ -803,7 +1560,7 @@ public class NetworkResource extends AbstractResource {
 	@POST
 	@Path("/{networkId}")
 	@Consumes(MediaType.APPLICATION_JSON)
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String createNetworkFromSelected(@PathParam("networkId") Long networkId, final InputStream is,
 			@Context HttpHeaders headers) {
 
@@ -845,8 +1602,7 @@ public class NetworkResource extends AbstractResource {
 
 
 	private final String loadNetwork(final String collectionName, final InputStream is) throws IOException {
-		final ObjectMapper objMapper = new ObjectMapper();
-		final JsonNode rootNode = objMapper.readValue(is, JsonNode.class);
+		final JsonNode rootNode = jackson.readTree(is);
 
 		final Map<String, Long[]> results = new HashMap<String, Long[]>();
 		// Input should be array of URLs.
@@ -891,13 +1647,10 @@ public class NetworkResource extends AbstractResource {
 	}
 
 	private final String generateNetworkLoadResults(final Map<String, Long[]> results) {
-		final JsonFactory factory = new JsonFactory();
-
 		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = null;
+		final SegmentedStringWriter writer = jackson.createStringWriter();
 		try {
-			generator = factory.createGenerator(stream);
+			final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
 
 			generator.writeStartArray();
 
@@ -916,8 +1669,7 @@ public class NetworkResource extends AbstractResource {
 			generator.writeEndArray();
 
 			generator.close();
-			result = stream.toString("UTF-8");
-			stream.close();
+			result = writer.getAndClear();
 		} catch (IOException e) {
 			throw getError("Could not create object count.", e, Response.Status.INTERNAL_SERVER_ERROR);
 		}
@@ -5,6 +5,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -23,17 +24,20 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
-import org.cytoscape.io.write.CyWriter;
 import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyIdentifiable;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyTable;
 import org.cytoscape.rest.internal.datamapper.VisualStyleMapper;
+import org.cytoscape.rest.internal.serializer.JsonContent;
 import org.cytoscape.rest.internal.serializer.VisualStyleSerializer;
 import org.cytoscape.view.model.CyNetworkView;
 import org.cytoscape.view.model.View;
@@ -43,8 +47,8 @@ import org.cytoscape.view.presentation.RenderingEngine;
 import org.cytoscape.view.presentation.RenderingEngineManager;
 import org.cytoscape.view.presentation.property.BasicVisualLexicon;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * REST API for Network View objects.
@@ -65,8 +69,10 @@ public class NetworkViewResource extends AbstractResource {
 	@NotNull
 	private RenderingEngineManager renderingEngineManager;
 	
+	@Context
+	private VisualStyleSerializer styleSerializer;
+
 	private final VisualStyleMapper styleMapper;
-	private final VisualStyleSerializer styleSerializer;
 
 	private VisualLexicon lexicon;
 	private Collection<VisualProperty<?>> nodeLexicon;
@@ -78,7 +84,6 @@ public class NetworkViewResource extends AbstractResource {
 	public NetworkViewResource() {
 		super();
 		this.styleMapper = new VisualStyleMapper();
-		this.styleSerializer = new VisualStyleSerializer();
 	}
 
 	private final void initLexicon() {
@@ -100,7 +105,7 @@ public class NetworkViewResource extends AbstractResource {
 	 */
 	@POST
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String createNetworkView(@PathParam("networkId") Long networkId) {
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyNetworkView view = networkViewFactory.createNetworkView(network);
@@ -122,7 +127,7 @@ public class NetworkViewResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/count")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getNetworkViewCount(@PathParam("networkId") Long networkId) {
 		return getNumberObjectString(JsonTags.COUNT, networkViewManager.getNetworkViews(getCyNetwork(networkId)).size());
 	}
@@ -140,7 +145,7 @@ public class NetworkViewResource extends AbstractResource {
 	 */
 	@DELETE
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public void deleteAllNetworkViews(@PathParam("networkId") Long networkId) {
 		try {
 			final Collection<CyNetworkView> views = this.networkViewManager.getNetworkViews(getCyNetwork(networkId));
@@ -168,13 +173,13 @@ public class NetworkViewResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/first")
-	@Produces(MediaType.APPLICATION_JSON)
-	public String getFirstNetworkView(@PathParam("networkId") Long networkId) {
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public StreamingOutput getFirstNetworkView(@PathParam("networkId") Long networkId) {
 		final Collection<CyNetworkView> views = this.getCyNetworkViews(networkId);
 		if (views.isEmpty()) {
 			throw new NotFoundException("Could not find view for the network: " + networkId);
 		}
-		return getNetworkViewString(views.iterator().next());
+		return getNetworkViewStream(views.iterator().next());
 	}
 
 	/**
@@ -186,7 +191,7 @@ public class NetworkViewResource extends AbstractResource {
 	 */
 	@DELETE
 	@Path("/first")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public void deleteFirstNetworkView(@PathParam("networkId") Long networkId) {
 		final Collection<CyNetworkView> views = this.getCyNetworkViews(networkId);
 		if (views.isEmpty()) {
@@ -211,17 +216,17 @@ public class NetworkViewResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{viewId}")
-	@Produces(MediaType.APPLICATION_JSON)
-	public String getNetworkView(@PathParam("networkId") Long networkId, @PathParam("viewId") Long viewId) {
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response getNetworkView(@PathParam("networkId") Long networkId, @PathParam("viewId") Long viewId) {
 		final Collection<CyNetworkView> views = this.getCyNetworkViews(networkId);
 		for (final CyNetworkView view : views) {
 			final Long vid = view.getSUID();
 			if (vid.equals(viewId)) {
-				return getNetworkViewString(view);
+				return Response.ok(getNetworkViewStream(view)).build();
 			}
 		}
 
-		return "{}";
+		return Response.ok("{}").build();
 	}
 
 	/**
@@ -235,7 +240,7 @@ public class NetworkViewResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public Collection<Long> getAllNetworkViews(@PathParam("networkId") Long networkId) {
 		final Collection<CyNetworkView> views = this.getCyNetworkViews(networkId);
 
@@ -248,18 +253,21 @@ public class NetworkViewResource extends AbstractResource {
 		return suids;
 	}
 
-	private final String getNetworkViewString(final CyNetworkView networkView) {
-		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		CyWriter writer = cytoscapeJsWriterFactory.createWriter(stream, networkView);
-		String jsonString = null;
-		try {
-			writer.run(null);
-			jsonString = stream.toString("UTF-8");
-			stream.close();
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
-		return jsonString;
+	/**
+	 * Same as the network model, views are written directly to the response
+	 * stream instead of building a String.
+	 * 
+	 * @param networkView view to be serialized
+	 * @return Streaming response body
+	 */
+	private final StreamingOutput getNetworkViewStream(final CyNetworkView networkView) {
+		return new StreamingOutput() {
+			@Override
+			public void write(final OutputStream os) throws IOException, WebApplicationException {
+				runWriter(cytoscapeJsWriterFactory.createWriter(os, networkView),
+						"Could not serialize network view into JSON.");
+			}
+		};
 	}
 
 	/**
@@ -393,11 +401,10 @@ public class NetworkViewResource extends AbstractResource {
 
 		final CyNetworkView networkView = getView(networkId, viewId);
 
-		final ObjectMapper objMapper = new ObjectMapper();
 
 		try {
 			// This should be an JSON array.
-			final JsonNode rootNode = objMapper.readValue(is, JsonNode.class);
+			final JsonNode rootNode = jackson.readTree(is);
 
 			for (JsonNode entry : rootNode) {
 				final Long objectId = entry.get(CyIdentifiable.SUID).asLong();
@@ -487,11 +494,10 @@ public class NetworkViewResource extends AbstractResource {
 			throw getError("Could not find view.", new IllegalArgumentException(), Response.Status.NOT_FOUND);
 		}
 		
-		final ObjectMapper objMapper = new ObjectMapper();
 
 		try {
 			// This should be an JSON array.
-			final JsonNode rootNode = objMapper.readValue(is, JsonNode.class);
+			final JsonNode rootNode = jackson.readTree(is);
 			styleMapper.updateView(view, rootNode, getLexicon());
 		} catch (Exception e) {
 			throw getError("Could not parse the input JSON for updating view because: " + e.getMessage(), e, Response.Status.INTERNAL_SERVER_ERROR);
@@ -503,7 +509,7 @@ public class NetworkViewResource extends AbstractResource {
 
 	@GET
 	@Path("/{viewId}/{objectType}/{objectId}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getView(@PathParam("networkId") Long networkId, @PathParam("viewId") Long viewId,
 			@PathParam("objectType") String objectType, @PathParam("objectId") Long objectId) {
 		final CyNetworkView networkView = getView(networkId, viewId);
@@ -536,12 +542,21 @@ public class NetworkViewResource extends AbstractResource {
 
 	@GET
 	@Path("/{viewId}/{objectType}")
-	@Produces(MediaType.APPLICATION_JSON)
-	public String getViews(@PathParam("networkId") Long networkId, @PathParam("viewId") Long viewId,
+	@Cacheable
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response getViews(@PathParam("networkId") Long networkId, @PathParam("viewId") Long viewId,
 			@PathParam("objectType") String objectType, @QueryParam("visualProperty") String visualProperty) {
 		
+		flushEvents();
+		final EntityTag tag = getEntityTag(versionTracker.getVersion(getView(networkId, viewId).getSUID()));
+		final Response notModified = getNotModified(tag);
+		if (notModified != null) {
+			return notModified;
+		}
+
 		if(visualProperty != null) {
-			return getSingleVisualPropertyOfViews(networkId, viewId, objectType, visualProperty);
+			return Response.ok(getSingleVisualPropertyOfViews(networkId, viewId, objectType, visualProperty))
+					.tag(tag).build();
 		}
 		
 		if(nodeLexicon == null) {
@@ -555,10 +570,10 @@ public class NetworkViewResource extends AbstractResource {
 			vps = edgeLexicon;
 		}
 		
-		return getViewForVPList(networkId, viewId, objectType, vps);
+		return Response.ok(getViewForVPList(networkId, viewId, objectType, vps)).tag(tag).build();
 	}
 
-	private final String getViewForVPList(final Long networkId, final Long viewId, final String objectType, Collection<VisualProperty<?>> vps) {
+	private final StreamingOutput getViewForVPList(final Long networkId, final Long viewId, final String objectType, final Collection<VisualProperty<?>> vps) {
 		final CyNetworkView networkView = getView(networkId, viewId);
 		Collection<? extends View<? extends CyIdentifiable>> graphObjects = null;
 		
@@ -571,15 +586,20 @@ public class NetworkViewResource extends AbstractResource {
 		if(graphObjects == null || graphObjects.isEmpty()) {
 			throw getError("Could not find views.", new IllegalArgumentException(), Response.Status.NOT_FOUND);
 		}
-		try {
-			return styleSerializer.serializeViews(graphObjects, vps);
-		} catch (IOException e) {
-			throw getError("Could not serialize the view object.", e, Response.Status.INTERNAL_SERVER_ERROR);
-		}
+
+		// Written directly in the negotiated format (JSON, Smile or CBOR).
+		final Collection<? extends View<? extends CyIdentifiable>> views = graphObjects;
+		return new JsonContent(jackson) {
+			@Override
+			public void writeTo(final JsonGenerator generator) throws IOException {
+				generator.useDefaultPrettyPrinter();
+				styleSerializer.writeViews(generator, views, vps);
+			}
+		};
 	}	
 
 	
-	private final String getSingleVisualPropertyOfViews(Long networkId, Long viewId,
+	private final StreamingOutput getSingleVisualPropertyOfViews(Long networkId, Long viewId,
 			String objectType, String visualPropertyName) {
 		if(nodeLexicon == null) {
 			initLexicon();
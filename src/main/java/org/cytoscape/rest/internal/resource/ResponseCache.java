@@ -0,0 +1,215 @@
+package org.cytoscape.rest.internal.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.cytoscape.rest.internal.PropertyUtil;
+
+/**
+ * Cache of serialized responses of {@link Cacheable} resource methods.
+ *
+ * Entries are keyed by path, query, Accept header and the negotiated media
+ * type, so each projection and format of a resource has its own entry. The
+ * resource method still runs for every request, but it only looks up the
+ * object and its entity tag; the entity itself is not serialized again if
+ * the cached entry has the same tag. Entity tags come from the
+ * {@link org.cytoscape.rest.internal.ModelVersionTracker}, so any model or
+ * Visual Style event invalidates the entries built from the old state, and
+ * they are replaced on the next request.
+ *
+ * The cache is bounded by the total size of the bodies. The least recently
+ * used entries are evicted first. Bodies are cached before compression, so
+ * one entry serves all Accept-Encoding values.
+ *
+ * Settings in cytoscape3.props:
+ * <ul>
+ * <li>rest.cache.maxSize: maximum total size in bytes. 0 disables the
+ * cache. Default is 64 MB.</li>
+ * <li>rest.cache.maxEntrySize: largest body to be cached, in bytes. Default
+ * is a quarter of the maximum size.</li>
+ * </ul>
+ *
+ */
+@Provider
+@Cacheable
+@Priority(Priorities.USER)
+public class ResponseCache implements ContainerResponseFilter, WriterInterceptor {
+
+	public static final String MAX_SIZE_PROP = "rest.cache.maxSize";
+	public static final String MAX_ENTRY_SIZE_PROP = "rest.cache.maxEntrySize";
+
+	private static final long DEF_MAX_SIZE = 64L * 1024 * 1024;
+
+	// Request properties set by the response filter.
+	private static final String KEY_PROPERTY = ResponseCache.class.getName() + ".key";
+	private static final String TAG_PROPERTY = ResponseCache.class.getName() + ".tag";
+
+	private final long maxSize;
+	private final long maxEntrySize;
+
+	// Access-ordered, so iteration starts from the least recently used entry.
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private long size;
+
+	/**
+	 * @param props Cytoscape properties
+	 */
+	public ResponseCache(final Properties props) {
+		this.maxSize = Math.max(0, PropertyUtil.getLong(props, MAX_SIZE_PROP, DEF_MAX_SIZE));
+		this.maxEntrySize = Math.min(maxSize,
+				Math.max(0, PropertyUtil.getLong(props, MAX_ENTRY_SIZE_PROP, maxSize / 4)));
+	}
+
+	@Override
+	public void filter(final ContainerRequestContext request, final ContainerResponseContext response)
+			throws IOException {
+		final EntityTag tag = response.getEntityTag();
+		final MediaType type = response.getMediaType();
+		if (maxEntrySize == 0 || response.getStatus() != Response.Status.OK.getStatusCode()
+				|| !response.hasEntity() || tag == null || type == null) {
+			return;
+		}
+
+		final String key = request.getUriInfo().getRequestUri().getRawPath() + "?"
+				+ request.getUriInfo().getRequestUri().getRawQuery() + " "
+				+ request.getHeaderString(HttpHeaders.ACCEPT) + " " + type;
+		request.setProperty(KEY_PROPERTY, key);
+		request.setProperty(TAG_PROPERTY, tag.toString());
+	}
+
+	@Override
+	public void aroundWriteTo(final WriterInterceptorContext context) throws IOException, WebApplicationException {
+		final Object key = context.getProperty(KEY_PROPERTY);
+		if (key == null) {
+			context.proceed();
+			return;
+		}
+
+		final String tag = context.getProperty(TAG_PROPERTY).toString();
+		final byte[] cached = get(key.toString(), tag);
+		if (cached != null) {
+			context.getOutputStream().write(cached);
+			return;
+		}
+
+		final RecordingOutputStream os = new RecordingOutputStream(context.getOutputStream());
+		context.setOutputStream(os);
+		context.proceed();
+		if (os.buffer != null) {
+			put(key.toString(), tag, os.buffer.toByteArray());
+		}
+	}
+
+	/**
+	 * @return Cached body, or null if there is no entry with the given tag.
+	 *         An entry with another tag is stale and is removed.
+	 */
+	synchronized byte[] get(final String key, final String tag) {
+		final Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (!entry.tag.equals(tag)) {
+			remove(key);
+			return null;
+		}
+		return entry.body;
+	}
+
+	synchronized void put(final String key, final String tag, final byte[] body) {
+		remove(key);
+		entries.put(key, new Entry(tag, body));
+		size += body.length;
+
+		final Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+		while (size > maxSize && eldest.hasNext()) {
+			size -= eldest.next().getValue().body.length;
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * @return Total size of the cached bodies in bytes
+	 */
+	synchronized long getSize() {
+		return size;
+	}
+
+	private final void remove(final String key) {
+		final Entry entry = entries.remove(key);
+		if (entry != null) {
+			size -= entry.body.length;
+		}
+	}
+
+	private static final class Entry {
+
+		private final String tag;
+		private final byte[] body;
+
+		Entry(final String tag, final byte[] body) {
+			this.tag = tag;
+			this.body = body;
+		}
+	}
+
+	/**
+	 * Passes the body through and keeps a copy until it is larger than the
+	 * maximum entry size.
+	 */
+	private final class RecordingOutputStream extends OutputStream {
+
+		private final OutputStream out;
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		RecordingOutputStream(final OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(final int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			out.write(b, off, len);
+			if (buffer != null) {
+				if (buffer.size() + (long) len > maxEntrySize) {
+					buffer = null;
+				} else {
+					buffer.write(b, off, len);
+				}
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+	}
+}
@@ -32,7 +32,7 @@ public class RootResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public Map<String, String[]> getVersions() {
 		return VERSION_MAP;
 	}
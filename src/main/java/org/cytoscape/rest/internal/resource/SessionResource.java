@@ -58,7 +58,7 @@ public class SessionResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/name")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getSessionName() {
 		String sessionName = sessionManager.getCurrentSessionFileName();
 		if(sessionName == null || sessionName.isEmpty()) {
@@ -78,7 +78,7 @@ public class SessionResource extends AbstractResource {
 	 */
 	@DELETE
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String deleteSession() {
 		
 		try {
@@ -108,7 +108,7 @@ public class SessionResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getSessionAsFile(@QueryParam("file") String file) {
 		File sessionFile = null;
 		try {
@@ -137,7 +137,7 @@ public class SessionResource extends AbstractResource {
 	 */
 	@POST
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String createSessionFromFile(@QueryParam("file") String file) {
 		File sessionFile = null;
 		try {
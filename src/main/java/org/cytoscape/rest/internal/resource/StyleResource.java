@@ -1,8 +1,8 @@
 package org.cytoscape.rest.internal.resource;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -20,17 +20,17 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
-import org.cytoscape.io.write.CyWriter;
 import org.cytoscape.io.write.VizmapWriterFactory;
 import org.cytoscape.rest.internal.CyActivator.WriterListener;
 import org.cytoscape.rest.internal.MappingFactoryManager;
 import org.cytoscape.rest.internal.datamapper.VisualStyleMapper;
-import org.cytoscape.rest.internal.serializer.VisualStyleModule;
+import org.cytoscape.rest.internal.serializer.JsonContent;
 import org.cytoscape.rest.internal.serializer.VisualStyleSerializer;
-import org.cytoscape.rest.internal.task.HeadlessTaskMonitor;
 import org.cytoscape.view.model.VisualLexicon;
 import org.cytoscape.view.model.VisualProperty;
 import org.cytoscape.view.vizmap.VisualMappingFunction;
@@ -39,15 +39,16 @@ import org.cytoscape.view.vizmap.VisualStyle;
 import org.cytoscape.view.vizmap.VisualStyleFactory;
 import org.cytoscape.work.TaskMonitor;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Singleton
 @Path("/v1/styles")
 public class StyleResource extends AbstractResource {
 
-	private final VisualStyleSerializer styleSerializer = new VisualStyleSerializer();
+	@Context
+	private VisualStyleSerializer styleSerializer;
 
 	@Context
 	private WriterListener writerListener;
@@ -61,17 +62,11 @@ public class StyleResource extends AbstractResource {
 	@Context
 	private MappingFactoryManager factoryManager;
 
-	private final ObjectMapper styleMapper;
 	private final VisualStyleMapper visualStyleMapper;
-	private final VisualStyleSerializer visualStyleSerializer;
 
 	public StyleResource() {
 		super();
-		this.styleMapper = new ObjectMapper();
-		this.styleMapper.registerModule(new VisualStyleModule());
-
 		this.visualStyleMapper = new VisualStyleMapper();
-		this.visualStyleSerializer = new VisualStyleSerializer();
 	}
 
 	
@@ -83,7 +78,7 @@ public class StyleResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getStyleNames() {
 		final Collection<VisualStyle> styles = vmm.getAllVisualStyles();
 		final List<String> styleNames = new ArrayList<String>();
@@ -106,7 +101,7 @@ public class StyleResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/count")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getStylCount() {
 		return getNumberObjectString(JsonTags.COUNT, vmm.getAllVisualStyles().size());
 	}
@@ -119,7 +114,7 @@ public class StyleResource extends AbstractResource {
 	 */
 	@DELETE
 	@Path("/{name}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public void deleteStyle(@PathParam("name") String name) {
 		final VisualStyle style = getStyleByName(name);
 		vmm.removeVisualStyle(style);
@@ -132,7 +127,7 @@ public class StyleResource extends AbstractResource {
 	 */
 	@DELETE
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public void deleteAllStyles() {
 		Set<VisualStyle> styles = vmm.getAllVisualStyles();
 		Set<VisualStyle> toBeDeleted = new HashSet<VisualStyle>();
@@ -157,7 +152,7 @@ public class StyleResource extends AbstractResource {
 	 */
 	@DELETE
 	@Path("/{name}/mappings/{vpName}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public void deleteMapping(@PathParam("name") String name, @PathParam("vpName") String vpName) {
 		final VisualStyle style = getStyleByName(name);
 		final VisualProperty<?> vp = getVisualProperty(vpName);
@@ -184,7 +179,7 @@ public class StyleResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{name}/defaults")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getDefaults(@PathParam("name") String name) {
 		return getVp(name, null);
 	}
@@ -202,7 +197,7 @@ public class StyleResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{name}/defaults/{vp}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getDefaultValue(@PathParam("name") String name,
 			@PathParam("vp") String vp) {
 		return getVp(name, vp);
@@ -220,12 +215,12 @@ public class StyleResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{name}/mappings")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getMappings(@PathParam("name") String name) {
 		final VisualStyle style = getStyleByName(name);
 		final Collection<VisualMappingFunction<?, ?>> mappings = style.getAllVisualMappingFunctions();
 		try {
-			return styleMapper.writeValueAsString(mappings);
+			return jackson.getStyleWriter().writeValueAsString(mappings);
 		} catch (JsonProcessingException e) {
 			throw getError("Could not serialize Mappings.", e, Response.Status.INTERNAL_SERVER_ERROR);
 		}
@@ -244,7 +239,7 @@ public class StyleResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{name}/mappings/{vp}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getMapping(@PathParam("name") String name, @PathParam("vp") String vp) {
 		final VisualStyle style = getStyleByName(name);
 		final VisualLexicon lexicon = getLexicon();
@@ -261,7 +256,7 @@ public class StyleResource extends AbstractResource {
 		}
 		final VisualMappingFunction<?, ?> mapping = style.getVisualMappingFunction(visualProp);
 		try {
-			return styleMapper.writeValueAsString(mapping);
+			return jackson.getStyleWriter().writeValueAsString(mapping);
 		} catch (JsonProcessingException e) {
 			throw getError("Could not serialize Mapping.", e, Response.Status.INTERNAL_SERVER_ERROR);
 		}
@@ -311,12 +306,11 @@ public class StyleResource extends AbstractResource {
 	 */
 	@PUT
 	@Path("/{name}/defaults")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public void updateDefaults(@PathParam("name") String name, InputStream is) {
 		final VisualStyle style = getStyleByName(name);
-		final ObjectMapper objMapper = new ObjectMapper();
 		try {
-			final JsonNode rootNode = objMapper.readValue(is, JsonNode.class);
+			final JsonNode rootNode = jackson.readTree(is);
 			updateVisualProperties(rootNode, style);
 		} catch (Exception e) {
 			throw getError("Could not update default values.", e, Response.Status.INTERNAL_SERVER_ERROR);
@@ -352,23 +346,28 @@ public class StyleResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{name}.json")
-	@Produces(MediaType.APPLICATION_JSON)
-	public String getStyle(@PathParam("name") String name) {
+	@Cacheable
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response getStyle(@PathParam("name") String name) {
 		final VisualStyle style = getStyleByName(name);
+		flushEvents();
+		final EntityTag tag = getEntityTag(versionTracker.getStyleVersion());
+		final Response notModified = getNotModified(tag);
+		if (notModified != null) {
+			return notModified;
+		}
 
+		// Written only if the response is not taken from the cache
 		final VizmapWriterFactory jsonVsFact = this.writerListener.getFactory();
-		final ByteArrayOutputStream os = new ByteArrayOutputStream();
 		final Set<VisualStyle> styleCollection = new HashSet<VisualStyle>();
 		styleCollection.add(style);
-		final CyWriter styleWriter = jsonVsFact.createWriter(os, styleCollection);
-		try {
-			styleWriter.run(new HeadlessTaskMonitor());
-			String jsonString = os.toString("UTF-8");
-			os.close();
-			return jsonString;
-		} catch (Exception e) {
-			throw getError("Could not get Visual Style in Cytoscape.js format.", e, Response.Status.INTERNAL_SERVER_ERROR);
-		}
+		return Response.ok(new StreamingOutput() {
+			@Override
+			public void write(final OutputStream os) throws IOException {
+				runWriter(jsonVsFact.createWriter(os, styleCollection),
+						"Could not get Visual Style in Cytoscape.js format.");
+			}
+		}).tag(tag).build();
 	}
 
 	/**
@@ -394,14 +393,23 @@ public class StyleResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{name}")
-	@Produces(MediaType.APPLICATION_JSON)
-	public String getStyleFull(@PathParam("name") String name) {
+	@Cacheable
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response getStyleFull(@PathParam("name") String name) {
 		final VisualStyle style = getStyleByName(name);
-		try {
-			return styleSerializer.serializeStyle(getLexicon().getAllVisualProperties(), style);
-		} catch (IOException e) {
-			throw getError("Could not get Visual Style JSON.", e, Response.Status.INTERNAL_SERVER_ERROR);
+		flushEvents();
+		final EntityTag tag = getEntityTag(versionTracker.getStyleVersion());
+		final Response notModified = getNotModified(tag);
+		if (notModified != null) {
+			return notModified;
 		}
+		final Collection<VisualProperty<?>> vps = getLexicon().getAllVisualProperties();
+		return Response.ok(new JsonContent(jackson) {
+			@Override
+			public void writeTo(final JsonGenerator generator) throws IOException {
+				styleSerializer.writeStyle(generator, vps, style);
+			}
+		}).tag(tag).build();
 	}
 
 
@@ -413,12 +421,11 @@ public class StyleResource extends AbstractResource {
 	@POST
 	@Path("/")
 	@Consumes(MediaType.APPLICATION_JSON)
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String createStyle(InputStream is) {
-		final ObjectMapper objMapper = new ObjectMapper();
 		JsonNode rootNode;
 		try {
-			rootNode = objMapper.readValue(is, JsonNode.class);
+			rootNode = jackson.readTree(is);
 			VisualStyle style = this.visualStyleMapper.buildVisualStyle(factoryManager, vsFactory, getLexicon(),
 					rootNode);
 			vmm.addVisualStyle(style);
@@ -443,13 +450,12 @@ public class StyleResource extends AbstractResource {
 	@POST
 	@Path("/{name}/mappings")
 	@Consumes(MediaType.APPLICATION_JSON)
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public void addMappings(@PathParam("name") String name,InputStream is) {
 		final VisualStyle style = getStyleByName(name);
-		final ObjectMapper objMapper = new ObjectMapper();
 		JsonNode rootNode;
 		try {
-			rootNode = objMapper.readValue(is, JsonNode.class);
+			rootNode = jackson.readTree(is);
 			this.visualStyleMapper.buildMappings(style, factoryManager, getLexicon(),rootNode);
 		} catch (Exception e) {
 			throw getError("Could not create new Mapping.", e, Response.Status.INTERNAL_SERVER_ERROR);
@@ -467,13 +473,12 @@ public class StyleResource extends AbstractResource {
 	@PUT
 	@Path("/{name}")
 	@Consumes(MediaType.APPLICATION_JSON)
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public void updateStyleName(@PathParam("name") String name, InputStream is) {
 		final VisualStyle style = getStyleByName(name);
-		final ObjectMapper objMapper = new ObjectMapper();
 		JsonNode rootNode;
 		try {
-			rootNode = objMapper.readValue(is, JsonNode.class);
+			rootNode = jackson.readTree(is);
 			this.visualStyleMapper.updateStyleName(style, getLexicon(), rootNode);
 		} catch (Exception e) {
 			throw getError("Could not update Visual Style title.", e, Response.Status.INTERNAL_SERVER_ERROR);
@@ -507,13 +512,13 @@ public class StyleResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{name}/dependencies")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getAllDependencies(@PathParam("name") String name) {
 		final VisualStyle style = getStyleByName(name);
 		
 		final Set<VisualPropertyDependency<?>> dependencies = style.getAllVisualPropertyDependencies();
 		try {
-			return visualStyleSerializer.serializeDependecies(dependencies);
+			return styleSerializer.serializeDependecies(dependencies);
 		} catch (IOException e) {
 			throw getError("Could not get Visual Property denendencies.", e, Response.Status.INTERNAL_SERVER_ERROR);
 		}
@@ -540,14 +545,13 @@ public class StyleResource extends AbstractResource {
 	@PUT
 	@Path("/{name}/dependencies")
 	@Consumes(MediaType.APPLICATION_JSON)
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public void updateDependencies(@PathParam("name") String name, InputStream is) {
 		final VisualStyle style = getStyleByName(name);
 		
-		final ObjectMapper objMapper = new ObjectMapper();
 		JsonNode rootNode;
 		try {
-			rootNode = objMapper.readValue(is, JsonNode.class);
+			rootNode = jackson.readTree(is);
 			this.visualStyleMapper.updateDependencies(style, rootNode);
 		} catch (Exception e) {
 			throw getError("Could not update Visual Style title.", e, Response.Status.INTERNAL_SERVER_ERROR);
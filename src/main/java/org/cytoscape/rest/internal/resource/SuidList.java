@@ -0,0 +1,32 @@
+package org.cytoscape.rest.internal.resource;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of SUIDs stored as primitive longs.
+ *
+ * Bulk operations keep the SUIDs of the objects they have created here
+ * instead of a list of objects, so the results of a large request take 8
+ * bytes per SUID.
+ *
+ */
+final class SuidList {
+
+	private long[] suids = new long[1024];
+	private int size;
+
+	void add(final long suid) {
+		if (size == suids.length) {
+			suids = Arrays.copyOf(suids, size * 2);
+		}
+		suids[size++] = suid;
+	}
+
+	long get(final int index) {
+		return suids[index];
+	}
+
+	int size() {
+		return size;
+	}
+}
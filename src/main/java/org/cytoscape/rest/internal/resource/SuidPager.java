@@ -0,0 +1,124 @@
+package org.cytoscape.rest.internal.resource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.cytoscape.group.CyGroup;
+import org.cytoscape.model.CyIdentifiable;
+import org.cytoscape.model.CyRow;
+
+/**
+ * Splits a collection of objects into pages ordered by SUID.
+ *
+ * The cursor is the SUID of the last object of the previous page. Since
+ * SUIDs never change, pages are stable even if objects are added or removed
+ * between requests: nothing is returned twice and no surviving object is
+ * skipped.
+ *
+ * @param <T> type of the objects
+ */
+abstract class SuidPager<T> {
+
+	static final SuidPager<CyRow> ROWS = new SuidPager<CyRow>() {
+		@Override
+		Long getSUID(final CyRow row) {
+			return row.get(CyIdentifiable.SUID, Long.class);
+		}
+	};
+
+	static final SuidPager<Long> SUIDS = new SuidPager<Long>() {
+		@Override
+		Long getSUID(final Long suid) {
+			return suid;
+		}
+	};
+
+	static final SuidPager<CyGroup> GROUPS = new SuidPager<CyGroup>() {
+		@Override
+		Long getSUID(final CyGroup group) {
+			return group.getGroupNode().getSUID();
+		}
+	};
+
+	abstract Long getSUID(final T item);
+
+	/**
+	 * Select objects for a page.
+	 *
+	 * Only the requested number of objects is kept while scanning, so the
+	 * cost is O(n log limit) and the full collection is never sorted.
+	 *
+	 * @param items all objects
+	 * @param cursor SUID of the last object in the previous page. Can be
+	 *            null for the first page.
+	 * @param limit maximum number of objects in the page. If null, all
+	 *            objects after the cursor are returned.
+	 *
+	 * @return Objects in the page
+	 */
+	final Page<T> getPage(final Collection<T> items, final Long cursor, final Integer limit) {
+		if (cursor == null && limit == null) {
+			// Not paged: keep the original order.
+			return new Page<T>(items, null);
+		}
+
+		final int size = limit == null ? items.size() : limit;
+		final Comparator<T> descending = new Comparator<T>() {
+			@Override
+			public int compare(final T o1, final T o2) {
+				return getSUID(o2).compareTo(getSUID(o1));
+			}
+		};
+		final PriorityQueue<T> selected = new PriorityQueue<T>(Math.max(1, Math.min(size, items.size()) + 1),
+				descending);
+
+		boolean hasMore = false;
+		for (final T item : items) {
+			final Long suid = getSUID(item);
+			if (suid == null || (cursor != null && suid <= cursor)) {
+				continue;
+			}
+			selected.add(item);
+			if (selected.size() > size) {
+				// Drop the largest one. There is at least one more page.
+				selected.poll();
+				hasMore = true;
+			}
+		}
+
+		final List<T> page = new ArrayList<T>(selected);
+		Collections.sort(page, Collections.reverseOrder(descending));
+
+		final Long next = hasMore && !page.isEmpty() ? getSUID(page.get(page.size() - 1)) : null;
+		return new Page<T>(page, next);
+	}
+
+	static final class Page<T> {
+
+		private final Collection<T> items;
+		private final Long next;
+
+		private Page(final Collection<T> items, final Long next) {
+			this.items = items;
+			this.next = next;
+		}
+
+		/**
+		 * @return Objects in this page
+		 */
+		Collection<T> getItems() {
+			return items;
+		}
+
+		/**
+		 * @return Cursor for the next page, or null if this is the last one.
+		 */
+		Long getNext() {
+			return next;
+		}
+	}
+}
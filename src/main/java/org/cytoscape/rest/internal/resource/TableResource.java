@@ -2,12 +2,17 @@ package org.cytoscape.rest.internal.resource;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
 import javax.inject.Singleton;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
@@ -15,22 +20,31 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
 
 import org.cytoscape.model.CyColumn;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyRow;
 import org.cytoscape.model.CyTable;
 import org.cytoscape.rest.internal.datamapper.TableMapper;
-import org.cytoscape.rest.internal.serializer.CyTableSerializer;
-import org.cytoscape.rest.internal.serializer.TableModule;
+import org.cytoscape.rest.internal.serializer.ColumnarTableWriter;
+import org.cytoscape.rest.internal.serializer.DelimitedTableWriter;
+import org.cytoscape.rest.internal.serializer.JsonContent;
+import org.cytoscape.rest.internal.serializer.TableSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * REST API for CyTable objects. This is for assigned table only.
@@ -42,6 +56,16 @@ public class TableResource extends AbstractResource {
 
 	private final static Logger logger = LoggerFactory.getLogger(TableResource.class);
 
+	private static final String TEXT_CSV = "text/csv";
+	private static final String TEXT_TSV = "text/tab-separated-values";
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// Fields of the update report
+	private static final String MATCHED = "matched";
+	private static final String UNMATCHED = "unmatched";
+	private static final String SKIPPED = "skipped";
+	private static final String INVALID_VALUES = "invalidValues";
+
 	private static enum TableType {
 		DEFAULT_NODE("defaultnode"), DEFAULT_EDGE("defaultedge"), DEFAULT_NETWORK("defaultnetwork");
 
@@ -57,15 +81,10 @@ public class TableResource extends AbstractResource {
 	}
 
 	private final TableMapper tableMapper;
-	private final ObjectMapper tableObjectMapper;
-	private final CyTableSerializer tableSerializer;
 
 	public TableResource() {
 		super();
 		this.tableMapper = new TableMapper();
-		this.tableObjectMapper = new ObjectMapper();
-		this.tableObjectMapper.registerModule(new TableModule());
-		this.tableSerializer = new CyTableSerializer();
 	}
 
 	/**
@@ -97,9 +116,8 @@ public class TableResource extends AbstractResource {
 			final InputStream is) {
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyTable table = getTableByType(network, tableType);
-		final ObjectMapper objMapper = new ObjectMapper();
 		try {
-			final JsonNode rootNode = objMapper.readValue(is, JsonNode.class);
+			final JsonNode rootNode = jackson.readTree(is);
 			if(rootNode.isArray()) {
 				for(JsonNode node: rootNode) {
 					tableMapper.createNewColumn(node, table);
@@ -166,9 +184,8 @@ public class TableResource extends AbstractResource {
 			final InputStream is) {
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyTable table = getTableByType(network, tableType);
-		final ObjectMapper objMapper = new ObjectMapper();
 		try {
-			final JsonNode rootNode = objMapper.readValue(is, JsonNode.class);
+			final JsonNode rootNode = jackson.readTree(is);
 			tableMapper.updateColumnName(rootNode, table);
 		} catch (Exception e) {
 			throw getError("Could not parse the input JSON for updating column name.", e, Response.Status.INTERNAL_SERVER_ERROR);
@@ -195,13 +212,14 @@ public class TableResource extends AbstractResource {
 			@PathParam("columnName") String columnName, final InputStream is) {
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyTable table = getTableByType(network, tableType);
-		final ObjectMapper objMapper = new ObjectMapper();
-		try {
-			final JsonNode rootNode = objMapper.readValue(is, JsonNode.class);
-			tableMapper.updateColumnValues(rootNode, table, columnName);
+		try (final JsonParser parser = jackson.getJsonFactory().createParser(is)) {
+			tableMapper.updateColumnValues(parser, table, columnName);
 		} catch (IOException e) {
 			throw getError("Could not parse the input JSON for updating column values.", e, Response.Status.INTERNAL_SERVER_ERROR);
+		} finally {
+			flushEvents();
 		}
+		updateViews(network);
 	}
 
 
@@ -211,29 +229,156 @@ public class TableResource extends AbstractResource {
 	 * 
 	 * If not specified, SUID will be used for mapping.
 	 * 
+	 * The body is read as a stream and applied in batches. To avoid
+	 * reading the whole "data" array first, give "key" and "dataKey" before
+	 * "data" in the body, or as query parameters.
+	 * 
+	 * With report=true, the response has the numbers of records which
+	 * matched a row ("matched"), which had a key no row has ("unmatched"),
+	 * which had no valid key ("skipped"), and of values which could not be
+	 * set ("invalidValues").
+	 * 
 	 * @summary Update table data
 	 * 
 	 * @param networkId
 	 *            Network SUID
 	 * @param tableType
 	 *            Table type (defaultnode, defaultedge or defaultnetwork)
+	 * @param key
+	 *            (Optional) Key column of the table. Overrides "key" in the
+	 *            body.
+	 * @param dataKey
+	 *            (Optional) Key field of the records. Overrides "dataKey"
+	 *            in the body.
+	 * @param report
+	 *            (Optional) If true, return the numbers of updated and
+	 *            ignored records. Default is false.
 	 */
 	@PUT
 	@Path("/{tableType}")
 	@Consumes(MediaType.APPLICATION_JSON)
-	public void updateTable(@PathParam("networkId") Long networkId, @PathParam("tableType") String tableType,
-			final InputStream is) {
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response updateTable(@PathParam("networkId") Long networkId, @PathParam("tableType") String tableType,
+			@QueryParam("key") String key, @QueryParam("dataKey") String dataKey,
+			@DefaultValue("false") @QueryParam("report") boolean report, final InputStream is) {
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyTable table = getTableByType(network, tableType);
-		final ObjectMapper objMapper = new ObjectMapper();
 
-		try {
-			// This should be an JSON array.
-			final JsonNode rootNode = objMapper.readValue(is, JsonNode.class);
-			tableMapper.updateTableValues(rootNode, table);
+		final TableMapper.UpdateReport result;
+		try (final JsonParser parser = jackson.getJsonFactory().createParser(is)) {
+			result = tableMapper.updateTableValues(parser, table, key, dataKey);
 		} catch (Exception e) {
 			throw getError("Could not parse the input JSON for updating table because: " + e.getMessage(), e, Response.Status.INTERNAL_SERVER_ERROR);
+		} finally {
+			flushEvents();
+		}
+		updateViews(network);
+
+		return getUpdateResponse(result, report);
+	}
+
+	/**
+	 * Same as the JSON version, with CSV records. The first line is the
+	 * header with the column names.
+	 * 
+	 * Columns which do not exist are created, and their types are inferred
+	 * from the first 1000 records. Empty cells are not set. Elements of List
+	 * cells are separated by "|", as in the export, and "\|" and "\\" in
+	 * an element stand for "|" and "\".
+	 * 
+	 * @summary Update table data from CSV
+	 * 
+	 * @param networkId
+	 *            Network SUID
+	 * @param tableType
+	 *            Table type (defaultnode, defaultedge or defaultnetwork)
+	 * @param key
+	 *            (Optional) Key column of the table. Default is SUID.
+	 * @param dataKey
+	 *            (Optional) Key field in the header. Default is the key
+	 *            column name.
+	 * @param report
+	 *            (Optional) If true, return the numbers of updated and
+	 *            ignored records. Default is false.
+	 */
+	@PUT
+	@Path("/{tableType}")
+	@Consumes(TEXT_CSV)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response updateTableFromCsv(@PathParam("networkId") Long networkId,
+			@PathParam("tableType") String tableType, @QueryParam("key") String key,
+			@QueryParam("dataKey") String dataKey, @DefaultValue("false") @QueryParam("report") boolean report,
+			final InputStream is) {
+		return updateTableFromText(networkId, tableType, key, dataKey, report, is, ',');
+	}
+
+	/**
+	 * Same as the CSV version, with tab separated records.
+	 * 
+	 * @summary Update table data from TSV
+	 * 
+	 * @param networkId
+	 *            Network SUID
+	 * @param tableType
+	 *            Table type (defaultnode, defaultedge or defaultnetwork)
+	 * @param key
+	 *            (Optional) Key column of the table. Default is SUID.
+	 * @param dataKey
+	 *            (Optional) Key field in the header. Default is the key
+	 *            column name.
+	 * @param report
+	 *            (Optional) If true, return the numbers of updated and
+	 *            ignored records. Default is false.
+	 */
+	@PUT
+	@Path("/{tableType}")
+	@Consumes(TEXT_TSV)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response updateTableFromTsv(@PathParam("networkId") Long networkId,
+			@PathParam("tableType") String tableType, @QueryParam("key") String key,
+			@QueryParam("dataKey") String dataKey, @DefaultValue("false") @QueryParam("report") boolean report,
+			final InputStream is) {
+		return updateTableFromText(networkId, tableType, key, dataKey, report, is, '\t');
+	}
+
+	private final Response updateTableFromText(final Long networkId, final String tableType, final String key,
+			final String dataKey, final boolean report, final InputStream is, final char separator) {
+		final CyNetwork network = getCyNetwork(networkId);
+		final CyTable table = getTableByType(network, tableType);
+
+		final TableMapper.UpdateReport result;
+		try (final Reader reader = new InputStreamReader(is, UTF8)) {
+			result = tableMapper.updateTableValues(reader, separator, table, key, dataKey);
+		} catch (WebApplicationException e) {
+			throw e;
+		} catch (IOException | IllegalArgumentException e) {
+			throw getError("Could not parse the input for updating table because: " + e.getMessage(), e,
+					Response.Status.BAD_REQUEST);
+		} catch (Exception e) {
+			throw getError("Could not update table: " + e.getMessage(), e, Response.Status.INTERNAL_SERVER_ERROR);
+		} finally {
+			flushEvents();
+		}
+		updateViews(network);
+		return getUpdateResponse(result, report);
+	}
+
+	private final Response getUpdateResponse(final TableMapper.UpdateReport result, final boolean report) {
+		if (!report) {
+			return Response.noContent().build();
 		}
+		final JsonContent content = new JsonContent(jackson) {
+			@Override
+			public void writeTo(final JsonGenerator generator) throws IOException {
+				generator.writeStartObject();
+				generator.writeNumberField(MATCHED, result.getMatched());
+				generator.writeNumberField(UNMATCHED, result.getUnmatched());
+				generator.writeNumberField(SKIPPED, result.getSkipped());
+				generator.writeNumberField(INVALID_VALUES, result.getInvalidValues());
+				generator.writeEndObject();
+			}
+		};
+		return Response.ok(content).build();
 	}
 
 	/**
@@ -250,7 +395,7 @@ public class TableResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{tableType}/rows/{primaryKey}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getRow(@PathParam("networkId") Long networkId, @PathParam("tableType") String tableType,
 			@PathParam("primaryKey") Long primaryKey) {
 		final CyNetwork network = getCyNetwork(networkId);
@@ -333,21 +478,45 @@ public class TableResource extends AbstractResource {
 	 * @param networkId Network SUID
 	 * @param tableType
 	 *            Table type (defaultnode, defaultedge or defaultnetwork)
+	 * @param limit
+	 *            (Optional) Maximum number of rows to be returned. If given,
+	 *            rows are sorted by SUID.
+	 * @param cursor
+	 *            (Optional) Return rows after this SUID. If there are more
+	 *            rows, the URL of the next page is returned in the Link
+	 *            header.
+	 * @param columns
+	 *            (Optional) Comma separated list of column names to be
+	 *            returned. All columns are returned by default.
 	 *
 	 * @return All rows in the table
 	 * 
 	 */
 	@GET
 	@Path("/{tableType}/rows")
-	@Produces(MediaType.APPLICATION_JSON)
-	public String getRows(@PathParam("networkId") Long networkId, @PathParam("tableType") String tableType) {
+	@Cacheable
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response getRows(@PathParam("networkId") Long networkId, @PathParam("tableType") String tableType,
+			@QueryParam(LIMIT) Integer limit, @QueryParam(CURSOR) Long cursor, @QueryParam(COLUMNS) String columns,
+			@Context UriInfo uriInfo) {
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyTable table = getTableByType(network, tableType);
-		try {
-			return this.serializer.serializeAllRows(table.getAllRows());
-		} catch (IOException e) {
-			throw getError("Could not serialize rows.", e, Response.Status.INTERNAL_SERVER_ERROR);
+		flushEvents();
+		final EntityTag tag = getEntityTag(versionTracker.getVersion(table.getSUID()));
+		final Response notModified = getNotModified(tag);
+		if (notModified != null) {
+			return notModified;
 		}
+
+		final Collection<CyColumn> projection = getProjection(table, columns);
+		final SuidPager.Page<CyRow> page = getPage(SuidPager.ROWS, table.getAllRows(), cursor, limit);
+		final JsonContent rows = new JsonContent(jackson) {
+			@Override
+			public void writeTo(final JsonGenerator generator) throws IOException {
+				serializer.writeAllRows(generator, page.getItems(), projection);
+			}
+		};
+		return getPageResponse(rows, page, uriInfo, tag);
 	}
 
 	
@@ -364,7 +533,7 @@ public class TableResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{tableType}/columns")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getColumnNames(@PathParam("networkId") Long networkId, @PathParam("tableType") String tableType) {
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyTable table = getTableByType(network, tableType);
@@ -390,7 +559,7 @@ public class TableResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/{tableType}/columns/{columnName}")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getColumnValues(@PathParam("networkId") Long networkId, @PathParam("tableType") String tableType,
 			@PathParam("columnName") String columnName) {
 		final CyNetwork network = getCyNetwork(networkId);
@@ -415,12 +584,12 @@ public class TableResource extends AbstractResource {
 	 */
 	@GET
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
 	public String getTables(@PathParam("networkId") Long networkId) {
 		final Set<CyTable> tables = this.tableManager.getAllTables(true);
 
 		try {
-			return tableObjectMapper.writeValueAsString(tables);
+			return jackson.getTableWriter().writeValueAsString(tables);
 		} catch (IOException e) {
 			throw getError("Could not serialize tables.", e, Response.Status.INTERNAL_SERVER_ERROR);
 		}
@@ -447,32 +616,54 @@ public class TableResource extends AbstractResource {
 	 * 
 	 * @param networkId Network SUID
 	 * @param tableType Table type (defaultnode, defaultedge or defaultnetwork)
+	 * @param columns (Optional) Comma separated list of column names to be
+	 *            returned for each row. All columns are returned by default.
 	 * 
 	 * @return The Table in JSON
 	 * 
 	 */
 	@GET
 	@Path("/{tableType}")
-	@Produces(MediaType.APPLICATION_JSON)
-	public String getTable(@PathParam("networkId") Long networkId, @PathParam("tableType") String tableType) {
+	@Cacheable
+	@Produces({ MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR })
+	public Response getTable(@PathParam("networkId") Long networkId,
+			@PathParam("tableType") String tableType, @QueryParam(COLUMNS) String columns) {
 
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyTable table = getTableByType(network, tableType);
-
-		try {
-			return this.tableObjectMapper.writeValueAsString(table);
-		} catch (JsonProcessingException e) {
-			throw getError("Could not serialize table.", e, Response.Status.INTERNAL_SERVER_ERROR);
+		flushEvents();
+		final EntityTag tag = getEntityTag(versionTracker.getVersion(table.getSUID()));
+		final Response notModified = getNotModified(tag);
+		if (notModified != null) {
+			return notModified;
 		}
+
+		final Collection<CyColumn> projection = getProjection(table, columns);
+
+		final ObjectWriter writer = projection == null ? jackson.getTableWriter() : jackson.getTableWriter()
+				.withAttribute(TableSerializer.COLUMNS, projection);
+		final JsonContent content = new JsonContent(jackson) {
+			@Override
+			public void writeTo(final JsonGenerator generator) throws IOException {
+				writer.writeValue(generator, table);
+			}
+		};
+		return Response.ok(content).tag(tag).build();
 	}
 
 	/**
+	 * The table is streamed to the client row by row. Cells are quoted as
+	 * described in RFC 4180.
+	 * 
 	 * @summary Get a table as CSV
 	 * 
 	 * @param networkId
 	 *            Network SUID
 	 * @param tableType
 	 *            Table type (defaultnode, defaultedge or defaultnetwork)
+	 * @param columns
+	 *            (Optional) Comma separated list of column names to be
+	 *            exported. All columns are exported by default.
 	 * 
 	 * @return Table in CSV format
 	 * 
@@ -480,12 +671,14 @@ public class TableResource extends AbstractResource {
 	@GET
 	@Path("/{tableType}.csv")
 	@Produces(MediaType.TEXT_PLAIN)
-	public String getTableAsCsv(@PathParam("networkId") Long networkId, @PathParam("tableType") String tableType) {
-		return getTableString(networkId, tableType, ",");
+	public StreamingOutput getTableAsCsv(@PathParam("networkId") Long networkId, @PathParam("tableType") String tableType,
+			@QueryParam(COLUMNS) String columns) {
+		return getTableStream(networkId, tableType, columns, ',');
 	}
 	
 	
 	/**
+	 * The table is streamed to the client row by row.
 	 * 
 	 * @summary Get a table as TSV (tab delimited text)
 	 * 
@@ -493,6 +686,9 @@ public class TableResource extends AbstractResource {
 	 *            Network SUID
 	 * @param tableType
 	 *            Table type (defaultnode, defaultedge or defaultnetwork)
+	 * @param columns
+	 *            (Optional) Comma separated list of column names to be
+	 *            exported. All columns are exported by default.
 	 * 
 	 * @return Table in TSV format
 	 * 
@@ -500,8 +696,49 @@ public class TableResource extends AbstractResource {
 	@GET
 	@Path("/{tableType}.tsv")
 	@Produces(MediaType.TEXT_PLAIN)
-	public String getTableAsTsv(@PathParam("networkId") Long networkId, @PathParam("tableType") String tableType) {
-		return getTableString(networkId, tableType, "\t");
+	public StreamingOutput getTableAsTsv(@PathParam("networkId") Long networkId, @PathParam("tableType") String tableType,
+			@QueryParam(COLUMNS) String columns) {
+		return getTableStream(networkId, tableType, columns, '\t');
+	}
+	
+	
+	/**
+	 * The table is written column by column in batches of rows. Numbers are
+	 * little-endian arrays and strings are offsets and UTF-8 data, with
+	 * validity bitmaps for null cells, so clients can load each column
+	 * without parsing. See {@link ColumnarTableWriter} for the layout.
+	 * 
+	 * @summary Get a table in binary columnar format
+	 * 
+	 * @param networkId
+	 *            Network SUID
+	 * @param tableType
+	 *            Table type (defaultnode, defaultedge or defaultnetwork)
+	 * @param columns
+	 *            (Optional) Comma separated list of column names to be
+	 *            exported. All columns are exported by default.
+	 * @param batchSize
+	 *            (Optional) Maximum number of rows in a batch. Default is
+	 *            65536.
+	 * 
+	 * @return Table in columnar format
+	 * 
+	 */
+	@GET
+	@Path("/{tableType}.columnar")
+	@Produces(ColumnarTableWriter.MEDIA_TYPE)
+	public StreamingOutput getTableAsColumnar(@PathParam("networkId") Long networkId,
+			@PathParam("tableType") String tableType, @QueryParam(COLUMNS) String columns,
+			@QueryParam("batchSize") Integer batchSize) {
+		if (batchSize != null && batchSize <= 0) {
+			throw getError("Batch size must be a positive number.", new IllegalArgumentException(),
+					Response.Status.BAD_REQUEST);
+		}
+		final CyNetwork network = getCyNetwork(networkId);
+		final CyTable table = getTableByType(network, tableType);
+		final Collection<CyColumn> selected = getColumns(table, columns);
+		return new ColumnarTableWriter(table, selected,
+				batchSize == null ? ColumnarTableWriter.DEFAULT_BATCH_SIZE : batchSize);
 	}
 	
 	
@@ -510,18 +747,16 @@ public class TableResource extends AbstractResource {
 	 * 
 	 * @param networkId
 	 * @param tableType
+	 * @param columns
 	 * @param separator
 	 * @return
 	 */
-	private final String getTableString(final Long networkId, final String tableType, final String separator) {
+	private final StreamingOutput getTableStream(final Long networkId, final String tableType, final String columns,
+			final char separator) {
 
 		final CyNetwork network = getCyNetwork(networkId);
 		final CyTable table = getTableByType(network, tableType);
-		try {
-			final String result = tableSerializer.toCSV(table, separator);
-			return result;
-		} catch (Exception e) {
-			throw getError("Could not serialize table into CSV.", e, Response.Status.INTERNAL_SERVER_ERROR);
-		}
+		final Collection<CyColumn> selected = getColumns(table, columns);
+		return new DelimitedTableWriter(table, selected, separator);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,177 @@
+package org.cytoscape.rest.internal.serializer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Writes response entities in binary JSON encodings (Smile and CBOR).
+ *
+ * Resources produce text JSON by default. When the client prefers one of
+ * the binary types in the Accept header, the same entity is written here:
+ * <ul>
+ * <li>{@link JsonContent} is written directly with a binary generator.</li>
+ * <li>JSON Strings are transcoded token by token.</li>
+ * <li>Other {@link StreamingOutput}s write text JSON on a second thread,
+ * which is transcoded while it is written, so the body is not buffered.</li>
+ * <li>Any other object is written with the shared ObjectMapper.</li>
+ * </ul>
+ *
+ */
+@Provider
+@Produces({ BinaryJsonProvider.APPLICATION_SMILE, BinaryJsonProvider.APPLICATION_CBOR })
+public class BinaryJsonProvider implements MessageBodyWriter<Object> {
+
+	public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+	public static final String APPLICATION_CBOR = "application/cbor";
+
+	public static final MediaType SMILE_TYPE = MediaType.valueOf(APPLICATION_SMILE);
+	public static final MediaType CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+
+	// Text JSON in transit between the two threads
+	private static final int PIPE_SIZE = 64 * 1024;
+
+	@Context
+	private JacksonProvider jackson;
+
+	@Override
+	public boolean isWriteable(final Class<?> type, final Type genericType, final Annotation[] annotations,
+			final MediaType mediaType) {
+		return mediaType.isCompatible(SMILE_TYPE) || mediaType.isCompatible(CBOR_TYPE);
+	}
+
+	@Override
+	public long getSize(final Object entity, final Class<?> type, final Type genericType,
+			final Annotation[] annotations, final MediaType mediaType) {
+		return -1;
+	}
+
+	@Override
+	public void writeTo(final Object entity, final Class<?> type, final Type genericType,
+			final Annotation[] annotations, final MediaType mediaType,
+			final MultivaluedMap<String, Object> httpHeaders, final OutputStream entityStream) throws IOException,
+			WebApplicationException {
+		final JsonGenerator generator = jackson.createGenerator(entityStream, mediaType);
+
+		if (entity instanceof JsonContent) {
+			((JsonContent) entity).writeTo(generator);
+		} else if (entity instanceof String) {
+			transcode(jackson.getJsonFactory().createParser((String) entity), generator);
+		} else if (entity instanceof StreamingOutput) {
+			transcode((StreamingOutput) entity, generator);
+		} else {
+			jackson.getObjectMapper().writeValue(generator, entity);
+		}
+		generator.close();
+	}
+
+	/**
+	 * Run the text JSON writer on a second thread, and transcode its output
+	 * on this one, so the response is still written by the server thread.
+	 */
+	private final void transcode(final StreamingOutput output, final JsonGenerator generator) throws IOException {
+		final PipedInputStream in = new PipedInputStream(PIPE_SIZE);
+		final TextWriter writer = new TextWriter(output, new PipedOutputStream(in));
+		final Thread thread = new Thread(writer, "cyREST JSON transcoder");
+		thread.setDaemon(true);
+		thread.start();
+
+		IOException parseError = null;
+		boolean writerFailed = false;
+		try {
+			transcode(jackson.getJsonFactory().createParser(in), generator);
+		} catch (IOException e) {
+			parseError = e;
+			// The writer has failed first if the document is incomplete.
+			writerFailed = writer.hasFailed();
+		} finally {
+			// Stops the writer if the client has gone away.
+			in.close();
+		}
+
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while writing JSON.");
+		}
+		if (parseError == null || writerFailed) {
+			writer.rethrow();
+		}
+		if (parseError != null) {
+			throw parseError;
+		}
+	}
+
+	private final void transcode(final JsonParser parser, final JsonGenerator generator) throws IOException {
+		try {
+			while (parser.nextToken() != null) {
+				generator.copyCurrentEvent(parser);
+			}
+		} finally {
+			parser.close();
+		}
+	}
+
+	/**
+	 * Writes the text JSON into the pipe, and keeps its error for the
+	 * server thread.
+	 */
+	private static final class TextWriter implements Runnable {
+
+		private final StreamingOutput output;
+		private final PipedOutputStream out;
+		private volatile Exception error;
+
+		TextWriter(final StreamingOutput output, final PipedOutputStream out) {
+			this.output = output;
+			this.out = out;
+		}
+
+		@Override
+		public void run() {
+			try {
+				output.write(out);
+			} catch (Exception e) {
+				error = e;
+			} finally {
+				try {
+					out.close();
+				} catch (IOException e) {
+					// The reader has already closed the pipe.
+				}
+			}
+		}
+
+		boolean hasFailed() {
+			return error != null;
+		}
+
+		void rethrow() throws IOException {
+			final Exception e = error;
+			if (e instanceof IOException) {
+				throw (IOException) e;
+			} else if (e instanceof RuntimeException) {
+				throw (RuntimeException) e;
+			} else if (e != null) {
+				throw new IOException("Could not write JSON.", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,348 @@
+package org.cytoscape.rest.internal.serializer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+
+/**
+ * Writes a table column by column in a binary format, one batch of rows at a
+ * time.
+ *
+ * The memory layout of the columns follows Apache Arrow, so each buffer can
+ * be loaded as an array without parsing (e.g. numpy.frombuffer):
+ * <ul>
+ * <li>All numbers are little-endian, and every buffer starts at a multiple
+ * of 8 bytes from the beginning of the stream.</li>
+ * <li>Null cells are marked in a validity bitmap (bit i of byte i/8 is 1 if
+ * cell i is not null).</li>
+ * <li>Boolean columns are bitmaps. Integer and Long columns are int32 and
+ * int64 arrays. Double and Float columns are float64 arrays.</li>
+ * <li>String columns are an int32 offsets array (number of rows + 1) and
+ * the UTF-8 data. Cell i is data[offsets[i], offsets[i + 1]).</li>
+ * <li>List columns are an int32 offsets array into the elements, followed
+ * by the buffers of the elements as a column of the element type.</li>
+ * </ul>
+ *
+ * Stream layout:
+ *
+ * <pre>
+ * magic        "CYCOL1\0\0"
+ * schema       int32 column count, int32 reserved (0), then for each column:
+ *              int8 type, int8 element type (0 if not a List), int16 reserved,
+ *              int32 name length, UTF-8 name, padding to 8 bytes
+ * batch*       int64 row count, then for each column its buffers in the
+ *              order above. Each buffer is an int64 length, the data and
+ *              padding to 8 bytes.
+ * end          int64 -1
+ * </pre>
+ *
+ * Only one batch is held in memory at a time.
+ *
+ */
+public class ColumnarTableWriter implements StreamingOutput {
+
+	public static final String MEDIA_TYPE = "application/vnd.cytoscape.columnar";
+	public static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+
+	private static final byte[] MAGIC = { 'C', 'Y', 'C', 'O', 'L', '1', 0, 0 };
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final int ALIGNMENT = 8;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final long END_OF_STREAM = -1;
+
+	/**
+	 * Type codes in the schema.
+	 */
+	enum Type {
+		BOOLEAN(1), INTEGER(2), LONG(3), DOUBLE(4), STRING(5), LIST(6);
+
+		private final int code;
+
+		private Type(final int code) {
+			this.code = code;
+		}
+
+		static Type of(final Class<?> type) {
+			if (type == Boolean.class) {
+				return BOOLEAN;
+			} else if (type == Integer.class) {
+				return INTEGER;
+			} else if (type == Long.class) {
+				return LONG;
+			} else if (type == Double.class || type == Float.class) {
+				return DOUBLE;
+			} else if (type == List.class) {
+				return LIST;
+			} else {
+				return STRING;
+			}
+		}
+	}
+
+	private final CyTable table;
+	private final CyColumn[] columns;
+	private final int batchSize;
+
+	// Reused for all buffers of a batch.
+	private final Buffer buffer = new Buffer(BUFFER_SIZE);
+	private final Buffer data = new Buffer(BUFFER_SIZE);
+
+	/**
+	 * @param table table to be written
+	 * @param columns columns to be written, in this order
+	 * @param batchSize maximum number of rows in a batch
+	 */
+	public ColumnarTableWriter(final CyTable table, final Collection<CyColumn> columns, final int batchSize) {
+		this.table = table;
+		this.columns = columns.toArray(new CyColumn[columns.size()]);
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public void write(final OutputStream os) throws IOException, WebApplicationException {
+		final OutputStream out = new BufferedOutputStream(os, BUFFER_SIZE);
+		out.write(MAGIC);
+		writeSchema(out);
+
+		final List<CyRow> batch = new ArrayList<CyRow>(batchSize);
+		for (final CyRow row : table.getAllRows()) {
+			batch.add(row);
+			if (batch.size() == batchSize) {
+				writeBatch(batch, out);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			writeBatch(batch, out);
+		}
+
+		buffer.clear();
+		buffer.putLong(END_OF_STREAM);
+		buffer.writeTo(out);
+		out.flush();
+	}
+
+	private final void writeSchema(final OutputStream out) throws IOException {
+		buffer.clear();
+		buffer.putInt(columns.length);
+		buffer.putInt(0);
+		for (final CyColumn column : columns) {
+			final Type type = Type.of(column.getType());
+			final byte[] name = column.getName().getBytes(UTF8);
+			buffer.put((byte) type.code);
+			buffer.put((byte) (type == Type.LIST ? Type.of(column.getListElementType()).code : 0));
+			buffer.putShort((short) 0);
+			buffer.putInt(name.length);
+			buffer.put(name);
+			buffer.pad();
+		}
+		buffer.writeTo(out);
+	}
+
+	private final void writeBatch(final List<CyRow> rows, final OutputStream out) throws IOException {
+		buffer.clear();
+		buffer.putLong(rows.size());
+		buffer.writeTo(out);
+
+		final List<Object> values = new ArrayList<Object>(rows.size());
+		for (final CyColumn column : columns) {
+			values.clear();
+			final String name = column.getName();
+			final Class<?> type = column.getType();
+			if (type == List.class) {
+				final Class<?> elementType = column.getListElementType();
+				for (final CyRow row : rows) {
+					values.add(row.getList(name, elementType));
+				}
+				writeListVector(Type.of(elementType), values, out);
+			} else {
+				for (final CyRow row : rows) {
+					values.add(row.get(name, type));
+				}
+				writeVector(Type.of(type), values, out);
+			}
+		}
+	}
+
+	private final void writeListVector(final Type elementType, final List<Object> lists, final OutputStream out)
+			throws IOException {
+		writeValidity(lists, out);
+
+		final List<Object> elements = new ArrayList<Object>();
+		buffer.clear();
+		buffer.putInt(0);
+		for (final Object list : lists) {
+			if (list != null) {
+				elements.addAll((List<?>) list);
+			}
+			buffer.putInt(elements.size());
+		}
+		writeBuffer(buffer, out);
+
+		writeVector(elementType, elements, out);
+	}
+
+	private final void writeVector(final Type type, final List<Object> values, final OutputStream out)
+			throws IOException {
+		writeValidity(values, out);
+
+		final int size = values.size();
+		buffer.clear();
+		switch (type) {
+		case BOOLEAN:
+			buffer.zeros((size + 7) / 8);
+			for (int i = 0; i < size; i++) {
+				if (Boolean.TRUE.equals(values.get(i))) {
+					buffer.setBit(i);
+				}
+			}
+			break;
+		case INTEGER:
+			for (final Object value : values) {
+				buffer.putInt(value == null ? 0 : ((Number) value).intValue());
+			}
+			break;
+		case LONG:
+			for (final Object value : values) {
+				buffer.putLong(value == null ? 0L : ((Number) value).longValue());
+			}
+			break;
+		case DOUBLE:
+			for (final Object value : values) {
+				buffer.putDouble(value == null ? 0d : ((Number) value).doubleValue());
+			}
+			break;
+		default:
+			// Offsets and UTF-8 data
+			data.clear();
+			buffer.putInt(0);
+			for (final Object value : values) {
+				if (value != null) {
+					data.put(value.toString().getBytes(UTF8));
+				}
+				buffer.putInt(data.size());
+			}
+			writeBuffer(buffer, out);
+			writeBuffer(data, out);
+			return;
+		}
+		writeBuffer(buffer, out);
+	}
+
+	private final void writeValidity(final List<Object> values, final OutputStream out) throws IOException {
+		final int size = values.size();
+		buffer.clear();
+		buffer.zeros((size + 7) / 8);
+		for (int i = 0; i < size; i++) {
+			if (values.get(i) != null) {
+				buffer.setBit(i);
+			}
+		}
+		writeBuffer(buffer, out);
+	}
+
+	/**
+	 * Write the length of the buffer, its contents and padding.
+	 */
+	private final void writeBuffer(final Buffer source, final OutputStream out) throws IOException {
+		final byte[] length = new byte[8];
+		ByteBuffer.wrap(length).order(ByteOrder.LITTLE_ENDIAN).putLong(source.size());
+		out.write(length);
+		source.pad();
+		source.writeTo(out);
+	}
+
+	/**
+	 * Growable little-endian byte buffer.
+	 */
+	private static final class Buffer {
+
+		private ByteBuffer bytes;
+
+		Buffer(final int capacity) {
+			this.bytes = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		void clear() {
+			bytes.clear();
+		}
+
+		int size() {
+			return bytes.position();
+		}
+
+		void put(final byte value) {
+			ensure(1).put(value);
+		}
+
+		void put(final byte[] value) {
+			ensure(value.length).put(value);
+		}
+
+		void putShort(final short value) {
+			ensure(2).putShort(value);
+		}
+
+		void putInt(final int value) {
+			ensure(4).putInt(value);
+		}
+
+		void putLong(final long value) {
+			ensure(8).putLong(value);
+		}
+
+		void putDouble(final double value) {
+			ensure(8).putDouble(value);
+		}
+
+		void zeros(final int length) {
+			ensure(length);
+			for (int i = 0; i < length; i++) {
+				bytes.put((byte) 0);
+			}
+		}
+
+		/**
+		 * Set a bit in a bitmap starting at the beginning of this buffer.
+		 */
+		void setBit(final int index) {
+			final int i = index >> 3;
+			bytes.put(i, (byte) (bytes.get(i) | (1 << (index & 7))));
+		}
+
+		void pad() {
+			final int remainder = bytes.position() % ALIGNMENT;
+			if (remainder != 0) {
+				zeros(ALIGNMENT - remainder);
+			}
+		}
+
+		void writeTo(final OutputStream out) throws IOException {
+			out.write(bytes.array(), 0, bytes.position());
+		}
+
+		private final ByteBuffer ensure(final int length) {
+			if (bytes.remaining() < length) {
+				final int capacity = Math.max(bytes.capacity() * 2, bytes.position() + length);
+				final ByteBuffer larger = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+				bytes.flip();
+				larger.put(bytes);
+				bytes = larger;
+			}
+			return bytes;
+		}
+	}
+}
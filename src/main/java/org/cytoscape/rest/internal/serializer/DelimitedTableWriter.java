@@ -0,0 +1,148 @@
+package org.cytoscape.rest.internal.serializer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+
+/**
+ * Writes a table as delimiter separated text (CSV or TSV) to the response
+ * stream, one row at a time.
+ *
+ * Cells are quoted as described in RFC 4180: a cell containing the
+ * separator, a double quote or a line break is enclosed in double quotes,
+ * and double quotes in it are escaped by doubling them. Records end with
+ * CRLF. Elements of List cells are joined with "|", and "|" and "\" in an
+ * element are escaped with a backslash, so the table importer reads the
+ * same elements back.
+ *
+ */
+public class DelimitedTableWriter implements StreamingOutput {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final char QUOTE = '"';
+	private static final String LINE_SEPARATOR = "\r\n";
+	private static final char LIST_SEPARATOR = '|';
+	private static final char ESCAPE = '\\';
+
+	private final CyTable table;
+	private final Collection<CyColumn> columns;
+	private final char separator;
+
+	/**
+	 * @param table table to be written
+	 * @param columns columns to be written, in this order
+	 * @param separator cell separator, e.g. ',' or '\t'
+	 */
+	public DelimitedTableWriter(final CyTable table, final Collection<CyColumn> columns, final char separator) {
+		this.table = table;
+		this.columns = columns;
+		this.separator = separator;
+	}
+
+	@Override
+	public void write(final OutputStream os) throws IOException, WebApplicationException {
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(os, UTF8), BUFFER_SIZE);
+
+		final CyColumn[] cols = columns.toArray(new CyColumn[columns.size()]);
+
+		// Header
+		for (int i = 0; i < cols.length; i++) {
+			if (i != 0) {
+				writer.write(separator);
+			}
+			writeCell(cols[i].getName(), writer);
+		}
+		writer.write(LINE_SEPARATOR);
+
+		for (final CyRow row : table.getAllRows()) {
+			for (int i = 0; i < cols.length; i++) {
+				if (i != 0) {
+					writer.write(separator);
+				}
+				final CyColumn column = cols[i];
+				if (column.getType() == List.class) {
+					writeList(row.getList(column.getName(), column.getListElementType()), writer);
+				} else {
+					final Object value = row.get(column.getName(), column.getType());
+					if (value != null) {
+						writeCell(value.toString(), writer);
+					}
+				}
+			}
+			writer.write(LINE_SEPARATOR);
+		}
+
+		writer.flush();
+	}
+
+	private final void writeList(final List<?> values, final Writer writer) throws IOException {
+		if (values == null || values.isEmpty()) {
+			return;
+		}
+
+		final StringBuilder builder = new StringBuilder();
+		for (final Object value : values) {
+			if (value != null) {
+				if (builder.length() != 0) {
+					builder.append(LIST_SEPARATOR);
+				}
+				appendElement(value.toString(), builder);
+			}
+		}
+		writeCell(builder.toString(), writer);
+	}
+
+	private static final void appendElement(final String element, final StringBuilder builder) {
+		final int length = element.length();
+		for (int i = 0; i < length; i++) {
+			final char c = element.charAt(i);
+			if (c == LIST_SEPARATOR || c == ESCAPE) {
+				builder.append(ESCAPE);
+			}
+			builder.append(c);
+		}
+	}
+
+	private final void writeCell(final String value, final Writer writer) throws IOException {
+		if (!needsQuote(value)) {
+			writer.write(value);
+			return;
+		}
+
+		writer.write(QUOTE);
+		final int length = value.length();
+		for (int i = 0; i < length; i++) {
+			final char c = value.charAt(i);
+			if (c == QUOTE) {
+				writer.write(QUOTE);
+			}
+			writer.write(c);
+		}
+		writer.write(QUOTE);
+	}
+
+	private final boolean needsQuote(final String value) {
+		final int length = value.length();
+		for (int i = 0; i < length; i++) {
+			final char c = value.charAt(i);
+			if (c == separator || c == QUOTE || c == '\n' || c == '\r') {
+				return true;
+			}
+		}
+		return false;
+	}
+}
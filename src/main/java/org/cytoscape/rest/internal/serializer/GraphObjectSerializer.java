@@ -1,61 +1,50 @@
 package org.cytoscape.rest.internal.serializer;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.cytoscape.model.CyColumn;
 import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyIdentifiable;
 import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
 import org.cytoscape.rest.internal.resource.JsonTags;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
 
 public class GraphObjectSerializer {
 
-	private static final Pattern REPLACE_INVALID_JS_CHAR_PATTERN = Pattern.compile("^[^a-zA-Z_]+|[^a-zA-Z_0-9]+");
+	private final JacksonProvider jackson;
 
-	public final String serializeGraphObject(final CyIdentifiable obj, final CyRow row) throws IOException {
+	public GraphObjectSerializer(final JacksonProvider jackson) {
+		this.jackson = jackson;
+	}
 
-		final JsonFactory factory = new JsonFactory();
+	public final String serializeGraphObject(final CyIdentifiable obj, final CyRow row) throws IOException {
 
-		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = null;
-		generator = factory.createGenerator(stream);
+		final SegmentedStringWriter writer = jackson.createStringWriter();
+		final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
 		generator.writeStartObject();
 		generator.writeObjectFieldStart("data");
 		serializeRow(generator, obj, row);
 		generator.writeEndObject();
 		generator.writeEndObject();
 		generator.close();
-		result = stream.toString("UTF-8");
-		stream.close();
-		return result;
+		return writer.getAndClear();
 	}
 
 	public final String serializeRow(final CyRow row) throws IOException {
 
-		final JsonFactory factory = new JsonFactory();
-
-		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = null;
-		generator = factory.createGenerator(stream);
+		final SegmentedStringWriter writer = jackson.createStringWriter();
+		final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
 		generator.writeStartObject();
-		serializeSingleRow(generator, row);
+		jackson.getRowPlans().getPlan(row.getTable()).writeFields(row, generator);
 		generator.writeEndObject();
 		generator.close();
-		result = stream.toString("UTF-8");
-		stream.close();
-		return result;
+		return writer.getAndClear();
 	}
 
 	public final String serializeCell(final CyRow row, final String columnName) throws IOException {
@@ -66,53 +55,69 @@ public class GraphObjectSerializer {
 		}
 
 		final Object value = row.get(columnName, column.getType());
-		final JsonFactory factory = new JsonFactory();
-
-		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = null;
-		generator = factory.createGenerator(stream);
+		final SegmentedStringWriter writer = jackson.createStringWriter();
+		final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
 		generator.writeStartObject();
 		serializeCell(generator, column, value);
 		generator.writeEndObject();
 		generator.close();
-		result = stream.toString("UTF-8");
-		stream.close();
-		return result;
+		return writer.getAndClear();
 	}
 
 	public final String serializeAllRows(final Collection<CyRow> rows) throws IOException {
+		return serializeAllRows(rows, null);
+	}
 
-		final JsonFactory factory = new JsonFactory();
+	/**
+	 * Serialize rows with selected columns only.
+	 * 
+	 * @param rows rows to be serialized
+	 * @param columns columns to be written. If null, all columns are written.
+	 * @return Rows as a JSON array
+	 * @throws IOException
+	 */
+	public final String serializeAllRows(final Collection<CyRow> rows, final Collection<CyColumn> columns)
+			throws IOException {
 
-		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = null;
-		generator = factory.createGenerator(stream);
+		final SegmentedStringWriter writer = jackson.createStringWriter();
+		final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
+		writeAllRows(generator, rows, columns);
+		generator.close();
+		return writer.getAndClear();
+	}
 
+	/**
+	 * Write rows with selected columns as an array.
+	 * 
+	 * @param generator target generator. Can be a JSON or binary generator.
+	 * @param rows rows to be written
+	 * @param columns columns to be written. If null, all columns are written.
+	 * @throws IOException
+	 */
+	public final void writeAllRows(final JsonGenerator generator, final Collection<CyRow> rows,
+			final Collection<CyColumn> columns) throws IOException {
 		generator.writeStartArray();
+		CyTable table = null;
+		RowPlan plan = null;
 		for (final CyRow row : rows) {
+			// Rows are usually from a single table. Resolve the plan only
+			// when the table changes.
+			if (row.getTable() != table) {
+				table = row.getTable();
+				plan = jackson.getRowPlans().getPlan(table, columns);
+			}
 			generator.writeStartObject();
-			serializeSingleRow(generator, row);
+			plan.writeFields(row, generator);
 			generator.writeEndObject();
 		}
 		generator.writeEndArray();
-
-		generator.close();
-		result = stream.toString("UTF-8");
-		stream.close();
-		return result;
 	}
 
 
 	public final String serializeColumns(final Collection<CyColumn> columns) throws IOException {
 
-		final JsonFactory factory = new JsonFactory();
-
-		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = null;
-		generator = factory.createGenerator(stream);
+		final SegmentedStringWriter writer = jackson.createStringWriter();
+		final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
 
 		generator.writeStartArray();
 		for (final CyColumn column : columns) {
@@ -126,19 +131,14 @@ public class GraphObjectSerializer {
 		generator.writeEndArray();
 
 		generator.close();
-		result = stream.toString("UTF-8");
-		stream.close();
-		return result;
+		return writer.getAndClear();
 	}
 
 	public final String serializeColumnValues(final CyColumn column, final Collection<Object> values) throws IOException {
 
-		final JsonFactory factory = new JsonFactory();
-
 		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = null;
-		generator = factory.createGenerator(stream);
+		final SegmentedStringWriter writer = jackson.createStringWriter();
+		final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
 
 		try {
 		generator.writeStartObject();
@@ -157,8 +157,7 @@ public class GraphObjectSerializer {
 		generator.writeEndObject();
 
 		generator.close();
-		result = stream.toString("UTF-8");
-		stream.close();
+		result = writer.getAndClear();
 		} catch(Exception e) {
 			e.printStackTrace();
 		}
@@ -166,28 +165,8 @@ public class GraphObjectSerializer {
 	}
 
 
-	private final void serializeSingleRow(final JsonGenerator generator, final CyRow row) throws IOException {
-		final Collection<CyColumn> columns = row.getTable().getColumns();
-		final Map<String, Object> values = row.getAllValues();
-		for (final CyColumn col : columns) {
-			final Object value = values.get(col.getName());
-			if (value == null)
-				continue;
-			Class<?> type = col.getType();
-			final String columnName = col.getName();
-			generator.writeFieldName(replaceColumnName(columnName));
-			if (type == List.class) {
-				writeList(col.getListElementType(), (List<?>) value, generator);
-			} else {
-				writeValue(type, value, generator);
-			}
-		}
-	}
-
-	private final void serializeRow(JsonGenerator generator, final CyIdentifiable obj, final CyRow row)
+	private final void serializeRow(final JsonGenerator generator, final CyIdentifiable obj, final CyRow row)
 			throws IOException {
-		final Collection<CyColumn> columns = row.getTable().getColumns();
-		final Map<String, Object> values = row.getAllValues();
 		if (obj instanceof CyEdge) {
 			final Long sourceId = ((CyEdge) obj).getSource().getSUID();
 			final Long targetId = ((CyEdge) obj).getTarget().getSUID();
@@ -196,20 +175,7 @@ public class GraphObjectSerializer {
 		} else {
 			generator.writeNumberField("id", obj.getSUID());
 		}
-		for (final CyColumn col : columns) {
-			final Object value = values.get(col.getName());
-			if (value == null)
-				continue;
-
-			Class<?> type = col.getType();
-			final String columnName = col.getName();
-			generator.writeFieldName(replaceColumnName(columnName));
-			if (type == List.class) {
-				writeList(col.getListElementType(), (List<?>) value, generator);
-			} else {
-				writeValue(type, value, generator);
-			}
-		}
+		jackson.getRowPlans().getPlan(row.getTable()).writeFields(row, generator);
 	}
 
 	private final void serializeCell(final JsonGenerator generator, final CyColumn col, Object value)
@@ -238,8 +204,7 @@ public class GraphObjectSerializer {
 	}
 
 	private final String replaceColumnName(final String columnName) {
-		final Matcher matcher = REPLACE_INVALID_JS_CHAR_PATTERN.matcher(columnName);
-		return matcher.replaceAll("_");
+		return RowPlan.toFieldName(columnName);
 	}
 
 	private final void writeValue(final Class<?> type, final Object value, final JsonGenerator generator)
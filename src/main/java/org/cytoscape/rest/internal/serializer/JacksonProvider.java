@@ -0,0 +1,179 @@
+package org.cytoscape.rest.internal.serializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.ws.rs.core.MediaType;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Shared Jackson objects for all resources and serializers.
+ *
+ * Creating factories and mappers is expensive: symbol tables and serializer
+ * caches are discarded each time. All objects provided here are thread-safe
+ * once configured, so a single instance is bound to the server through
+ * CyBinder.
+ *
+ */
+public class JacksonProvider {
+
+	private final RowPlanCache rowPlans;
+
+	private final JsonFactory jsonFactory;
+	private final SmileFactory smileFactory;
+	private final CBORFactory cborFactory;
+	private final ObjectMapper objectMapper;
+	private final ObjectReader treeReader;
+
+	private final ObjectWriter tableWriter;
+	private final ObjectWriter styleWriter;
+	private final ObjectWriter groupWriter;
+
+	public JacksonProvider() {
+		this(new RowPlanCache());
+	}
+
+	public JacksonProvider(final RowPlanCache rowPlans) {
+		this.rowPlans = rowPlans;
+		this.objectMapper = new ObjectMapper();
+		this.jsonFactory = objectMapper.getFactory();
+		this.smileFactory = new SmileFactory();
+		this.cborFactory = new CBORFactory();
+		this.treeReader = objectMapper.reader(JsonNode.class);
+
+		this.tableWriter = createMapper(new TableModule(rowPlans)).writer();
+		this.styleWriter = createMapper(new VisualStyleModule()).writer();
+		this.groupWriter = createMapper(new GroupModule()).writer();
+	}
+
+	private final ObjectMapper createMapper(final Module module) {
+		final ObjectMapper mapper = new ObjectMapper(jsonFactory.copy());
+		mapper.registerModule(module);
+		return mapper;
+	}
+
+	/**
+	 * @return Shared factory for streaming generators and parsers.
+	 */
+	public JsonFactory getJsonFactory() {
+		return jsonFactory;
+	}
+
+	/**
+	 * Get a factory for the encoding of the given media type.
+	 *
+	 * @param mediaType negotiated media type
+	 * @return Smile or CBOR factory for the binary types, otherwise the JSON
+	 *         factory.
+	 */
+	public JsonFactory getFactory(final MediaType mediaType) {
+		if (mediaType != null) {
+			if (mediaType.isCompatible(BinaryJsonProvider.SMILE_TYPE)) {
+				return smileFactory;
+			} else if (mediaType.isCompatible(BinaryJsonProvider.CBOR_TYPE)) {
+				return cborFactory;
+			}
+		}
+		return jsonFactory;
+	}
+
+	/**
+	 * @return Serialization plans for table rows.
+	 */
+	public RowPlanCache getRowPlans() {
+		return rowPlans;
+	}
+
+	/**
+	 * @return Plain mapper without custom modules.
+	 */
+	public ObjectMapper getObjectMapper() {
+		return objectMapper;
+	}
+
+	/**
+	 * @return Writer for CyTable and CyRow objects.
+	 */
+	public ObjectWriter getTableWriter() {
+		return tableWriter;
+	}
+
+	/**
+	 * @return Writer for Visual Mapping objects.
+	 */
+	public ObjectWriter getStyleWriter() {
+		return styleWriter;
+	}
+
+	/**
+	 * @return Writer for CyGroup objects.
+	 */
+	public ObjectWriter getGroupWriter() {
+		return groupWriter;
+	}
+
+	/**
+	 * Read the request body as a JSON tree.
+	 *
+	 * @param is request body
+	 * @return Root node of the tree
+	 * @throws IOException if the body is not a valid JSON
+	 */
+	public JsonNode readTree(final InputStream is) throws IOException {
+		return treeReader.readValue(is);
+	}
+
+	/**
+	 * Create a JSON generator for the given stream. The stream is not closed
+	 * when the generator is closed.
+	 *
+	 * @param os target stream
+	 * @return New generator
+	 * @throws IOException
+	 */
+	public JsonGenerator createGenerator(final OutputStream os) throws IOException {
+		return createGenerator(os, jsonFactory);
+	}
+
+	/**
+	 * Create a generator for the encoding of the given media type. The
+	 * stream is not closed when the generator is closed.
+	 *
+	 * @param os target stream
+	 * @param mediaType negotiated media type
+	 * @return New generator
+	 * @throws IOException
+	 */
+	public JsonGenerator createGenerator(final OutputStream os, final MediaType mediaType) throws IOException {
+		return createGenerator(os, getFactory(mediaType));
+	}
+
+	private final JsonGenerator createGenerator(final OutputStream os, final JsonFactory factory)
+			throws IOException {
+		final JsonGenerator generator = factory.createGenerator(os);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		return generator;
+	}
+
+	/**
+	 * Create a String writer which shares the recycled buffers of the
+	 * factory. Use {@link SegmentedStringWriter#getAndClear()} to get the
+	 * result. This avoids building a byte array and decoding it again.
+	 *
+	 * @return New writer
+	 */
+	public SegmentedStringWriter createStringWriter() {
+		return new SegmentedStringWriter(jsonFactory._getBufferRecycler());
+	}
+}
@@ -0,0 +1,46 @@
+package org.cytoscape.rest.internal.serializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Response entity written with a Jackson generator.
+ *
+ * As a {@link StreamingOutput}, this is written as text JSON. For binary
+ * encodings (Smile, CBOR), {@link BinaryJsonProvider} calls
+ * {@link #writeTo(JsonGenerator)} with a generator for the negotiated
+ * format, so the content is encoded directly without a text JSON step.
+ *
+ */
+public abstract class JsonContent implements StreamingOutput {
+
+	private final JacksonProvider jackson;
+
+	/**
+	 * @param jackson shared Jackson objects
+	 */
+	protected JsonContent(final JacksonProvider jackson) {
+		this.jackson = jackson;
+	}
+
+	/**
+	 * Write the content.
+	 *
+	 * @param generator target generator. Can be a JSON, Smile or CBOR
+	 *            generator.
+	 * @throws IOException
+	 */
+	public abstract void writeTo(final JsonGenerator generator) throws IOException;
+
+	@Override
+	public void write(final OutputStream os) throws IOException, WebApplicationException {
+		final JsonGenerator generator = jackson.createGenerator(os);
+		writeTo(generator);
+		generator.close();
+	}
+}
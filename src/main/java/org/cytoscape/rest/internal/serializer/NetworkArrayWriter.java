@@ -0,0 +1,147 @@
+package org.cytoscape.rest.internal.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.cytoscape.io.write.CyNetworkViewWriterFactory;
+import org.cytoscape.io.write.CyWriter;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.rest.internal.task.HeadlessTaskMonitor;
+
+/**
+ * Writes a JSON array of networks in Cytoscape.js format to the response
+ * stream, one network at a time.
+ *
+ * Networks are serialized in parallel into their own buffers, but only a
+ * limited number of them are in flight at once and they are always written
+ * out in the original order. Memory usage is bounded by the window size
+ * instead of the total size of the session.
+ *
+ */
+public class NetworkArrayWriter implements StreamingOutput {
+
+	private final Collection<CyNetwork> networks;
+	private final CyNetworkViewWriterFactory writerFactory;
+	private final ExecutorService executor;
+	private final int window;
+
+	/**
+	 * @param networks networks to be written
+	 * @param writerFactory Cytoscape.js network writer factory
+	 * @param executor executor for parallel serialization. Can be null.
+	 * @param window maximum number of networks serialized at once
+	 */
+	public NetworkArrayWriter(final Collection<CyNetwork> networks, final CyNetworkViewWriterFactory writerFactory,
+			final ExecutorService executor, final int window) {
+		this.networks = networks;
+		this.writerFactory = writerFactory;
+		this.executor = executor;
+		this.window = window;
+	}
+
+	@Override
+	public void write(final OutputStream os) throws IOException, WebApplicationException {
+		os.write('[');
+		if (executor == null || window <= 1 || networks.size() <= 1) {
+			writeSequential(os);
+		} else {
+			writeParallel(os);
+		}
+		os.write(']');
+		os.flush();
+	}
+
+	private final void writeSequential(final OutputStream os) throws IOException {
+		final OutputStream target = new NonClosingOutputStream(os);
+		boolean first = true;
+		for (final CyNetwork network : networks) {
+			if (!first) {
+				os.write(',');
+			}
+			first = false;
+			writeNetwork(network, target);
+		}
+	}
+
+	private final void writeParallel(final OutputStream os) throws IOException {
+		final Iterator<CyNetwork> itr = networks.iterator();
+		final Deque<Future<ByteArrayOutputStream>> pending = new ArrayDeque<Future<ByteArrayOutputStream>>(window);
+		try {
+			while (pending.size() < window && itr.hasNext()) {
+				pending.add(executor.submit(new SerializeTask(itr.next())));
+			}
+
+			boolean first = true;
+			while (!pending.isEmpty()) {
+				final ByteArrayOutputStream buffer = getResult(pending.poll());
+				// Keep the window full while this one is written out.
+				if (itr.hasNext()) {
+					pending.add(executor.submit(new SerializeTask(itr.next())));
+				}
+				if (!first) {
+					os.write(',');
+				}
+				first = false;
+				buffer.writeTo(os);
+			}
+		} finally {
+			for (final Future<ByteArrayOutputStream> future : pending) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private final ByteArrayOutputStream getResult(final Future<ByteArrayOutputStream> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while serializing networks.", e);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException("Could not serialize network into JSON.", cause);
+		}
+	}
+
+	private final void writeNetwork(final CyNetwork network, final OutputStream os) throws IOException {
+		final CyWriter writer = writerFactory.createWriter(os, network);
+		try {
+			writer.run(new HeadlessTaskMonitor());
+		} catch (IOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IOException("Could not serialize network into JSON: " + network.getSUID(), e);
+		}
+	}
+
+	private final class SerializeTask implements Callable<ByteArrayOutputStream> {
+
+		private final CyNetwork network;
+
+		SerializeTask(final CyNetwork network) {
+			this.network = network;
+		}
+
+		@Override
+		public ByteArrayOutputStream call() throws Exception {
+			final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+			writeNetwork(network, buffer);
+			return buffer;
+		}
+	}
+}
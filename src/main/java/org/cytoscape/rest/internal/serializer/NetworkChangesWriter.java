@@ -0,0 +1,247 @@
+package org.cytoscape.rest.internal.serializer;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cytoscape.model.CyIdentifiable;
+import org.cytoscape.rest.internal.ChangeLog;
+import org.cytoscape.rest.internal.datamapper.VisualStyleMapper;
+import org.cytoscape.view.model.VisualProperty;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes the changes of a network since a version.
+ *
+ * Changes are merged before they are written: a node or edge which was
+ * added and removed again is not listed, only the last value of each cell
+ * and Visual Property is written, and cells and views of removed nodes and
+ * edges are left out. A null value means the cell or Visual Property was
+ * cleared.
+ *
+ * <pre>
+ * {
+ * 	"since": (requested version),
+ * 	"version": (version to be used for the next request),
+ * 	"nodes": { "added": [ SUIDs ], "removed": [ SUIDs ] },
+ * 	"edges": { "added": [ SUIDs ], "removed": [ SUIDs ] },
+ * 	"rows": { (table type): [ { "SUID": (row), (column): (value), ... } ] },
+ * 	"views": [ { "SUID": (view), "changes": [ { "SUID": (object), "view": [ Visual Property values ] } ] } ]
+ * }
+ * </pre>
+ *
+ */
+public class NetworkChangesWriter extends JsonContent {
+
+	private static final String SINCE = "since";
+	private static final String VERSION = "version";
+	private static final String NODES = "nodes";
+	private static final String EDGES = "edges";
+	private static final String ADDED = "added";
+	private static final String REMOVED = "removed";
+	private static final String ROWS = "rows";
+	private static final String VIEWS = "views";
+	private static final String CHANGES = "changes";
+	private static final String VIEW = "view";
+	private static final String VALUE = "value";
+
+	private final String since;
+	private final String version;
+	private final Map<String, List<ChangeLog.Change>> tableChanges;
+	private final Map<Long, List<ChangeLog.Change>> viewChanges;
+	private final VisualStyleSerializer styleSerializer;
+
+	private final Set<Long> addedNodes = new LinkedHashSet<Long>();
+	private final Set<Long> removedNodes = new LinkedHashSet<Long>();
+	private final Set<Long> addedEdges = new LinkedHashSet<Long>();
+	private final Set<Long> removedEdges = new LinkedHashSet<Long>();
+	// Nodes and edges which were added and removed again
+	private final Set<Long> transients = new HashSet<Long>();
+
+	/**
+	 * @param jackson shared Jackson objects
+	 * @param styleSerializer serializer for Visual Property values
+	 * @param since requested version
+	 * @param version current version
+	 * @param networkChanges changes of the network
+	 * @param tableChanges changes of the tables, by table type
+	 * @param viewChanges changes of the network views, by view SUID
+	 */
+	public NetworkChangesWriter(final JacksonProvider jackson, final VisualStyleSerializer styleSerializer,
+			final String since, final String version, final List<ChangeLog.Change> networkChanges,
+			final Map<String, List<ChangeLog.Change>> tableChanges, final Map<Long, List<ChangeLog.Change>> viewChanges) {
+		super(jackson);
+		this.styleSerializer = styleSerializer;
+		this.since = since;
+		this.version = version;
+		this.tableChanges = tableChanges;
+		this.viewChanges = viewChanges;
+
+		for (final ChangeLog.Change change : networkChanges) {
+			switch (change.getType()) {
+			case NODE_ADDED:
+				added(change.getSUID(), addedNodes, removedNodes);
+				break;
+			case NODE_REMOVED:
+				removed(change.getSUID(), addedNodes, removedNodes);
+				break;
+			case EDGE_ADDED:
+				added(change.getSUID(), addedEdges, removedEdges);
+				break;
+			case EDGE_REMOVED:
+				removed(change.getSUID(), addedEdges, removedEdges);
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	@Override
+	public void writeTo(final JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField(SINCE, since);
+		generator.writeStringField(VERSION, version);
+
+		generator.writeObjectFieldStart(NODES);
+		writeSuids(ADDED, addedNodes, generator);
+		writeSuids(REMOVED, removedNodes, generator);
+		generator.writeEndObject();
+
+		generator.writeObjectFieldStart(EDGES);
+		writeSuids(ADDED, addedEdges, generator);
+		writeSuids(REMOVED, removedEdges, generator);
+		generator.writeEndObject();
+
+		generator.writeObjectFieldStart(ROWS);
+		for (final String tableType : tableChanges.keySet()) {
+			generator.writeArrayFieldStart(tableType);
+			writeRows(tableChanges.get(tableType), generator);
+			generator.writeEndArray();
+		}
+		generator.writeEndObject();
+
+		generator.writeArrayFieldStart(VIEWS);
+		for (final Long viewSuid : viewChanges.keySet()) {
+			generator.writeStartObject();
+			generator.writeNumberField(CyIdentifiable.SUID, viewSuid);
+			generator.writeArrayFieldStart(CHANGES);
+			writeViews(viewChanges.get(viewSuid), generator);
+			generator.writeEndArray();
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+
+		generator.writeEndObject();
+	}
+
+	private final void writeSuids(final String fieldName, final Set<Long> suids, final JsonGenerator generator)
+			throws IOException {
+		generator.writeArrayFieldStart(fieldName);
+		for (final Long suid : suids) {
+			generator.writeNumber(suid);
+		}
+		generator.writeEndArray();
+	}
+
+	/**
+	 * A node or edge which is added back to a subnetwork has new local rows,
+	 * so it is listed as added, and its cells are written.
+	 */
+	private final void added(final Long suid, final Set<Long> added, final Set<Long> removed) {
+		transients.remove(suid);
+		removed.remove(suid);
+		added.add(suid);
+	}
+
+	private final void removed(final Long suid, final Set<Long> added, final Set<Long> removed) {
+		if (added.remove(suid)) {
+			transients.add(suid);
+		} else {
+			removed.add(suid);
+		}
+	}
+
+	private final boolean isRemoved(final Long suid) {
+		return removedNodes.contains(suid) || removedEdges.contains(suid) || transients.contains(suid);
+	}
+
+	/**
+	 * Merge the changes by SUID and key. Later values replace earlier ones.
+	 */
+	private final Map<Long, Map<Object, Object>> merge(final List<ChangeLog.Change> changes) {
+		final Map<Long, Map<Object, Object>> merged = new LinkedHashMap<Long, Map<Object, Object>>();
+		for (final ChangeLog.Change change : changes) {
+			if (change.getSUID() == null || isRemoved(change.getSUID())) {
+				continue;
+			}
+			Map<Object, Object> values = merged.get(change.getSUID());
+			if (values == null) {
+				values = new LinkedHashMap<Object, Object>();
+				merged.put(change.getSUID(), values);
+			}
+			values.put(change.getKey(), change.getValue());
+		}
+		return merged;
+	}
+
+	private final void writeRows(final List<ChangeLog.Change> changes, final JsonGenerator generator)
+			throws IOException {
+		final Map<Long, Map<Object, Object>> rows = merge(changes);
+		for (final Long suid : rows.keySet()) {
+			generator.writeStartObject();
+			generator.writeNumberField(CyIdentifiable.SUID, suid);
+			for (final Map.Entry<Object, Object> cell : rows.get(suid).entrySet()) {
+				if (!CyIdentifiable.SUID.equals(cell.getKey())) {
+					generator.writeFieldName(RowPlan.toFieldName(cell.getKey().toString()));
+					writeCell(cell.getValue(), generator);
+				}
+			}
+			generator.writeEndObject();
+		}
+	}
+
+	private final void writeCell(final Object value, final JsonGenerator generator) throws IOException {
+		if (value == null) {
+			generator.writeNull();
+		} else if (value instanceof List) {
+			generator.writeStartArray();
+			for (final Object element : (List<?>) value) {
+				writeCell(element, generator);
+			}
+			generator.writeEndArray();
+		} else {
+			RowPlan.ValueWriter.of(value.getClass()).write(value, generator);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private final void writeViews(final List<ChangeLog.Change> changes, final JsonGenerator generator)
+			throws IOException {
+		final Map<Long, Map<Object, Object>> views = merge(changes);
+		for (final Long suid : views.keySet()) {
+			generator.writeStartObject();
+			generator.writeNumberField(CyIdentifiable.SUID, suid);
+			generator.writeArrayFieldStart(VIEW);
+			for (final Map.Entry<Object, Object> value : views.get(suid).entrySet()) {
+				final VisualProperty<Object> vp = (VisualProperty<Object>) value.getKey();
+				generator.writeStartObject();
+				generator.writeStringField(VisualStyleMapper.MAPPING_VP, vp.getIdString());
+				generator.writeFieldName(VALUE);
+				if (value.getValue() == null) {
+					generator.writeNull();
+				} else {
+					styleSerializer.writeValue(vp, value.getValue(), generator);
+				}
+				generator.writeEndObject();
+			}
+			generator.writeEndArray();
+			generator.writeEndObject();
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package org.cytoscape.rest.internal.serializer;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Wrapper to protect response stream from writers closing it.
+ *
+ * Some writers (including Cytoscape.js network writer) close the target
+ * stream when they are done. This is a problem if we need to write more
+ * than one object to the same stream.
+ *
+ */
+public final class NonClosingOutputStream extends FilterOutputStream {
+
+	public NonClosingOutputStream(final OutputStream out) {
+		super(out);
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException {
+		// FilterOutputStream writes one byte at a time by default.
+		out.write(b, off, len);
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.flush();
+	}
+}
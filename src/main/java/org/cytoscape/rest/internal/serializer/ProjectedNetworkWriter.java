@@ -0,0 +1,114 @@
+package org.cytoscape.rest.internal.serializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.rest.internal.resource.JsonTags;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes a network in Cytoscape.js format with selected columns only.
+ *
+ * The structure is the same as the output of the Cytoscape.js network
+ * writer: "id", "source" and "target" are SUIDs as strings, and all other
+ * fields in "data" are the cells of the selected columns. Each column name
+ * is applied to the network, node and edge tables that have it.
+ *
+ */
+public class ProjectedNetworkWriter extends JsonContent {
+
+	private static final String DATA = "data";
+	private static final String ELEMENTS = "elements";
+	private static final String NODES = "nodes";
+	private static final String EDGES = "edges";
+	private static final String ID = "id";
+	private static final String GENERATED_BY = "generated_by";
+	private static final String TARGET_CYTOSCAPEJS_VERSION = "target_cytoscapejs_version";
+	// Same as the Cytoscape.js network writer
+	private static final String CYTOSCAPEJS_VERSION = "~2.1";
+
+	private final CyNetwork network;
+	private final Collection<String> columnNames;
+	private final String cytoscapeVersion;
+	private final JacksonProvider jackson;
+
+	/**
+	 * @param network network to be written
+	 * @param columnNames names of the columns to be written
+	 * @param cytoscapeVersion version of Cytoscape for "generated_by", or
+	 *            null if it is not known
+	 * @param jackson shared Jackson objects
+	 */
+	public ProjectedNetworkWriter(final CyNetwork network, final Collection<String> columnNames,
+			final String cytoscapeVersion, final JacksonProvider jackson) {
+		super(jackson);
+		this.network = network;
+		this.columnNames = columnNames;
+		this.cytoscapeVersion = cytoscapeVersion;
+		this.jackson = jackson;
+	}
+
+	@Override
+	public void writeTo(final JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField(TableModule.FORMAT_VERSION_TAG, TableModule.FORMAT_VERSION);
+		if (cytoscapeVersion != null) {
+			generator.writeStringField(GENERATED_BY, "cytoscape-" + cytoscapeVersion);
+		}
+		generator.writeStringField(TARGET_CYTOSCAPEJS_VERSION, CYTOSCAPEJS_VERSION);
+
+		generator.writeObjectFieldStart(DATA);
+		getPlan(network.getDefaultNetworkTable()).writeFields(network.getRow(network), generator);
+		generator.writeEndObject();
+
+		generator.writeObjectFieldStart(ELEMENTS);
+
+		final RowPlan nodePlan = getPlan(network.getDefaultNodeTable());
+		generator.writeArrayFieldStart(NODES);
+		for (final CyNode node : network.getNodeList()) {
+			generator.writeStartObject();
+			generator.writeObjectFieldStart(DATA);
+			generator.writeStringField(ID, node.getSUID().toString());
+			nodePlan.writeFields(network.getRow(node), generator);
+			generator.writeEndObject();
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+
+		final RowPlan edgePlan = getPlan(network.getDefaultEdgeTable());
+		generator.writeArrayFieldStart(EDGES);
+		for (final CyEdge edge : network.getEdgeList()) {
+			generator.writeStartObject();
+			generator.writeObjectFieldStart(DATA);
+			generator.writeStringField(ID, edge.getSUID().toString());
+			generator.writeStringField(JsonTags.SOURCE, edge.getSource().getSUID().toString());
+			generator.writeStringField(JsonTags.TARGET, edge.getTarget().getSUID().toString());
+			edgePlan.writeFields(network.getRow(edge), generator);
+			generator.writeEndObject();
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+
+		generator.writeEndObject();
+		generator.writeEndObject();
+	}
+
+	private final RowPlan getPlan(final CyTable table) {
+		final List<CyColumn> columns = new ArrayList<CyColumn>();
+		for (final String name : columnNames) {
+			final CyColumn column = table.getColumn(name);
+			if (column != null) {
+				columns.add(column);
+			}
+		}
+		return jackson.getRowPlans().getPlan(table, columns);
+	}
+}
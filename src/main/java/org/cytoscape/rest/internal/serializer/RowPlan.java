@@ -0,0 +1,179 @@
+package org.cytoscape.rest.internal.serializer;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+/**
+ * Serialization plan for the rows of a table.
+ *
+ * Column names are sanitized and encoded once, and a writer is selected from
+ * the column type. Writing a row is then a simple loop over the columns
+ * without regex matching, temporary maps or type checks per cell.
+ *
+ * Plans are immutable. Use {@link RowPlanCache} to get one for a table.
+ *
+ */
+public final class RowPlan {
+
+	private static final Pattern REPLACE_INVALID_JS_CHAR_PATTERN = Pattern.compile("^[^a-zA-Z_]+|[^a-zA-Z_0-9]+");
+
+	private final CyColumn[] columns;
+	private final String[] names;
+	private final Class<?>[] types;
+	private final boolean[] lists;
+	private final SerializableString[] fieldNames;
+	private final ValueWriter[] writers;
+
+	RowPlan(final Collection<CyColumn> columns) {
+		final int size = columns.size();
+		this.columns = columns.toArray(new CyColumn[size]);
+		this.names = new String[size];
+		this.types = new Class<?>[size];
+		this.lists = new boolean[size];
+		this.fieldNames = new SerializableString[size];
+		this.writers = new ValueWriter[size];
+
+		for (int i = 0; i < size; i++) {
+			final CyColumn column = this.columns[i];
+			names[i] = column.getName();
+			lists[i] = column.getType() == List.class;
+			types[i] = lists[i] ? column.getListElementType() : column.getType();
+			fieldNames[i] = new SerializedString(toFieldName(names[i]));
+			writers[i] = ValueWriter.of(types[i]);
+		}
+	}
+
+	/**
+	 * Check this plan still matches the columns of the table.
+	 *
+	 * @param table table this plan was created from
+	 * @return true if columns have not been added, removed or renamed.
+	 */
+	boolean isValid(final CyTable table) {
+		final Collection<CyColumn> current = table.getColumns();
+		if (current.size() != columns.length) {
+			return false;
+		}
+		for (int i = 0; i < columns.length; i++) {
+			if (!names[i].equals(columns[i].getName()) || table.getColumn(names[i]) != columns[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Write all non-null cells of the row as fields of the current object.
+	 *
+	 * @param row row to be written
+	 * @param generator generator positioned inside an object
+	 * @throws IOException
+	 */
+	public void writeFields(final CyRow row, final JsonGenerator generator) throws IOException {
+		for (int i = 0; i < names.length; i++) {
+			if (lists[i]) {
+				final List<?> values = row.getList(names[i], types[i]);
+				if (values == null) {
+					continue;
+				}
+				generator.writeFieldName(fieldNames[i]);
+				generator.writeStartArray();
+				for (final Object value : values) {
+					if (value != null) {
+						writers[i].write(value, generator);
+					}
+				}
+				generator.writeEndArray();
+			} else {
+				final Object value = row.get(names[i], types[i]);
+				if (value == null) {
+					continue;
+				}
+				generator.writeFieldName(fieldNames[i]);
+				writers[i].write(value, generator);
+			}
+		}
+	}
+
+	/**
+	 * Convert column name into a valid JavaScript identifier.
+	 *
+	 * @param columnName original column name
+	 * @return Name with invalid characters replaced by "_"
+	 */
+	public static String toFieldName(final String columnName) {
+		final Matcher matcher = REPLACE_INVALID_JS_CHAR_PATTERN.matcher(columnName);
+		return matcher.replaceAll("_");
+	}
+
+	/**
+	 * Typed writers for the cell values.
+	 */
+	enum ValueWriter {
+		STRING {
+			@Override
+			void write(final Object value, final JsonGenerator generator) throws IOException {
+				generator.writeString(value.toString());
+			}
+		},
+		BOOLEAN {
+			@Override
+			void write(final Object value, final JsonGenerator generator) throws IOException {
+				generator.writeBoolean((Boolean) value);
+			}
+		},
+		DOUBLE {
+			@Override
+			void write(final Object value, final JsonGenerator generator) throws IOException {
+				generator.writeNumber((Double) value);
+			}
+		},
+		FLOAT {
+			@Override
+			void write(final Object value, final JsonGenerator generator) throws IOException {
+				generator.writeNumber(((Number) value).doubleValue());
+			}
+		},
+		INTEGER {
+			@Override
+			void write(final Object value, final JsonGenerator generator) throws IOException {
+				generator.writeNumber((Integer) value);
+			}
+		},
+		LONG {
+			@Override
+			void write(final Object value, final JsonGenerator generator) throws IOException {
+				generator.writeNumber((Long) value);
+			}
+		};
+
+		abstract void write(final Object value, final JsonGenerator generator) throws IOException;
+
+		static ValueWriter of(final Class<?> type) {
+			if (type == Boolean.class) {
+				return BOOLEAN;
+			} else if (type == Double.class) {
+				return DOUBLE;
+			} else if (type == Float.class) {
+				return FLOAT;
+			} else if (type == Integer.class) {
+				return INTEGER;
+			} else if (type == Long.class) {
+				return LONG;
+			} else {
+				return STRING;
+			}
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package org.cytoscape.rest.internal.serializer;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.events.ColumnCreatedEvent;
+import org.cytoscape.model.events.ColumnCreatedListener;
+import org.cytoscape.model.events.ColumnDeletedEvent;
+import org.cytoscape.model.events.ColumnDeletedListener;
+import org.cytoscape.model.events.ColumnNameChangedEvent;
+import org.cytoscape.model.events.ColumnNameChangedListener;
+import org.cytoscape.model.events.TableAboutToBeDeletedEvent;
+import org.cytoscape.model.events.TableAboutToBeDeletedListener;
+
+/**
+ * Cache of {@link RowPlan}s, keyed by table SUID.
+ *
+ * Each table has a generation which is incremented when columns are
+ * created, deleted or renamed. A plan is stored with the generation read
+ * before its columns were listed, and is only returned while the generation
+ * is the same, so a plan built while a column is added is not kept.
+ * Plans of a registered cache are not checked against the table: a check
+ * lists the columns, and single rows get their plan from here for every
+ * row. A cache which is not registered as a listener checks each plan
+ * before it is returned.
+ *
+ */
+public class RowPlanCache implements ColumnCreatedListener, ColumnDeletedListener, ColumnNameChangedListener,
+		TableAboutToBeDeletedListener {
+
+	private final ConcurrentMap<Long, Entry> plans = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+	private final boolean validate;
+
+	/**
+	 * Cache which checks the plans, because it does not get column events.
+	 */
+	public RowPlanCache() {
+		this(true);
+	}
+
+	/**
+	 * @param validate false if the cache is registered for the column
+	 *            events, true if plans must be checked against the table
+	 */
+	public RowPlanCache(final boolean validate) {
+		this.validate = validate;
+	}
+
+	/**
+	 * Get a serialization plan for the rows in the table. Callers writing
+	 * many rows should get the plan once and reuse it.
+	 *
+	 * @param table target table
+	 * @return Plan matching the current columns of the table
+	 */
+	public RowPlan getPlan(final CyTable table) {
+		final Long suid = table.getSUID();
+		final long generation = getGeneration(suid);
+		Entry entry = plans.get(suid);
+		if (entry == null || entry.generation != generation || (validate && !entry.plan.isValid(table))) {
+			entry = new Entry(generation, new RowPlan(table.getColumns()));
+			plans.put(suid, entry);
+		}
+		return entry.plan;
+	}
+
+	/**
+	 * Get a serialization plan for a subset of the columns. Projections
+	 * depend on the request and are cheap to build, so they are not cached.
+	 *
+	 * @param table target table
+	 * @param columns columns to be written, in this order. If null, all
+	 *            columns are written.
+	 * @return Plan for the given columns
+	 */
+	public RowPlan getPlan(final CyTable table, final Collection<CyColumn> columns) {
+		if (columns == null) {
+			return getPlan(table);
+		}
+		return new RowPlan(columns);
+	}
+
+	private final long getGeneration(final Long suid) {
+		final AtomicLong generation = generations.get(suid);
+		return generation == null ? 0 : generation.get();
+	}
+
+	private final void invalidate(final CyTable table) {
+		if (table == null) {
+			return;
+		}
+		AtomicLong generation = generations.get(table.getSUID());
+		if (generation == null) {
+			final AtomicLong newGeneration = new AtomicLong();
+			generation = generations.putIfAbsent(table.getSUID(), newGeneration);
+			if (generation == null) {
+				generation = newGeneration;
+			}
+		}
+		generation.incrementAndGet();
+		plans.remove(table.getSUID());
+	}
+
+	@Override
+	public void handleEvent(final ColumnCreatedEvent e) {
+		invalidate(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final ColumnDeletedEvent e) {
+		invalidate(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final ColumnNameChangedEvent e) {
+		invalidate(e.getSource());
+	}
+
+	@Override
+	public void handleEvent(final TableAboutToBeDeletedEvent e) {
+		final CyTable table = e.getTable();
+		if (table != null) {
+			plans.remove(table.getSUID());
+			generations.remove(table.getSUID());
+		}
+	}
+
+	private static final class Entry {
+
+		private final long generation;
+		private final RowPlan plan;
+
+		Entry(final long generation, final RowPlan plan) {
+			this.generation = generation;
+			this.plan = plan;
+		}
+	}
+}
@@ -11,8 +11,12 @@ public class TableModule extends SimpleModule {
 	static final String FORMAT_VERSION = "1.0";
 
 	public TableModule() {
+		this(new RowPlanCache());
+	}
+
+	public TableModule(final RowPlanCache rowPlans) {
 		super("TableModule", new Version(1, 0, 0, null, null, null));
-		addSerializer(new TableSerializer());
-		addSerializer(new RowSerializer());
+		addSerializer(new TableSerializer(rowPlans));
+		addSerializer(new RowSerializer(rowPlans));
 	}
 }
@@ -1,8 +1,9 @@
 package org.cytoscape.rest.internal.serializer;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.Collection;
 
+import org.cytoscape.model.CyColumn;
 import org.cytoscape.model.CyIdentifiable;
 import org.cytoscape.model.CyRow;
 import org.cytoscape.model.CyTable;
@@ -15,6 +16,18 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 
 public class TableSerializer extends JsonSerializer<CyTable> {
 
+	/**
+	 * Writer attribute for column projection. If set to a collection of
+	 * CyColumns, only those columns are written for each row.
+	 */
+	public static final String COLUMNS = "columns";
+
+	private final RowPlanCache rowPlans;
+
+	public TableSerializer(final RowPlanCache rowPlans) {
+		this.rowPlans = rowPlans;
+	}
+
 	@Override
 	public Class<CyTable> handledType() {
 		return CyTable.class;
@@ -33,8 +46,17 @@ public class TableSerializer extends JsonSerializer<CyTable> {
 		generator.writeStringField(JsonTags.MUTABLE, table.getMutability().name());
 		generator.writeStringField(JsonTags.PRIMARY_KEY, table.getPrimaryKey().getName());
 
-		final List<CyRow> rows = table.getAllRows();
-		generator.writeObjectField(JsonTags.ROWS, rows);
+		// All rows share the same columns, so the plan is resolved only once.
+		@SuppressWarnings("unchecked")
+		final Collection<CyColumn> columns = (Collection<CyColumn>) provider.getAttribute(COLUMNS);
+		final RowPlan plan = rowPlans.getPlan(table, columns);
+		generator.writeArrayFieldStart(JsonTags.ROWS);
+		for (final CyRow row : table.getAllRows()) {
+			generator.writeStartObject();
+			plan.writeFields(row, generator);
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
 
 		generator.writeEndObject();
 	}
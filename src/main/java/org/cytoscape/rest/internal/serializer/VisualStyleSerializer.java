@@ -1,6 +1,5 @@
 package org.cytoscape.rest.internal.serializer;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Set;
@@ -19,9 +18,9 @@ import org.cytoscape.view.vizmap.mappings.ContinuousMapping;
 import org.cytoscape.view.vizmap.mappings.DiscreteMapping;
 import org.cytoscape.view.vizmap.mappings.PassthroughMapping;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SegmentedStringWriter;
 import com.qmino.miredot.annotations.MireDotIgnore;
 
 @MireDotIgnore
@@ -31,6 +30,12 @@ public class VisualStyleSerializer {
 	private final PassthroughMappingSerializer passhthroughSerializer = new PassthroughMappingSerializer();
 	private final ContinuousMappingSerializer continuousSerializer = new ContinuousMappingSerializer();
 
+	private final JacksonProvider jackson;
+
+	public VisualStyleSerializer(final JacksonProvider jackson) {
+		this.jackson = jackson;
+	}
+
 	public final String serializeDefaults(final Collection<VisualProperty<?>> vps, final VisualStyle style) throws IOException {
 
 		// Sort by field name
@@ -39,11 +44,8 @@ public class VisualStyleSerializer {
 			names.put(vp.getIdString(), vp);
 		}
 		
-		final JsonFactory factory = new JsonFactory();
-
-		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = factory.createGenerator(stream);
+		final SegmentedStringWriter writer = jackson.createStringWriter();
+		final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
 		generator.useDefaultPrettyPrinter();
 		
 		generator.writeStartObject();
@@ -51,33 +53,26 @@ public class VisualStyleSerializer {
 		generator.writeEndObject();
 		
 		generator.close();
-		result = stream.toString("UTF-8");
-		stream.close();
-		return result;
+		return writer.getAndClear();
 	}
 
-	public final String serializeStyle(final Collection<VisualProperty<?>> vps, final VisualStyle style) throws IOException {
+	/**
+	 * Write a Visual Style with its title, defaults and mappings.
+	 * 
+	 * @param generator target generator. Can be a JSON or binary generator.
+	 */
+	public final void writeStyle(final JsonGenerator generator, final Collection<VisualProperty<?>> vps,
+			final VisualStyle style) throws IOException {
 		final SortedMap<String, VisualProperty<?>> names = new TreeMap<String, VisualProperty<?>>();
 		for(final VisualProperty<?> vp:vps) {
 			names.put(vp.getIdString(), vp);
 		}
 		
-		final JsonFactory factory = new JsonFactory();
-		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = factory.createGenerator(stream);
-		generator.useDefaultPrettyPrinter();
-		
 		generator.writeStartObject();
 		generator.writeStringField("title", style.getTitle());
 		addDefaults(generator, names, style);
 		addMappings(generator, style);
 		generator.writeEndObject();
-		
-		generator.close();
-		result = stream.toString("UTF-8");
-		stream.close();
-		return result;
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -114,7 +109,7 @@ public class VisualStyleSerializer {
 		generator.writeEndArray();
 	}
 	
-	private final void writeValue(final VisualProperty<Object> vp, final Object value, final JsonGenerator generator)
+	final void writeValue(final VisualProperty<Object> vp, final Object value, final JsonGenerator generator)
 			throws IOException {
 		if(value == null) {
 			return;
@@ -142,18 +137,27 @@ public class VisualStyleSerializer {
 	
 	public final String serializeViews(final Collection<? extends View<? extends CyIdentifiable>> views, 
 			final Collection<VisualProperty<?>> visualProperties) throws IOException {
+		final SegmentedStringWriter writer = jackson.createStringWriter();
+		final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
+		generator.useDefaultPrettyPrinter();
+		writeViews(generator, views, visualProperties);
+		generator.close();
+		return writer.getAndClear();
+	}
+
+	/**
+	 * Write views as an array of SUID and Visual Property values.
+	 * 
+	 * @param generator target generator. Can be a JSON or binary generator.
+	 */
+	public final void writeViews(final JsonGenerator generator,
+			final Collection<? extends View<? extends CyIdentifiable>> views,
+			final Collection<VisualProperty<?>> visualProperties) throws IOException {
 		final SortedMap<String, VisualProperty<?>> names = new TreeMap<String, VisualProperty<?>>();
 		// Sort by field name
 		for(final VisualProperty<?> vp:visualProperties) {
 			names.put(vp.getIdString(), vp);
 		}
-		
-		final JsonFactory factory = new JsonFactory();
-
-		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = factory.createGenerator(stream);
-		generator.useDefaultPrettyPrinter();
 	
 		generator.writeStartArray();
 		for(final View<? extends CyIdentifiable> view:views) {
@@ -170,37 +174,34 @@ public class VisualStyleSerializer {
 			
 		}
 		generator.writeEndArray();
-		
-		generator.close();
-		result = stream.toString("UTF-8");
-		stream.close();
-		return result;
 	}
 	
 	
 	public final String serializeView(final View<? extends CyIdentifiable> view, final Collection<VisualProperty<?>> visualProperties) throws IOException {
+		final SegmentedStringWriter writer = jackson.createStringWriter();
+		final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
+		generator.useDefaultPrettyPrinter();
+		writeView(generator, view, visualProperties);
+		generator.close();
+		return writer.getAndClear();
+	}
 
+	/**
+	 * Write Visual Property values of a view as an array.
+	 * 
+	 * @param generator target generator. Can be a JSON or binary generator.
+	 */
+	public final void writeView(final JsonGenerator generator, final View<? extends CyIdentifiable> view,
+			final Collection<VisualProperty<?>> visualProperties) throws IOException {
 		final SortedMap<String, VisualProperty<?>> names = new TreeMap<String, VisualProperty<?>>();
 		// Sort by field name
 		for(final VisualProperty<?> vp:visualProperties) {
 			names.put(vp.getIdString(), vp);
 		}
 		
-		final JsonFactory factory = new JsonFactory();
-
-		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = factory.createGenerator(stream);
-		generator.useDefaultPrettyPrinter();
-		
 		generator.writeStartArray();
 		addKeyValuePair(generator, names, view);
 		generator.writeEndArray();
-		
-		generator.close();
-		result = stream.toString("UTF-8");
-		stream.close();
-		return result;
 	}
 	
 	private final void addKeyValuePair(final JsonGenerator generator, final SortedMap<String, VisualProperty<?>> names,
@@ -225,11 +226,8 @@ public class VisualStyleSerializer {
 			names.put(dep.getIdString(), dep);
 		}
 		
-		final JsonFactory factory = new JsonFactory();
-
-		String result = null;
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		JsonGenerator generator = factory.createGenerator(stream);
+		final SegmentedStringWriter writer = jackson.createStringWriter();
+		final JsonGenerator generator = jackson.getJsonFactory().createGenerator(writer);
 		generator.useDefaultPrettyPrinter();
 		
 		generator.writeStartArray();
@@ -239,9 +237,7 @@ public class VisualStyleSerializer {
 		generator.writeEndArray();
 		
 		generator.close();
-		result = stream.toString("UTF-8");
-		stream.close();
-		return result;
+		return writer.getAndClear();
 	}
 	
 	private final void addDependency(final JsonGenerator generator, final VisualPropertyDependency<?> dep) throws IOException {
@@ -3,6 +3,7 @@ package org.cytoscape.rest.internal.task;
 import java.util.Properties;
 
 import org.cytoscape.application.CyApplicationManager;
+import org.cytoscape.event.CyEventHelper;
 import org.cytoscape.group.CyGroupFactory;
 import org.cytoscape.group.CyGroupManager;
 import org.cytoscape.io.read.InputStreamTaskFactory;
@@ -14,10 +15,15 @@ import org.cytoscape.model.CyTableManager;
 import org.cytoscape.model.subnetwork.CyRootNetworkManager;
 import org.cytoscape.property.CyProperty;
 import org.cytoscape.rest.TaskFactoryManager;
+import org.cytoscape.rest.internal.ChangeNotifier;
 import org.cytoscape.rest.internal.CyActivator.WriterListener;
 import org.cytoscape.rest.internal.EdgeBundler;
 import org.cytoscape.rest.internal.MappingFactoryManager;
+import org.cytoscape.rest.internal.ModelVersionTracker;
 import org.cytoscape.rest.internal.reader.EdgeListReaderFactory;
+import org.cytoscape.rest.internal.serializer.GraphObjectSerializer;
+import org.cytoscape.rest.internal.serializer.JacksonProvider;
+import org.cytoscape.rest.internal.serializer.VisualStyleSerializer;
 import org.cytoscape.session.CySessionManager;
 import org.cytoscape.task.NetworkTaskFactory;
 import org.cytoscape.task.create.NewNetworkSelectedNodesAndEdgesTaskFactory;
@@ -74,6 +80,15 @@ public class CyBinder extends AbstractBinder {
 	private final OpenSessionTaskFactory openSessionTaskFactory;
 	private final NewSessionTaskFactory newSessionTaskFactory;
 
+	// Shared JSON utilities
+	private final JacksonProvider jackson;
+	private final GraphObjectSerializer graphObjectSerializer;
+	private final VisualStyleSerializer visualStyleSerializer;
+
+	private final ModelVersionTracker versionTracker;
+	private final ChangeNotifier changeNotifier;
+	private final CyEventHelper eventHelper;
+	private final JobManager jobManager;
 
 	public CyBinder(final CyNetworkManager networkManager, final CyNetworkViewManager networkViewManager,
 			final CyNetworkFactory networkFactory, final TaskFactoryManager tfManager,
@@ -90,7 +105,9 @@ public class CyBinder extends AbstractBinder {
 			final CyTableFactory tableFactory, final NetworkTaskFactory fitContent, final EdgeBundler edgeBundler,
 			final RenderingEngineManager renderingEngineManager, final CySessionManager sessionManager,
 			final SaveSessionAsTaskFactory saveSessionAsTaskFactory, final OpenSessionTaskFactory openSessionTaskFactory,
-			final NewSessionTaskFactory newSessionTaskFactory) {
+			final NewSessionTaskFactory newSessionTaskFactory, final JacksonProvider jackson,
+			final ModelVersionTracker versionTracker, final ChangeNotifier changeNotifier,
+			final CyEventHelper eventHelper, final JobManager jobManager) {
 		this.networkManager = networkManager;
 		this.networkViewManager = networkViewManager;
 		this.networkFactory = networkFactory;
@@ -121,6 +138,13 @@ public class CyBinder extends AbstractBinder {
 		this.saveSessionAsTaskFactory = saveSessionAsTaskFactory;
 		this.openSessionTaskFactory = openSessionTaskFactory;
 		this.newSessionTaskFactory = newSessionTaskFactory;
+		this.jackson = jackson;
+		this.graphObjectSerializer = new GraphObjectSerializer(jackson);
+		this.visualStyleSerializer = new VisualStyleSerializer(jackson);
+		this.versionTracker = versionTracker;
+		this.changeNotifier = changeNotifier;
+		this.eventHelper = eventHelper;
+		this.jobManager = jobManager;
 	}
 
 
@@ -156,5 +180,12 @@ public class CyBinder extends AbstractBinder {
 		bind(saveSessionAsTaskFactory).to(SaveSessionAsTaskFactory.class);
 		bind(openSessionTaskFactory).to(OpenSessionTaskFactory.class);
 		bind(newSessionTaskFactory).to(NewSessionTaskFactory.class);
+		bind(jackson).to(JacksonProvider.class);
+		bind(graphObjectSerializer).to(GraphObjectSerializer.class);
+		bind(visualStyleSerializer).to(VisualStyleSerializer.class);
+		bind(versionTracker).to(ModelVersionTracker.class);
+		bind(changeNotifier).to(ChangeNotifier.class);
+		bind(eventHelper).to(CyEventHelper.class);
+		bind(jobManager).to(JobManager.class);
 	}
 }
\ No newline at end of file
@@ -7,20 +7,26 @@ import javax.ws.rs.core.UriBuilder;
 
 import org.cytoscape.property.CyProperty;
 import org.cytoscape.rest.internal.resource.AlgorithmicResource;
+import org.cytoscape.rest.internal.resource.CompressionFilter;
+import org.cytoscape.rest.internal.resource.EventResource;
 import org.cytoscape.rest.internal.resource.GlobalTableResource;
 import org.cytoscape.rest.internal.resource.GroupResource;
+import org.cytoscape.rest.internal.resource.JobResource;
 import org.cytoscape.rest.internal.resource.MiscResource;
 import org.cytoscape.rest.internal.resource.NetworkFullResource;
 import org.cytoscape.rest.internal.resource.NetworkResource;
 import org.cytoscape.rest.internal.resource.NetworkViewResource;
+import org.cytoscape.rest.internal.resource.ResponseCache;
 import org.cytoscape.rest.internal.resource.RootResource;
 import org.cytoscape.rest.internal.resource.SessionResource;
 import org.cytoscape.rest.internal.resource.StyleResource;
 import org.cytoscape.rest.internal.resource.TableResource;
+import org.cytoscape.rest.internal.serializer.BinaryJsonProvider;
 import org.glassfish.grizzly.http.server.HttpServer;
 import org.glassfish.hk2.utilities.Binder;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.jackson.JacksonFeature;
+import org.glassfish.jersey.media.sse.SseFeature;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,11 +45,15 @@ public final class GrizzlyServerManager {
 	private Integer portNumber = DEF_PORT_NUMBER;
 
 	private final Binder binder;
+	private final CompressionFilter compressionFilter;
+	private final ResponseCache responseCache;
 
 	private HttpServer server = null;
 
 	public GrizzlyServerManager(final Binder binder, CyProperty<Properties> props) {
 		this.binder = binder;
+		this.compressionFilter = new CompressionFilter(props.getProperties());
+		this.responseCache = new ResponseCache(props.getProperties());
 
 		// Get property from property
 		Object portNumberProp = props.getProperties().get(PORT_NUMBER_PROP);
@@ -71,9 +81,15 @@ public final class GrizzlyServerManager {
 					StyleResource.class,
 					GroupResource.class,
 					GlobalTableResource.class,
-					SessionResource.class);
+					SessionResource.class,
+					EventResource.class,
+					JobResource.class);
 			rc.registerInstances(binder).packages("org.glassfish.jersey.examples.jackson")
-					.register(JacksonFeature.class);
+					.register(JacksonFeature.class)
+					.register(SseFeature.class)
+					.register(BinaryJsonProvider.class)
+					.register(compressionFilter)
+					.register(responseCache);
 
 			this.server = GrizzlyHttpServerFactory.createHttpServer(baseURI, rc);
 			logger.info("========== Cytoscape RESTful API service started.  Listening at port: " + portNumber + " ==============");
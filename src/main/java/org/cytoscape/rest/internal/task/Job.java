@@ -0,0 +1,184 @@
+package org.cytoscape.rest.internal.task;
+
+import org.cytoscape.work.TaskMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Long running work which is executed in the background by the
+ * {@link JobManager}.  Clients poll the state, progress and result of the
+ * job.
+ *
+ * Finished jobs are kept for a while, so the job drops its {@link Work}
+ * when it is finished and only keeps the result.
+ *
+ */
+public final class Job implements Runnable {
+
+	private static final Logger logger = LoggerFactory.getLogger(Job.class);
+
+	public enum State {
+		QUEUED, RUNNING, DONE, FAILED, CANCELLED;
+
+		/**
+		 * @return true if the job will not change anymore
+		 */
+		public boolean isFinished() {
+			return this == DONE || this == FAILED || this == CANCELLED;
+		}
+	}
+
+	/**
+	 * What a job does.  It may hold large objects such as readers and
+	 * networks, which are released with it when the job is finished.
+	 */
+	public interface Work {
+
+		/**
+		 * Do the work.
+		 *
+		 * @param monitor monitor which records the progress
+		 * @return result which can be serialized by Jackson, or null if the
+		 *         work has been cancelled
+		 */
+		Object execute(TaskMonitor monitor) throws Exception;
+
+		/**
+		 * Stop the work while it is executed.
+		 */
+		void cancel();
+
+		/**
+		 * Release the resources of the work.  Called once, after the work
+		 * has been executed or the job has been cancelled before it started.
+		 */
+		void dispose();
+	}
+
+	private final String title;
+	private final JobTaskMonitor monitor = new JobTaskMonitor();
+	private final long created = System.currentTimeMillis();
+
+	private long id;
+	private Work work;
+	private State state = State.QUEUED;
+	private boolean cancelRequested;
+	private Object result;
+	private String error;
+	private long started;
+	private long finished;
+
+	/**
+	 * @param title description of the job for clients
+	 * @param work what the job does
+	 */
+	public Job(final String title, final Work work) {
+		this.title = title;
+		this.work = work;
+	}
+
+	@Override
+	public void run() {
+		final Work work;
+		synchronized (this) {
+			if (state != State.QUEUED) {
+				return;
+			}
+			state = State.RUNNING;
+			started = System.currentTimeMillis();
+			work = this.work;
+		}
+
+		Object result = null;
+		String error = null;
+		try {
+			result = work.execute(monitor);
+		} catch (Exception e) {
+			logger.warn("Job " + id + " failed.", e);
+			error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+		} finally {
+			work.dispose();
+		}
+
+		synchronized (this) {
+			this.work = null;
+			if (error != null) {
+				this.state = State.FAILED;
+				this.error = error;
+			} else if (result == null && cancelRequested) {
+				this.state = State.CANCELLED;
+			} else {
+				this.state = State.DONE;
+				this.result = result;
+			}
+			finished = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * Cancel the job.  A queued job will not run, and the work of a running
+	 * job is cancelled.  Finished jobs are not changed.
+	 */
+	public void cancel() {
+		final Work work;
+		final boolean queued;
+		synchronized (this) {
+			if (state.isFinished()) {
+				return;
+			}
+			cancelRequested = true;
+			work = this.work;
+			queued = state == State.QUEUED;
+			if (queued) {
+				state = State.CANCELLED;
+				finished = System.currentTimeMillis();
+				this.work = null;
+			}
+		}
+		if (queued) {
+			work.dispose();
+		} else {
+			work.cancel();
+		}
+	}
+
+	final void setId(final long id) {
+		this.id = id;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public JobTaskMonitor getMonitor() {
+		return monitor;
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	public synchronized Object getResult() {
+		return result;
+	}
+
+	public synchronized String getError() {
+		return error;
+	}
+
+	public long getCreated() {
+		return created;
+	}
+
+	public synchronized long getStarted() {
+		return started;
+	}
+
+	public synchronized long getFinished() {
+		return finished;
+	}
+}
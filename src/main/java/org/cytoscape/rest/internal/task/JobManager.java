@@ -0,0 +1,122 @@
+package org.cytoscape.rest.internal.task;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs {@link Job}s in the background, one at a time, and keeps them until
+ * they are removed.
+ *
+ * Jobs run on a dedicated thread instead of the server threads, so requests
+ * can return before the work is done.  The jobs are run in order because
+ * the network model is not designed for concurrent changes.  Only the last
+ * {@link #MAX_FINISHED} finished jobs are kept.
+ *
+ */
+public final class JobManager {
+
+	public static final int MAX_FINISHED = 100;
+
+	private final AtomicLong nextId = new AtomicLong(1);
+	// Jobs in the order of submission
+	private final Map<Long, Job> jobs = new LinkedHashMap<Long, Job>();
+	private final ExecutorService executor;
+
+	public JobManager() {
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, "cyREST jobs");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Queue a job.
+	 *
+	 * @param job job to be run
+	 * @return the job, with its ID
+	 */
+	public Job submit(final Job job) {
+		job.setId(nextId.getAndIncrement());
+		synchronized (jobs) {
+			removeFinished(MAX_FINISHED - 1);
+			jobs.put(job.getId(), job);
+		}
+		executor.execute(job);
+		return job;
+	}
+
+	/**
+	 * @return the job, or null if it does not exist
+	 */
+	public Job getJob(final long id) {
+		synchronized (jobs) {
+			return jobs.get(id);
+		}
+	}
+
+	/**
+	 * @return all jobs in the order of submission
+	 */
+	public List<Job> getJobs() {
+		synchronized (jobs) {
+			return new ArrayList<Job>(jobs.values());
+		}
+	}
+
+	/**
+	 * Cancel a job if it is not finished, otherwise forget it.
+	 *
+	 * @return the job, or null if it does not exist
+	 */
+	public Job cancel(final long id) {
+		final Job job = getJob(id);
+		if (job == null) {
+			return null;
+		}
+		if (job.getState().isFinished()) {
+			synchronized (jobs) {
+				jobs.remove(id);
+			}
+		} else {
+			job.cancel();
+		}
+		return job;
+	}
+
+	/**
+	 * Cancel all jobs and stop the thread.
+	 */
+	public void dispose() {
+		for (final Job job : getJobs()) {
+			job.cancel();
+		}
+		executor.shutdownNow();
+	}
+
+	private final void removeFinished(final int max) {
+		int count = 0;
+		for (final Job job : jobs.values()) {
+			if (job.getState().isFinished()) {
+				count++;
+			}
+		}
+		final Iterator<Job> it = jobs.values().iterator();
+		while (count > max && it.hasNext()) {
+			if (it.next().getState().isFinished()) {
+				it.remove();
+				count--;
+			}
+		}
+	}
+}
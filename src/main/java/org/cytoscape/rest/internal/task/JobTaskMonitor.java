@@ -0,0 +1,57 @@
+package org.cytoscape.rest.internal.task;
+
+/**
+ * Task monitor which keeps the last title, status and progress of a task, so
+ * they can be polled while the task runs in the background.
+ *
+ */
+public class JobTaskMonitor extends HeadlessTaskMonitor {
+
+	private volatile String title;
+	private volatile String statusMessage;
+	private volatile double progress = -1;
+
+	@Override
+	public void setTitle(final String title) {
+		super.setTitle(title);
+		this.title = title;
+	}
+
+	@Override
+	public void setStatusMessage(final String statusMessage) {
+		super.setStatusMessage(statusMessage);
+		this.statusMessage = statusMessage;
+	}
+
+	@Override
+	public void setProgress(final double progress) {
+		this.progress = progress;
+	}
+
+	@Override
+	public void showMessage(final Level level, final String message) {
+		super.showMessage(level, message);
+		this.statusMessage = message;
+	}
+
+	/**
+	 * @return last title, or null
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * @return last status message, or null
+	 */
+	public String getStatusMessage() {
+		return statusMessage;
+	}
+
+	/**
+	 * @return progress from 0 to 1, or -1 if it is unknown
+	 */
+	public double getProgress() {
+		return progress;
+	}
+}
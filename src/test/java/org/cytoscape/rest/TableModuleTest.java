@@ -1,5 +1,6 @@
 package org.cytoscape.rest;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -13,6 +14,7 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 
 import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyRow;
 import org.cytoscape.model.CyTable;
 import org.cytoscape.model.NetworkTestSupport;
 import org.cytoscape.rest.internal.serializer.TableModule;
@@ -65,6 +67,29 @@ public class TableModuleTest {
 		
 	}
 	
+	@Test
+	public void testRowSerializerAfterColumnChanges() throws Exception {
+		this.tableObjectMapper = new ObjectMapper();
+		this.tableObjectMapper.registerModule(new TableModule());
+
+		final CyNetwork network = buildNetwork();
+		final CyTable table = network.getDefaultNetworkTable();
+		final CyRow row = network.getRow(network);
+
+		String result = tableObjectMapper.writeValueAsString(row);
+		assertTrue(result.contains("\"description\":\"this is a test\""));
+
+		// Cached plan should not be used once columns are modified
+		table.createColumn("score 1", Double.class, false);
+		row.set("score 1", 1.5);
+		table.getColumn("description").setName("comment");
+
+		result = tableObjectMapper.writeValueAsString(row);
+		assertTrue(result.contains("\"score_1\":1.5"));
+		assertTrue(result.contains("\"comment\":\"this is a test\""));
+		assertFalse(result.contains("\"description\""));
+	}
+
 	private final CyNetwork buildNetwork() {
 		
 		final CyNetwork network = testSupport.getNetwork();
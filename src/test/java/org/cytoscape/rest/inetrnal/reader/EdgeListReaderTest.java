@@ -2,20 +2,27 @@ package org.cytoscape.rest.inetrnal.reader;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.InputStream;
 
 import org.cytoscape.application.CyApplicationManager;
 import org.cytoscape.ding.NetworkViewTestSupport;
+import org.cytoscape.event.CyEventHelper;
+import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyRow;
 import org.cytoscape.model.NetworkTestSupport;
 import org.cytoscape.model.subnetwork.CyRootNetworkManager;
 import org.cytoscape.rest.internal.reader.EdgeListReader;
+import org.cytoscape.rest.internal.reader.MappedFileInputStream;
 import org.cytoscape.view.layout.CyLayoutAlgorithm;
 import org.cytoscape.view.layout.CyLayoutAlgorithmManager;
 import org.cytoscape.view.model.CyNetworkView;
@@ -102,10 +109,74 @@ public class EdgeListReaderTest {
 		assertEquals(999, edgeCount);
 	}
 
+	@Test
+	public void testMappedFile() throws Exception {
+		final EdgeListReader reader = read(new MappedFileInputStream(new File("./src/test/resources/small.el")), false);
+		final CyNetwork network = reader.getNetworks()[0];
+		assertEquals(331, network.getNodeCount());
+		assertEquals(362, network.getEdgeCount());
+	}
+
+	@Test
+	public void testLineFormats() throws Exception {
+		final String edgeList = "a b\r\n\r\n  b\tc  \nc\nc d e\na c\n\u00e4 a";
+		final EdgeListReader reader = read(new ByteArrayInputStream(edgeList.getBytes("UTF-8")), true);
+		final CyNetwork network = reader.getNetworks()[0];
+
+		assertEquals(4, network.getNodeCount());
+		assertEquals(4, network.getEdgeCount());
+		for (final CyEdge edge : network.getEdgeList()) {
+			// Edge columns and node names share the same names
+			final String source = network.getRow(edge).get("source", String.class);
+			final String target = network.getRow(edge).get("target", String.class);
+			assertEquals(source, network.getRow(edge.getSource()).get(CyNetwork.NAME, String.class));
+			assertEquals(target, network.getRow(edge.getTarget()).get(CyNetwork.NAME, String.class));
+			if (source.equals("\u00e4")) {
+				assertEquals("a", target);
+			}
+		}
+	}
+
+	@Test
+	public void testHeaderColumns() throws Exception {
+		final String edgeList = "#source target weight:Double interaction score:Integer\n"
+				+ "# comment\n" + "a b 0.5 pp 3\n" + "b c x\n" + "c a 1e2 pd 4 extra\n";
+		final EdgeListReader reader = read(new ByteArrayInputStream(edgeList.getBytes("UTF-8")), false);
+		final CyNetwork network = reader.getNetworks()[0];
+
+		assertEquals(3, network.getNodeCount());
+		assertEquals(3, network.getEdgeCount());
+		assertNull(network.getDefaultEdgeTable().getColumn("source"));
+		assertEquals(Double.class, network.getDefaultEdgeTable().getColumn("weight").getType());
+		assertEquals(Integer.class, network.getDefaultEdgeTable().getColumn("score").getType());
+
+		for (final CyEdge edge : network.getEdgeList()) {
+			final CyRow row = network.getRow(edge);
+			final String source = network.getRow(edge.getSource()).get(CyNetwork.NAME, String.class);
+			if (source.equals("a")) {
+				assertEquals(Double.valueOf(0.5), row.get("weight", Double.class));
+				assertEquals("pp", row.get(CyEdge.INTERACTION, String.class));
+				assertEquals(Integer.valueOf(3), row.get("score", Integer.class));
+			} else if (source.equals("b")) {
+				// Invalid and missing values
+				assertNull(row.get("weight", Double.class));
+				assertEquals("-", row.get(CyEdge.INTERACTION, String.class));
+				assertNull(row.get("score", Integer.class));
+			} else {
+				assertEquals(Double.valueOf(100), row.get("weight", Double.class));
+				assertEquals(Integer.valueOf(4), row.get("score", Integer.class));
+			}
+		}
+	}
+
 	private EdgeListReader readFile(final String fileName) throws Exception {
-		File f = new File("./src/test/resources/" + fileName);
-		EdgeListReader snvp = new EdgeListReader(new FileInputStream(f), viewFactory, netFactory, this.networkManager,
-				this.rootNetworkManager, "collection1");
+		return read(new FileInputStream(new File("./src/test/resources/" + fileName)), false);
+	}
+
+	private EdgeListReader read(final InputStream is, final boolean nodeNameColumns) throws Exception {
+		EdgeListReader snvp = new EdgeListReader(is, viewFactory, netFactory, this.networkManager,
+				this.rootNetworkManager, "collection1", mock(CyEventHelper.class));
+		snvp.setNodeNameColumns(nodeNameColumns);
 		new TaskIterator(snvp);
 		snvp.run(taskMonitor);
 
@@ -29,6 +29,7 @@ import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyNetworkTableManager;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyTableFactory;
 import org.cytoscape.model.CyTableManager;
@@ -36,22 +37,30 @@ import org.cytoscape.model.NetworkTestSupport;
 import org.cytoscape.model.subnetwork.CyRootNetworkManager;
 import org.cytoscape.property.CyProperty;
 import org.cytoscape.rest.TaskFactoryManager;
+import org.cytoscape.rest.internal.ChangeNotifier;
 import org.cytoscape.rest.internal.CyActivator.WriterListener;
 import org.cytoscape.rest.internal.EdgeBundler;
 import org.cytoscape.rest.internal.MappingFactoryManager;
+import org.cytoscape.rest.internal.ModelVersionTracker;
 import org.cytoscape.rest.internal.reader.EdgeListReaderFactory;
 import org.cytoscape.rest.internal.resource.AlgorithmicResource;
+import org.cytoscape.rest.internal.resource.CompressionFilter;
+import org.cytoscape.rest.internal.resource.EventResource;
 import org.cytoscape.rest.internal.resource.GlobalTableResource;
 import org.cytoscape.rest.internal.resource.GroupResource;
 import org.cytoscape.rest.internal.resource.MiscResource;
 import org.cytoscape.rest.internal.resource.NetworkFullResource;
 import org.cytoscape.rest.internal.resource.NetworkResource;
 import org.cytoscape.rest.internal.resource.NetworkViewResource;
+import org.cytoscape.rest.internal.resource.ResponseCache;
 import org.cytoscape.rest.internal.resource.RootResource;
 import org.cytoscape.rest.internal.resource.SessionResource;
 import org.cytoscape.rest.internal.resource.StyleResource;
 import org.cytoscape.rest.internal.resource.TableResource;
+import org.cytoscape.rest.internal.serializer.BinaryJsonProvider;
+import org.cytoscape.rest.internal.serializer.JacksonProvider;
 import org.cytoscape.rest.internal.task.CyBinder;
+import org.cytoscape.rest.internal.task.JobManager;
 import org.cytoscape.rest.internal.task.HeadlessTaskMonitor;
 import org.cytoscape.service.util.CyServiceRegistrar;
 import org.cytoscape.session.CySessionManager;
@@ -92,6 +101,7 @@ import org.glassfish.grizzly.http.server.HttpServer;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.jackson.JacksonFeature;
+import org.glassfish.jersey.media.sse.SseFeature;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.test.DeploymentContext;
 import org.glassfish.jersey.test.JerseyTest;
@@ -105,6 +115,13 @@ public class BasicResourceTest extends JerseyTest {
 	protected NetworkViewTestSupport nvts = new NetworkViewTestSupport();
 
 	protected final CyBinder binder;
+	protected final CyEventHelper cyEventHelper = mock(CyEventHelper.class);
+	protected final ModelVersionTracker versionTracker = new ModelVersionTracker(cyEventHelper);
+	protected final ChangeNotifier changeNotifier = new ChangeNotifier(new Properties(), versionTracker,
+			mock(CyNetworkTableManager.class), new JacksonProvider());
+	protected final Properties cyProperties = new Properties();
+	protected final JobManager jobManager = new JobManager();
+	protected final EdgeListReaderFactory edgeListReaderFactory = mock(EdgeListReaderFactory.class);
 
 	protected CyNetwork network;
 	protected CyNetworkView view;
@@ -174,8 +191,8 @@ public class BasicResourceTest extends JerseyTest {
 		CyGroupManager groupManager = mock(CyGroupManager.class);
 		LoadNetworkURLTaskFactory loadNetworkURLTaskFactory = mock(LoadNetworkURLTaskFactory.class);
 		CyProperty<Properties> cyPropertyServiceRef = mock(CyProperty.class);
+		when(cyPropertyServiceRef.getProperties()).thenReturn(cyProperties);
 		NewNetworkSelectedNodesAndEdgesTaskFactory networkSelectedNodesAndEdgesTaskFactory = mock(NewNetworkSelectedNodesAndEdgesTaskFactory.class);
-		EdgeListReaderFactory edgeListReaderFactory = mock(EdgeListReaderFactory.class);
 		CyTableFactory tableFactory = mock(CyTableFactory.class);
 		NetworkTaskFactory fitContent = mock(NetworkTaskFactory.class);
 		EdgeBundler edgeBundler = mock(EdgeBundler.class);
@@ -197,7 +214,8 @@ public class BasicResourceTest extends JerseyTest {
 				cyPropertyServiceRef, networkSelectedNodesAndEdgesTaskFactory,
 				edgeListReaderFactory, viewFactory, tableFactory, fitContent,
 				edgeBundler, renderingEngineManager, sessionManager, 
-				saveSessionAsTaskFactory, openSessionTaskFactory, newSessionTaskFactory);
+				saveSessionAsTaskFactory, openSessionTaskFactory, newSessionTaskFactory,
+				new JacksonProvider(), versionTracker, changeNotifier, cyEventHelper, jobManager);
 	}
 	
 	
@@ -441,11 +459,15 @@ public class BasicResourceTest extends JerseyTest {
 									AlgorithmicResource.class,
 									StyleResource.class, GroupResource.class,
 									GlobalTableResource.class,
-									SessionResource.class);
+									SessionResource.class, EventResource.class);
 							rc.registerInstances(binder)
 									.packages(
 											"org.glassfish.jersey.examples.jackson")
-									.register(JacksonFeature.class);
+									.register(JacksonFeature.class)
+									.register(SseFeature.class)
+									.register(BinaryJsonProvider.class)
+									.register(new CompressionFilter(new Properties()))
+									.register(new ResponseCache(new Properties()));
 
 							this.server = GrizzlyHttpServerFactory
 									.createHttpServer(baseUri, rc);
@@ -456,6 +478,8 @@ public class BasicResourceTest extends JerseyTest {
 
 					@Override
 					public void stop() {
+						changeNotifier.dispose();
+						jobManager.dispose();
 						this.server.stop();
 					}
 				};
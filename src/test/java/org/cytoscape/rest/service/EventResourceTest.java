@@ -0,0 +1,60 @@
+package org.cytoscape.rest.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.concurrent.Future;
+
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Response;
+
+import org.cytoscape.model.events.AddedNodesEvent;
+import org.cytoscape.rest.internal.resource.EventResource;
+import org.glassfish.jersey.media.sse.EventInput;
+import org.glassfish.jersey.media.sse.InboundEvent;
+import org.glassfish.jersey.media.sse.SseFeature;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class EventResourceTest extends BasicResourceTest {
+
+	private ObjectMapper mapper = new ObjectMapper();
+
+	@Override
+	protected Application configure() {
+		return new ResourceConfig(EventResource.class);
+	}
+
+	@Test(timeout = 10000)
+	public void testChangeEvents() throws Exception {
+		final Future<EventInput> subscription = target("/v1/events").register(SseFeature.class)
+				.queryParam("networks", network.getSUID()).request().async().get(EventInput.class);
+
+		// Changes are merged, so sending the event again until the
+		// subscription is open results in a single notification.
+		while (!subscription.isDone()) {
+			changeNotifier.handleEvent(new AddedNodesEvent(network, Collections.singletonList(network.getNodeList()
+					.get(0))));
+			Thread.sleep(50);
+		}
+
+		final EventInput events = subscription.get();
+		final InboundEvent event = events.read();
+		assertEquals("changes", event.getName());
+		final JsonNode root = mapper.readTree(event.readData(String.class));
+		final JsonNode changed = root.get("networks");
+		assertEquals(1, changed.size());
+		assertEquals(network.getSUID().longValue(), changed.get(0).get("SUID").asLong());
+		assertEquals("nodes", changed.get(0).get("changed").get(0).asText());
+		events.close();
+	}
+
+	@Test
+	public void testSubscribeToInvalidNetwork() throws Exception {
+		final Response response = target("/v1/events").queryParam("networks", "-1").request().get();
+		assertEquals(404, response.getStatus());
+	}
+}
@@ -0,0 +1,227 @@
+package org.cytoscape.rest.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Response;
+
+import org.cytoscape.io.read.CyNetworkReader;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.rest.internal.resource.JobResource;
+import org.cytoscape.rest.internal.resource.NetworkResource;
+import org.cytoscape.rest.internal.task.Job;
+import org.cytoscape.view.model.CyNetworkView;
+import org.cytoscape.work.AbstractTask;
+import org.cytoscape.work.TaskIterator;
+import org.cytoscape.work.TaskMonitor;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JobResourceTest extends BasicResourceTest {
+
+	private ObjectMapper mapper = new ObjectMapper();
+
+	@Override
+	protected Application configure() {
+		return new ResourceConfig(JobResource.class, NetworkResource.class);
+	}
+
+	/**
+	 * Task which runs until it is cancelled.
+	 */
+	private static final class BlockingTask extends AbstractTask {
+
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch cancelled = new CountDownLatch(1);
+
+		@Override
+		public void run(final TaskMonitor tm) throws Exception {
+			tm.setProgress(0.5);
+			started.countDown();
+			cancelled.await(10, TimeUnit.SECONDS);
+		}
+
+		@Override
+		public void cancel() {
+			super.cancel();
+			cancelled.countDown();
+		}
+	}
+
+	/**
+	 * Network reader which reads the input and runs until it is cancelled.
+	 */
+	private static final class BlockingReader extends AbstractTask implements CyNetworkReader {
+
+		private final InputStream is;
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch cancelled = new CountDownLatch(1);
+		private volatile String body;
+
+		BlockingReader(final InputStream is) {
+			this.is = is;
+		}
+
+		@Override
+		public void run(final TaskMonitor tm) throws Exception {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[1024];
+			int read;
+			while ((read = is.read(buffer)) >= 0) {
+				bytes.write(buffer, 0, read);
+			}
+			body = bytes.toString("UTF-8");
+			started.countDown();
+			cancelled.await(10, TimeUnit.SECONDS);
+		}
+
+		@Override
+		public void cancel() {
+			super.cancel();
+			cancelled.countDown();
+		}
+
+		@Override
+		public CyNetwork[] getNetworks() {
+			return new CyNetwork[0];
+		}
+
+		@Override
+		public CyNetworkView buildCyNetworkView(final CyNetwork network) {
+			return null;
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testCreateNetworkAsync() throws Exception {
+		final AtomicReference<BlockingReader> reader = new AtomicReference<BlockingReader>();
+		when(edgeListReaderFactory.createTaskIterator(any(InputStream.class), any(String.class))).thenAnswer(
+				new Answer<TaskIterator>() {
+					@Override
+					public TaskIterator answer(InvocationOnMock invocation) {
+						reader.set(new BlockingReader((InputStream) invocation.getArguments()[0]));
+						return new TaskIterator(reader.get());
+					}
+				});
+		final Set<File> tempFiles = getTempFiles();
+
+		final Response response = target("/v1/networks").queryParam("format", "edgelist")
+				.queryParam("async", true).request().post(Entity.json("a b\n"));
+		assertEquals(202, response.getStatus());
+		final long jobId = mapper.readTree(response.readEntity(String.class)).get("jobId").asLong();
+		assertTrue(response.getLocation().getPath().endsWith("/v1/jobs/" + jobId));
+
+		// The body has been stored in a temporary file for the job.
+		reader.get().started.await();
+		assertEquals("a b\n", reader.get().body);
+		final Set<File> jobFiles = getTempFiles();
+		jobFiles.removeAll(tempFiles);
+		assertEquals(1, jobFiles.size());
+		assertEquals("RUNNING", getJob(jobId, 200).get("state").asText());
+
+		assertEquals(200, target("/v1/jobs/" + jobId).request().delete().getStatus());
+		while (!jobManager.getJob(jobId).getState().isFinished()) {
+			Thread.sleep(10);
+		}
+		assertEquals("CANCELLED", getJob(jobId, 200).get("state").asText());
+		assertFalse(jobFiles.iterator().next().exists());
+	}
+
+	private Set<File> getTempFiles() {
+		final Set<File> files = new HashSet<File>();
+		final File[] all = new File(System.getProperty("java.io.tmpdir")).listFiles();
+		if (all != null) {
+			for (final File file : all) {
+				if (file.getName().startsWith("cyREST-network-")) {
+					files.add(file);
+				}
+			}
+		}
+		return files;
+	}
+
+	@Test(timeout = 10000)
+	public void testJobs() throws Exception {
+		final BlockingTask task = new BlockingTask();
+		final Job running = jobManager.submit(new Job("blocking", new Job.Work() {
+			@Override
+			public Object execute(final TaskMonitor monitor) throws Exception {
+				task.run(monitor);
+				return null;
+			}
+
+			@Override
+			public void cancel() {
+				task.cancel();
+			}
+
+			@Override
+			public void dispose() {
+			}
+		}));
+		final Job queued = jobManager.submit(new Job("queued", new Job.Work() {
+			@Override
+			public Object execute(final TaskMonitor monitor) throws Exception {
+				return Collections.singletonMap("answer", 42);
+			}
+
+			@Override
+			public void cancel() {
+			}
+
+			@Override
+			public void dispose() {
+			}
+		}));
+		task.started.await();
+
+		JsonNode job = getJob(running.getId(), 200);
+		assertEquals("RUNNING", job.get("state").asText());
+		assertEquals(0.5, job.get("progress").asDouble(), 0.0);
+		assertEquals("QUEUED", getJob(queued.getId(), 200).get("state").asText());
+
+		final Response cancel = target("/v1/jobs/" + running.getId()).request().delete();
+		assertEquals(200, cancel.getStatus());
+		while (!queued.getState().isFinished()) {
+			Thread.sleep(10);
+		}
+		assertEquals("CANCELLED", getJob(running.getId(), 200).get("state").asText());
+
+		job = getJob(queued.getId(), 200);
+		assertEquals("DONE", job.get("state").asText());
+		assertEquals(42, job.get("result").get("answer").asInt());
+
+		final JsonNode jobs = mapper.readTree(target("/v1/jobs").request().get(String.class));
+		assertEquals(2, jobs.size());
+
+		// Finished jobs are removed.
+		assertEquals(200, target("/v1/jobs/" + queued.getId()).request().delete().getStatus());
+		getJob(queued.getId(), 404);
+	}
+
+	private JsonNode getJob(final long id, final int status) throws Exception {
+		final Response response = target("/v1/jobs/" + id).request().get();
+		assertEquals(status, response.getStatus());
+		return status == 200 ? mapper.readTree(response.readEntity(String.class)) : null;
+	}
+}
@@ -1,18 +1,42 @@
 package org.cytoscape.rest.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
 import java.util.List;
 
+import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Link;
+import javax.ws.rs.core.Response;
 
 import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.RowSetRecord;
+import org.cytoscape.model.events.AboutToRemoveNodesEvent;
+import org.cytoscape.model.events.AddedNodesEvent;
+import org.cytoscape.model.events.RowsSetEvent;
 import org.cytoscape.rest.internal.resource.NetworkResource;
+import org.cytoscape.rest.internal.resource.NetworkViewResource;
+import org.cytoscape.view.model.events.ViewChangeRecord;
+import org.cytoscape.view.model.events.ViewChangedEvent;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -23,7 +47,7 @@ public class NetworkResourceTest extends BasicResourceTest {
 	
 	@Override
 	protected Application configure() {
-		return new ResourceConfig(NetworkResource.class);
+		return new ResourceConfig(NetworkResource.class, NetworkViewResource.class);
 	}
 	
 	@Test
@@ -79,6 +103,25 @@ public class NetworkResourceTest extends BasicResourceTest {
 		assertEquals(4, root.size());
 	}
 	
+	@Test
+	public void testGetNodesPaged() throws Exception {
+		final Long suid = network.getSUID();
+		final Response first = target("/v1/networks/" + suid.toString() + "/nodes")
+				.queryParam("limit", 3).request().get();
+		assertEquals(200, first.getStatus());
+		final JsonNode firstPage = mapper.readTree(first.readEntity(String.class));
+		assertEquals(3, firstPage.size());
+		assertTrue(firstPage.get(0).asLong() < firstPage.get(1).asLong());
+
+		final Link next = first.getLink("next");
+		assertNotNull(next);
+		final Response second = client().target(next).request().get();
+		final JsonNode secondPage = mapper.readTree(second.readEntity(String.class));
+		assertEquals(1, secondPage.size());
+		assertTrue(firstPage.get(2).asLong() < secondPage.get(0).asLong());
+		assertNull(second.getLink("next"));
+	}
+
 	@Test
 	public void testGetEdges() throws Exception {
 		final Long suid = network.getSUID();
@@ -128,6 +171,352 @@ public class NetworkResourceTest extends BasicResourceTest {
 		assertEquals(target.getSUID().toString(), data.get("target").asText());
 		assertEquals(false, (Boolean)data.get("selected").asBoolean());
 	}
-	
-	
+
+
+	@Test
+	public void testGetNetworkWithColumns() throws Exception {
+		cyProperties.setProperty("cytoscape.version.number", "3.1.1");
+		final String result = target("/v1/networks/" + network.getSUID().toString()).queryParam("columns", "name")
+				.request().get(String.class);
+		final JsonNode root = mapper.readTree(result);
+		assertEquals("cytoscape-3.1.1", root.get("generated_by").asText());
+		assertEquals("~2.1", root.get("target_cytoscapejs_version").asText());
+
+		final JsonNode nodes = root.get("elements").get("nodes");
+		assertEquals(network.getNodeCount(), nodes.size());
+		for (final JsonNode node : nodes) {
+			final JsonNode data = node.get("data");
+			assertTrue(data.has("id"));
+			assertTrue(data.has("name"));
+			assertFalse(data.has("selected"));
+		}
+		final JsonNode edges = root.get("elements").get("edges");
+		assertEquals(network.getEdgeCount(), edges.size());
+		for (final JsonNode edge : edges) {
+			final JsonNode data = edge.get("data");
+			assertTrue(data.has("source"));
+			assertTrue(data.has("name"));
+			assertFalse(data.has("selected"));
+		}
+
+		final Response response = target("/v1/networks/" + network.getSUID().toString())
+				.queryParam("columns", "no_such_column").request().get();
+		assertEquals(400, response.getStatus());
+	}
+
+
+	@Test
+	public void testGetNetworkNotModified() throws Exception {
+		final String path = "/v1/networks/" + network.getSUID().toString();
+
+		final Response first = target(path).queryParam("columns", "name").request().get();
+		assertEquals(200, first.getStatus());
+		final String etag = first.getHeaderString("ETag");
+		assertNotNull(etag);
+
+		final Response notModified = target(path).queryParam("columns", "name").request()
+				.header("If-None-Match", etag).get();
+		assertEquals(304, notModified.getStatus());
+		assertEquals(etag, notModified.getHeaderString("ETag"));
+
+		// Other representations have their own tags.
+		final Response projected = target(path).queryParam("columns", "SUID").request()
+				.header("If-None-Match", etag).get();
+		assertEquals(200, projected.getStatus());
+
+		// Node rows are part of the network.
+		versionTracker.handleEvent(new RowsSetEvent(network.getDefaultNodeTable(),
+				Collections.<RowSetRecord> emptyList()));
+		final Response modified = target(path).queryParam("columns", "name").request()
+				.header("If-None-Match", etag).get();
+		assertEquals(200, modified.getStatus());
+		assertFalse(etag.equals(modified.getHeaderString("ETag")));
+	}
+
+
+	@Test
+	public void testGetViewsNotModified() throws Exception {
+		final String path = "/v1/networks/" + network.getSUID().toString() + "/views/" + view.getSUID().toString()
+				+ "/nodes";
+
+		final Response first = target(path).queryParam("visualProperty", "NODE_FILL_COLOR").request().get();
+		assertEquals(200, first.getStatus());
+		final String etag = first.getHeaderString("ETag");
+		assertNotNull(etag);
+
+		final Response notModified = target(path).queryParam("visualProperty", "NODE_FILL_COLOR").request()
+				.header("If-None-Match", etag).get();
+		assertEquals(304, notModified.getStatus());
+
+		versionTracker.handleEvent(new ViewChangedEvent<Object>(view, Collections
+				.<ViewChangeRecord<Object>> emptyList()));
+		final Response modified = target(path).queryParam("visualProperty", "NODE_FILL_COLOR").request()
+				.header("If-None-Match", etag).get();
+		assertEquals(200, modified.getStatus());
+		assertFalse(etag.equals(modified.getHeaderString("ETag")));
+	}
+
+
+	@Test
+	public void testGetChanges() throws Exception {
+		final Long suid = network.getSUID();
+		final String path = "/v1/networks/" + suid.toString() + "/changes";
+
+		JsonNode root = mapper.readTree(target(path).request().get(String.class));
+		final String start = root.get("version").asText();
+		assertEquals(0, root.get("nodes").get("added").size());
+
+		final CyNode removed = network.getNodeList().get(0);
+		final CyNode added = network.addNode();
+		versionTracker.handleEvent(new AddedNodesEvent(network, Collections.singletonList(added)));
+		versionTracker.handleEvent(new AboutToRemoveNodesEvent(network, Collections.singletonList(removed)));
+		final CyRow row = network.getRow(added);
+		row.set(CyNetwork.NAME, "added");
+		versionTracker.handleEvent(new RowsSetEvent(network.getDefaultNodeTable(), Collections
+				.singletonList(new RowSetRecord(row, CyNetwork.NAME, "added", "added"))));
+
+		root = mapper.readTree(target(path).queryParam("since", start).request().get(String.class));
+		final String version = root.get("version").asText();
+		assertEquals(start, root.get("since").asText());
+		assertFalse(version.equals(start));
+		assertEquals(1, root.get("nodes").get("added").size());
+		assertEquals(added.getSUID().longValue(), root.get("nodes").get("added").get(0).asLong());
+		assertEquals(removed.getSUID().longValue(), root.get("nodes").get("removed").get(0).asLong());
+		assertEquals(0, root.get("edges").get("added").size());
+		final JsonNode rows = root.get("rows").get("defaultnode");
+		assertEquals(1, rows.size());
+		assertEquals(added.getSUID().longValue(), rows.get(0).get("SUID").asLong());
+		assertEquals("added", rows.get(0).get("name").asText());
+
+		root = mapper.readTree(target(path).queryParam("since", version).request().get(String.class));
+		assertEquals(0, root.get("nodes").get("added").size());
+		assertEquals(0, root.get("rows").get("defaultnode").size());
+
+		// Versions which have not been reached yet
+		final String future = versionTracker.getTag(versionTracker.getCurrentVersion() + 100);
+		assertEquals(410, target(path).queryParam("since", future).request().get().getStatus());
+	}
+
+
+	@Test
+	public void testGetChangesOfAddedAndRemovedNode() throws Exception {
+		final String path = "/v1/networks/" + network.getSUID().toString() + "/changes";
+		final String start = mapper.readTree(target(path).request().get(String.class)).get("version").asText();
+
+		final CyNode added = network.addNode();
+		final CyRow row = network.getRow(added);
+		row.set(CyNetwork.NAME, "transient");
+		versionTracker.handleEvent(new RowsSetEvent(network.getDefaultNodeTable(), Collections
+				.singletonList(new RowSetRecord(row, CyNetwork.NAME, "transient", "transient"))));
+
+		// The addition is still a pending payload event when the node is
+		// removed.
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				versionTracker.handleEvent(new AddedNodesEvent(network, Collections.singletonList(added)));
+				return null;
+			}
+		}).when(cyEventHelper).flushPayloadEvents();
+		versionTracker.handleEvent(new AboutToRemoveNodesEvent(network, Collections.singletonList(added)));
+		doNothing().when(cyEventHelper).flushPayloadEvents();
+
+		final JsonNode root = mapper.readTree(target(path).queryParam("since", start).request().get(String.class));
+		assertEquals(0, root.get("nodes").get("added").size());
+		assertEquals(0, root.get("nodes").get("removed").size());
+		assertEquals(0, root.get("rows").get("defaultnode").size());
+	}
+
+
+	@Test
+	public void testGetChangesOfAnotherRun() throws Exception {
+		final String path = "/v1/networks/" + network.getSUID().toString() + "/changes";
+		final String version = mapper.readTree(target(path).request().get(String.class)).get("version").asText();
+
+		// The counter of a restarted service starts over, so only the epoch
+		// tells the versions apart.
+		final String epoch = version.substring(0, version.lastIndexOf('-'));
+		final String otherRun = (epoch.equals("1") ? "2" : "1") + version.substring(epoch.length());
+		assertEquals(410, target(path).queryParam("since", otherRun).request().get().getStatus());
+
+		assertEquals(400, target(path).queryParam("since", "abc").request().get().getStatus());
+		assertEquals(400, target(path).queryParam("since", "1-x!").request().get().getStatus());
+	}
+
+
+	@Test
+	public void testCreateNodesAndEdges() throws Exception {
+		final Long suid = network.getSUID();
+		final int nodeCount = network.getNodeCount();
+		final int edgeCount = network.getEdgeCount();
+
+		final Response nodeResponse = target("/v1/networks/" + suid.toString() + "/nodes").request()
+				.post(Entity.json("[\"a\", \"b\"]"));
+		assertEquals(200, nodeResponse.getStatus());
+		final JsonNode nodes = mapper.readTree(nodeResponse.readEntity(String.class));
+		assertEquals(2, nodes.size());
+		assertEquals("a", nodes.get(0).get("name").asText());
+		assertEquals(nodeCount + 2, network.getNodeCount());
+
+		final long a = nodes.get(0).get("SUID").asLong();
+		final long b = nodes.get(1).get("SUID").asLong();
+		final String edgeJson = "[{\"source\": " + a + ", \"target\": " + b + ", \"interaction\": \"pp\", "
+				+ "\"extra\": {\"ignored\": [1, 2]}}, {\"source\": " + b + ", \"target\": " + a
+				+ ", \"directed\": false}]";
+		final Response edgeResponse = target("/v1/networks/" + suid.toString() + "/edges").request()
+				.post(Entity.json(edgeJson));
+		assertEquals(200, edgeResponse.getStatus());
+		final JsonNode edges = mapper.readTree(edgeResponse.readEntity(String.class));
+		assertEquals(2, edges.size());
+		assertEquals(a, edges.get(0).get("source").asLong());
+		assertEquals(b, edges.get(0).get("target").asLong());
+		final CyEdge edge = network.getEdge(edges.get(0).get("SUID").asLong());
+		assertEquals("pp", network.getRow(edge).get(CyEdge.INTERACTION, String.class));
+		assertTrue(network.getEdge(edges.get(0).get("SUID").asLong()).isDirected());
+		assertTrue(!network.getEdge(edges.get(1).get("SUID").asLong()).isDirected());
+		assertEquals(edgeCount + 2, network.getEdgeCount());
+
+		// Truncated body: nothing is added.
+		final Response invalid = target("/v1/networks/" + suid.toString() + "/nodes").request()
+				.post(Entity.json("[\"c\", \"d\""));
+		assertTrue(invalid.getStatus() >= 400);
+		assertEquals(nodeCount + 2, network.getNodeCount());
+	}
+
+
+	@Test
+	public void testCreateNodesDoesNotSilenceNetwork() throws Exception {
+		final Long suid = network.getSUID();
+		final Response response = target("/v1/networks/" + suid.toString() + "/nodes").request()
+				.post(Entity.json("[\"a\", \"b\", \"c\"]"));
+		assertEquals(200, response.getStatus());
+
+		// Events of other changes of a registered network must not be lost.
+		verify(cyEventHelper, never()).silenceEventSource(network);
+		verify(cyEventHelper, never()).silenceEventSource(network.getDefaultNodeTable());
+		verify(cyEventHelper, atLeastOnce()).flushPayloadEvents();
+	}
+
+
+	@Test
+	public void testCreateEdgesByKey() throws Exception {
+		final Long suid = network.getSUID();
+		final String path = "/v1/networks/" + suid.toString() + "/edges";
+		final int nodeCount = network.getNodeCount();
+		final int edgeCount = network.getEdgeCount();
+
+		final Response missing = target(path).queryParam("keyColumn", "name").request()
+				.post(Entity.json("[{\"source\": \"n1\", \"target\": \"n4\"}, {\"source\": \"n1\", \"target\": \"n5\"}]"));
+		assertEquals(400, missing.getStatus());
+		assertEquals(nodeCount, network.getNodeCount());
+		assertEquals(edgeCount, network.getEdgeCount());
+
+		final Response response = target(path).queryParam("keyColumn", "name").queryParam("createMissing", true)
+				.request()
+				.post(Entity.json("[{\"source\": \"n1\", \"target\": \"n4\"}, {\"source\": \"n5\", \"target\": \"n1\"}]"));
+		assertEquals(200, response.getStatus());
+		final JsonNode edges = mapper.readTree(response.readEntity(String.class));
+		assertEquals(2, edges.size());
+		assertEquals(nodeCount + 1, network.getNodeCount());
+		assertEquals(edgeCount + 2, network.getEdgeCount());
+
+		final CyEdge edge = network.getEdge(edges.get(1).get("SUID").asLong());
+		assertEquals("n5", network.getRow(edge.getSource()).get(CyNetwork.NAME, String.class));
+		assertEquals("n1", network.getRow(edge.getTarget()).get(CyNetwork.NAME, String.class));
+		assertEquals(edge.getSource().getSUID().longValue(), edges.get(1).get("source").asLong());
+
+		final Response noColumn = target(path).queryParam("keyColumn", "no_such_column").request()
+				.post(Entity.json("[]"));
+		assertEquals(400, noColumn.getStatus());
+	}
+
+	@Test
+	public void testUpsertNodesAndEdges() throws Exception {
+		final Long suid = network.getSUID();
+		final String nodePath = "/v1/networks/" + suid.toString() + "/nodes";
+		final int nodeCount = network.getNodeCount();
+
+		final Response nodes = target(nodePath).request().put(
+				Entity.json("[{\"name\": \"n1\", \"score\": 1.5}, {\"name\": \"n5\", \"score\": 2.0}, {\"score\": 3.0}]"));
+		assertEquals(200, nodes.getStatus());
+		final JsonNode nodeResult = mapper.readTree(nodes.readEntity(String.class));
+		assertEquals(1, nodeResult.get("created").asInt());
+		assertEquals(1, nodeResult.get("updated").asInt());
+		assertEquals(1, nodeResult.get("skipped").asInt());
+		assertEquals(nodeCount + 1, network.getNodeCount());
+
+		final CyNode n1 = network.getNode(nodeResult.get("SUID").get("n1").asLong());
+		assertEquals("n1", network.getRow(n1).get(CyNetwork.NAME, String.class));
+		assertEquals(Double.valueOf(1.5), network.getRow(n1).get("score", Double.class));
+		final CyNode n5 = network.getNode(nodeResult.get("SUID").get("n5").asLong());
+		assertEquals(Double.valueOf(2.0), network.getRow(n5).get("score", Double.class));
+
+		final String edgePath = "/v1/networks/" + suid.toString() + "/edges";
+		final int edgeCount = network.getEdgeCount();
+		final Response noSource = target(edgePath).queryParam("nodeKeyColumn", "name").request()
+				.put(Entity.json("[{\"name\": \"e1\", \"source\": \"n1\", \"target\": \"n5\"}, {\"name\": \"e2\"}]"));
+		assertEquals(400, noSource.getStatus());
+		assertEquals(edgeCount, network.getEdgeCount());
+
+		final Response edges = target(edgePath).queryParam("nodeKeyColumn", "name").request()
+				.put(Entity.json("[{\"name\": \"e1\", \"source\": \"n1\", \"target\": \"n5\", \"interaction\": \"pp\"},"
+						+ " {\"name\": \"e1\", \"weight\": 0.5}]"));
+		assertEquals(200, edges.getStatus());
+		final JsonNode edgeResult = mapper.readTree(edges.readEntity(String.class));
+		assertEquals(1, edgeResult.get("created").asInt());
+		assertEquals(1, edgeResult.get("updated").asInt());
+		assertEquals(edgeCount + 1, network.getEdgeCount());
+
+		final CyEdge e1 = network.getEdge(edgeResult.get("SUID").get("e1").asLong());
+		assertEquals(n1, e1.getSource());
+		assertEquals(n5, e1.getTarget());
+		assertEquals("pp", network.getRow(e1).get(CyEdge.INTERACTION, String.class));
+		assertEquals(Double.valueOf(0.5), network.getRow(e1).get("weight", Double.class));
+	}
+
+	@Test
+	public void testCreateNetworkFromFileIsRestricted() throws Exception {
+		final File dir = new File("./src/test/resources").getCanonicalFile();
+		final String path = new File(dir, "small.el").getPath();
+
+		// Disabled by default
+		final Response disabled = target("/v1/networks").queryParam("source", "file").queryParam("path", path)
+				.queryParam("format", "edgelist").request().post(Entity.json(""));
+		assertEquals(403, disabled.getStatus());
+
+		cyProperties.setProperty(NetworkResource.ALLOWED_DIRS_PROP, new File(dir, "json").getPath());
+		final Response outside = target("/v1/networks").queryParam("source", "file")
+				.queryParam("path", new File(dir, "json/../small.el").getPath()).queryParam("format", "edgelist")
+				.request().post(Entity.json(""));
+		assertEquals(403, outside.getStatus());
+
+		final Response missing = target("/v1/networks").queryParam("source", "file")
+				.queryParam("path", new File(dir, "json/no_such_file.el").getPath()).request().post(Entity.json(""));
+		assertEquals(404, missing.getStatus());
+
+		// Files outside cannot be told apart from missing ones.
+		final Response missingOutside = target("/v1/networks").queryParam("source", "file")
+				.queryParam("path", new File(dir, "no_such_file.el").getPath()).request().post(Entity.json(""));
+		assertEquals(403, missingOutside.getStatus());
+	}
+
+	@Test
+	public void testCreateNetworkFromFileLinkedOutside() throws Exception {
+		final java.nio.file.Path root = Files.createTempDirectory("cyREST-test-");
+		final java.nio.file.Path allowed = Files.createDirectory(root.resolve("allowed"));
+		final java.nio.file.Path secret = Files.write(root.resolve("secret.el"), "a b\n".getBytes("UTF-8"));
+		final java.nio.file.Path link = Files.createSymbolicLink(allowed.resolve("link.el"), secret);
+		try {
+			cyProperties.setProperty(NetworkResource.ALLOWED_DIRS_PROP, allowed.toString());
+			final Response response = target("/v1/networks").queryParam("source", "file")
+					.queryParam("path", link.toString()).queryParam("format", "edgelist").request()
+					.post(Entity.json(""));
+			assertEquals(403, response.getStatus());
+		} finally {
+			Files.delete(link);
+			Files.delete(secret);
+			Files.delete(allowed);
+			Files.delete(root);
+		}
+	}
 }
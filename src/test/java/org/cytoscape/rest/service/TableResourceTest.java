@@ -1,21 +1,39 @@
 package org.cytoscape.rest.service;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.doAnswer;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
+import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Response;
 
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.RowSetRecord;
+import org.cytoscape.model.events.RowsDeletedEvent;
+import org.cytoscape.model.events.RowsSetEvent;
 import org.cytoscape.rest.internal.resource.TableResource;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
 public class TableResourceTest extends BasicResourceTest {
 
@@ -40,13 +58,26 @@ public class TableResourceTest extends BasicResourceTest {
 		assertEquals(true, root.get("public").asBoolean());
 	}
 
+	@Test
+	public void testGetTableWithColumns() throws Exception {
+		final Long suid = network.getSUID();
+		String result = target("/v1/networks/" + suid.toString() + "/tables/defaultnode")
+				.queryParam("columns", "name").request().get(String.class);
+		final JsonNode rows = mapper.readTree(result).get("rows");
+		assertEquals(network.getNodeCount(), rows.size());
+		for (final JsonNode row : rows) {
+			assertTrue(row.has("name"));
+			assertFalse(row.has("selected"));
+		}
+	}
+
 	@Test
 	public void testGetTableAsCSV() throws Exception {
 		final Long suid = network.getSUID();
 		String result = target("/v1/networks/" + suid.toString() + "/tables/defaultnode.csv").request().get(
 				String.class);
 		assertNotNull(result);
-		final String[] rows = result.split("\n");
+		final String[] rows = result.split("\r\n");
 		assertFalse(rows.length == 0);
 		final String header = rows[0];
 		final String[] columnNamesArray = header.split(",");
@@ -61,6 +92,121 @@ public class TableResourceTest extends BasicResourceTest {
 		assertTrue(columnNames.contains("selected"));
 	}
 
+	@Test
+	public void testGetTableAsCSVWithColumns() throws Exception {
+		final Long suid = network.getSUID();
+		final List<CyNode> nodes = network.getNodeList();
+		final CyNode comma = nodes.get(0);
+		final CyNode quote = nodes.get(1);
+		final CyNode lineBreak = nodes.get(2);
+		network.getRow(comma).set(CyNetwork.NAME, "a,b");
+		network.getRow(quote).set(CyNetwork.NAME, "say \"hi\"");
+		network.getRow(lineBreak).set(CyNetwork.NAME, "two\nlines");
+
+		String result = target("/v1/networks/" + suid.toString() + "/tables/defaultnode.csv")
+				.queryParam("columns", "name,SUID").request().get(String.class);
+		assertNotNull(result);
+		assertTrue(result.startsWith("name,SUID\r\n"));
+		assertFalse(result.contains("selected"));
+
+		// RFC 4180: such cells are enclosed in double quotes, quotes in them
+		// are doubled, and records end with CRLF.
+		assertTrue(result.contains("\r\n\"a,b\"," + comma.getSUID() + "\r\n"));
+		assertTrue(result.contains("\r\n\"say \"\"hi\"\"\"," + quote.getSUID() + "\r\n"));
+		assertTrue(result.contains("\r\n\"two\nlines\"," + lineBreak.getSUID() + "\r\n"));
+
+		// Header and one record per node
+		assertEquals(network.getNodeCount() + 1, result.split("\r\n").length);
+	}
+
+	@Test
+	public void testGetTableAsCSVListElements() throws Exception {
+		final Long suid = network.getSUID();
+		final String path = "/v1/networks/" + suid.toString() + "/tables/defaultnode";
+		network.getDefaultNodeTable().createListColumn("tags", String.class, false);
+		final CyNode node = network.getNodeList().get(0);
+		final List<String> tags = Arrays.asList("a|b", "c\\d", "e");
+		network.getRow(node).set("tags", tags);
+
+		final String name = network.getRow(node).get(CyNetwork.NAME, String.class);
+		final String csv = target(path + ".csv").queryParam("columns", "name,tags").request().get(String.class);
+		assertTrue(csv.contains("\r\n" + name + ",a\\|b|c\\\\d|e\r\n"));
+
+		// The importer reads the same elements back.
+		network.getRow(node).set("tags", null);
+		final Response response = target(path).queryParam("key", "name").request()
+				.put(Entity.entity(csv, "text/csv"));
+		assertEquals(204, response.getStatus());
+		assertEquals(tags, network.getRow(node).getList("tags", String.class));
+	}
+
+	@Test
+	public void testGetTableAsCSVCompressed() throws Exception {
+		final Long suid = network.getSUID();
+		final String path = "/v1/networks/" + suid.toString() + "/tables/defaultnode.csv";
+
+		// Small responses are not compressed.
+		final Response small = target(path).request().header("Accept-Encoding", "gzip").get();
+		assertNull(small.getHeaderString("Content-Encoding"));
+		assertEquals("Accept-Encoding", small.getHeaderString("Vary"));
+
+		for (int i = 0; i < 500; i++) {
+			network.getRow(network.addNode()).set(CyNetwork.NAME, "node " + i);
+		}
+		final String plain = target(path).request().get(String.class);
+		final Response response = target(path).request().header("Accept-Encoding", "deflate;q=0.5, gzip").get();
+		assertEquals("gzip", response.getHeaderString("Content-Encoding"));
+
+		final InputStream is = new GZIPInputStream(response.readEntity(InputStream.class));
+		final ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[4096];
+		int length;
+		while ((length = is.read(buffer)) != -1) {
+			decoded.write(buffer, 0, length);
+		}
+		assertEquals(plain, decoded.toString("UTF-8"));
+	}
+
+	@Test
+	public void testGetTableAsColumnar() throws Exception {
+		final Long suid = network.getSUID();
+		final byte[] result = target("/v1/networks/" + suid.toString() + "/tables/defaultnode.columnar")
+				.queryParam("columns", "SUID").queryParam("batchSize", 2).request().get(byte[].class);
+		final ByteBuffer buffer = ByteBuffer.wrap(result).order(ByteOrder.LITTLE_ENDIAN);
+
+		final byte[] magic = new byte[8];
+		buffer.get(magic);
+		assertEquals("CYCOL1", new String(magic, 0, 6, "UTF-8"));
+		assertEquals(1, buffer.getInt());
+		buffer.getInt();
+		assertEquals(3, buffer.get()); // Long
+		buffer.get();
+		buffer.getShort();
+		assertEquals(4, buffer.getInt());
+		// "SUID" and padding
+		buffer.position(buffer.position() + 8);
+
+		final Set<Long> suids = new HashSet<>();
+		long count;
+		while ((count = buffer.getLong()) != -1) {
+			assertTrue(count <= 2);
+			// Validity bitmap
+			final long validity = buffer.getLong();
+			assertEquals((count + 7) / 8, validity);
+			buffer.position(buffer.position() + 8);
+			// Values
+			assertEquals(count * 8, buffer.getLong());
+			for (int i = 0; i < count; i++) {
+				suids.add(buffer.getLong());
+			}
+		}
+		assertFalse(buffer.hasRemaining());
+		assertEquals(network.getNodeCount(), suids.size());
+		for (final CyNode node : network.getNodeList()) {
+			assertTrue(suids.contains(node.getSUID()));
+		}
+	}
+
 	@Test
 	public void testGetColumnNames() throws Exception {
 		final Long suid = network.getSUID();
@@ -108,6 +254,144 @@ public class TableResourceTest extends BasicResourceTest {
 	}
 	
 	
+	@Test
+	public void testGetRowsWithColumns() throws Exception {
+		final Long suid = network.getSUID();
+		String result = target("/v1/networks/" + suid.toString() + "/tables/defaultnode/rows")
+				.queryParam("columns", "SUID,name").request().get(String.class);
+		assertNotNull(result);
+		final JsonNode root = mapper.readTree(result);
+		assertEquals(network.getNodeCount(), root.size());
+		for (final JsonNode row : root) {
+			assertEquals(2, row.size());
+			assertTrue(row.has("SUID"));
+			assertTrue(row.has("name"));
+		}
+
+		final Response response = target("/v1/networks/" + suid.toString() + "/tables/defaultnode/rows")
+				.queryParam("columns", "no_such_column").request().get();
+		assertEquals(400, response.getStatus());
+	}
+	
+	
+	@Test
+	public void testGetRowsNotModified() throws Exception {
+		final Long suid = network.getSUID();
+		final String path = "/v1/networks/" + suid.toString() + "/tables/defaultnode/rows";
+
+		final Response first = target(path).request().get();
+		assertEquals(200, first.getStatus());
+		final String etag = first.getHeaderString("ETag");
+		assertNotNull(etag);
+
+		final Response notModified = target(path).request().header("If-None-Match", etag).get();
+		assertEquals(304, notModified.getStatus());
+
+		// Other representations have their own tags.
+		final Response projected = target(path).queryParam("columns", "SUID").request()
+				.header("If-None-Match", etag).get();
+		assertEquals(200, projected.getStatus());
+
+		versionTracker.handleEvent(new RowsSetEvent(network.getDefaultNodeTable(),
+				Collections.<RowSetRecord> emptyList()));
+		final Response modified = target(path).request().header("If-None-Match", etag).get();
+		assertEquals(200, modified.getStatus());
+		assertFalse(etag.equals(modified.getHeaderString("ETag")));
+	}
+	
+	
+	@Test
+	public void testGetRowsNotModifiedAfterDeletion() throws Exception {
+		final Long suid = network.getSUID();
+		final String path = "/v1/networks/" + suid.toString() + "/tables/defaultnode/rows";
+
+		final Response first = target(path).request().get();
+		assertEquals(200, first.getStatus());
+		final String etag = first.getHeaderString("ETag");
+
+		// Removing a node deletes its row, but sets no cells.
+		final CyNode node = network.getNodeList().get(0);
+		network.removeNodes(Collections.singletonList(node));
+		versionTracker.handleEvent(new RowsDeletedEvent(network.getDefaultNodeTable(), Collections
+				.<Object> singletonList(node.getSUID())));
+
+		final Response modified = target(path).request().header("If-None-Match", etag).get();
+		assertEquals(200, modified.getStatus());
+		assertFalse(etag.equals(modified.getHeaderString("ETag")));
+	}
+	
+	
+	@Test
+	public void testGetTableCached() throws Exception {
+		final Long suid = network.getSUID();
+		final String path = "/v1/networks/" + suid.toString() + "/tables/defaultnode";
+		final CyNode node = network.getNodeList().get(0);
+		final String name = network.getRow(node).get(CyNetwork.NAME, String.class);
+
+		final String first = target(path).request().get(String.class);
+		assertTrue(first.contains("\"" + name + "\""));
+
+		// Same version, so the cached body is returned.
+		assertEquals(first, target(path).request().get(String.class));
+
+		// The event of the change is only delivered when payload events are
+		// flushed, and the GET must see it.
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				versionTracker.handleEvent(new RowsSetEvent(network.getDefaultNodeTable(),
+						Collections.<RowSetRecord> emptyList()));
+				return null;
+			}
+		}).when(cyEventHelper).flushPayloadEvents();
+		network.getRow(node).set(CyNetwork.NAME, "renamed");
+		final String updated = target(path).request().get(String.class);
+		assertTrue(updated.contains("\"renamed\""));
+		assertFalse(updated.contains("\"" + name + "\""));
+	}
+
+
+	@Test
+	public void testGetTableCachedAfterDeletion() throws Exception {
+		final Long suid = network.getSUID();
+		final String path = "/v1/networks/" + suid.toString() + "/tables/defaultnode";
+		final CyNode node = network.getNodeList().get(0);
+
+		final JsonNode first = mapper.readTree(target(path).request().get(String.class));
+		assertEquals(network.getNodeCount(), first.get("rows").size());
+
+		network.removeNodes(Collections.singletonList(node));
+		versionTracker.handleEvent(new RowsDeletedEvent(network.getDefaultNodeTable(), Collections
+				.<Object> singletonList(node.getSUID())));
+
+		// The cached body has the deleted row, so it must not be returned.
+		final JsonNode rows = mapper.readTree(target(path).request().get(String.class)).get("rows");
+		assertEquals(network.getNodeCount(), rows.size());
+		for (final JsonNode row : rows) {
+			assertFalse(node.getSUID().equals(row.get(CyNetwork.SUID).asLong()));
+		}
+	}
+
+
+	@Test
+	public void testGetRowsAsBinaryJson() throws Exception {
+		final Long suid = network.getSUID();
+		final String json = target("/v1/networks/" + suid.toString() + "/tables/defaultnode/rows").request()
+				.get(String.class);
+
+		final byte[] smile = target("/v1/networks/" + suid.toString() + "/tables/defaultnode/rows").request()
+				.accept("application/x-jackson-smile").get(byte[].class);
+		assertEquals(mapper.readTree(json), new ObjectMapper(new SmileFactory()).readTree(smile));
+
+		final Response cbor = target("/v1/networks/" + suid.toString() + "/tables/defaultnode").request()
+				.accept("application/cbor").get();
+		assertEquals(200, cbor.getStatus());
+		assertEquals("application/cbor", cbor.getMediaType().toString());
+		final JsonNode table = new ObjectMapper(new CBORFactory()).readTree(cbor.readEntity(byte[].class));
+		assertEquals(network.getNodeCount(), table.get("rows").size());
+	}
+	
+	
 	@Test
 	public void testGetRow() throws Exception {
 		final Long suid = network.getSUID();
@@ -141,4 +425,135 @@ public class TableResourceTest extends BasicResourceTest {
 		assertNotNull(result);
 		assertEquals("n1", result);
 	}
+
+	@Test
+	public void testUpdateTableWithReport() throws Exception {
+		final Long suid = network.getSUID();
+		final String body = "{\"key\": \"name\", \"dataKey\": \"id\", \"data\": ["
+				+ "{\"id\": \"n1\", \"score\": 1.0}, {\"id\": \"n2\", \"score\": 2.0},"
+				+ " {\"id\": \"n9\", \"score\": 9.0}, {\"score\": 0.0}]}";
+		final Response response = target("/v1/networks/" + suid.toString() + "/tables/defaultnode")
+				.queryParam("report", true).request().put(Entity.json(body));
+		assertEquals(200, response.getStatus());
+
+		final JsonNode report = mapper.readTree(response.readEntity(String.class));
+		assertEquals(2, report.get("matched").asInt());
+		assertEquals(1, report.get("unmatched").asInt());
+		assertEquals(1, report.get("skipped").asInt());
+
+		for (final CyNode node : network.getNodeList()) {
+			final String name = network.getRow(node).get(CyNetwork.NAME, String.class);
+			final Double score = network.getRow(node).get("score", Double.class);
+			if (name.equals("n1")) {
+				assertEquals(Double.valueOf(1.0), score);
+			} else if (name.equals("n2")) {
+				assertEquals(Double.valueOf(2.0), score);
+			} else {
+				assertNull(score);
+			}
+		}
+
+		final Response noReport = target("/v1/networks/" + suid.toString() + "/tables/defaultnode").request()
+				.put(Entity.json(body));
+		assertEquals(204, noReport.getStatus());
+	}
+
+	@Test
+	public void testUpdateTableKeyOrder() throws Exception {
+		final Long suid = network.getSUID();
+		final String path = "/v1/networks/" + suid.toString() + "/tables/defaultnode";
+
+		// Keys after the data
+		final Response dataFirst = target(path).queryParam("report", true).request().put(Entity.json(
+				"{\"data\": [{\"id\": \"n1\", \"rank\": 1}], \"key\": \"name\", \"dataKey\": \"id\"}"));
+		assertEquals(200, dataFirst.getStatus());
+		assertEquals(1, mapper.readTree(dataFirst.readEntity(String.class)).get("matched").asInt());
+
+		// Keys as query parameters
+		final Response query = target(path).queryParam("key", "name").queryParam("dataKey", "id")
+				.queryParam("report", true).request()
+				.put(Entity.json("{\"data\": [{\"id\": \"n2\", \"rank\": 2}, {\"id\": \"n3\", \"rank\": 3}]}"));
+		assertEquals(200, query.getStatus());
+		assertEquals(2, mapper.readTree(query.readEntity(String.class)).get("matched").asInt());
+
+		for (final CyNode node : network.getNodeList()) {
+			final String name = network.getRow(node).get(CyNetwork.NAME, String.class);
+			final Double rank = network.getRow(node).get("rank", Double.class);
+			if (name.equals("n4")) {
+				assertNull(rank);
+			} else {
+				assertEquals(Double.valueOf(name.substring(1)), rank);
+			}
+		}
+	}
+
+	@Test
+	public void testUpdateTableFromCsv() throws Exception {
+		final Long suid = network.getSUID();
+		final String path = "/v1/networks/" + suid.toString() + "/tables/defaultnode";
+
+		final String csv = "name,rank,flag,comment\r\nn1,1,true,\"a, \"\"b\"\"\"\r\nn2,2,false,\r\nn9,9,true,c\r\n,5,false,d\r\n";
+		final Response response = target(path).queryParam("key", "name").queryParam("report", true).request()
+				.put(Entity.entity(csv, "text/csv"));
+		assertEquals(200, response.getStatus());
+		final JsonNode report = mapper.readTree(response.readEntity(String.class));
+		assertEquals(2, report.get("matched").asInt());
+		assertEquals(1, report.get("unmatched").asInt());
+		assertEquals(1, report.get("skipped").asInt());
+
+		final CyNode n1 = getNode("n1");
+		assertEquals(Integer.valueOf(1), network.getRow(n1).get("rank", Integer.class));
+		assertEquals(Boolean.TRUE, network.getRow(n1).get("flag", Boolean.class));
+		assertEquals("a, \"b\"", network.getRow(n1).get("comment", String.class));
+		assertNull(network.getRow(getNode("n2")).get("comment", String.class));
+
+		final String tsv = "id\trank\nn3\t3\n";
+		final Response tsvResponse = target(path).queryParam("key", "name").queryParam("dataKey", "id").request()
+				.put(Entity.entity(tsv, "text/tab-separated-values"));
+		assertEquals(204, tsvResponse.getStatus());
+		assertEquals(Integer.valueOf(3), network.getRow(getNode("n3")).get("rank", Integer.class));
+
+		final Response noKey = target(path).queryParam("key", "name").queryParam("dataKey", "id").request()
+				.put(Entity.entity(csv, "text/csv"));
+		assertEquals(400, noKey.getStatus());
+	}
+
+	@Test
+	public void testUpdateTableFromCsvTypes() throws Exception {
+		final Long suid = network.getSUID();
+		final String path = "/v1/networks/" + suid.toString() + "/tables/defaultnode";
+		network.getDefaultNodeTable().createListColumn("tags", String.class, false);
+		network.getDefaultNodeTable().createListColumn("ranks", Integer.class, false);
+
+		final String csv = "name,tags,ranks,count,score\nn1,a|b||c,1|2,3000000000,1.5\nn2,,3,1,2\n";
+		final Response response = target(path).queryParam("key", "name").request()
+				.put(Entity.entity(csv, "text/csv"));
+		assertEquals(204, response.getStatus());
+
+		// List cells are split on "|", and empty elements are dropped.
+		final CyRow n1 = network.getRow(getNode("n1"));
+		assertEquals(Arrays.asList("a", "b", "c"), n1.getList("tags", String.class));
+		assertEquals(Arrays.asList(1, 2), n1.getList("ranks", Integer.class));
+		final CyRow n2 = network.getRow(getNode("n2"));
+		assertNull(n2.getList("tags", String.class));
+		assertEquals(Arrays.asList(3), n2.getList("ranks", Integer.class));
+
+		// A value out of the Integer range makes a Long column, and a
+		// decimal makes a Double column even if other cells are integers.
+		assertEquals(Long.class, network.getDefaultNodeTable().getColumn("count").getType());
+		assertEquals(Long.valueOf(3000000000L), n1.get("count", Long.class));
+		assertEquals(Long.valueOf(1), n2.get("count", Long.class));
+		assertEquals(Double.class, network.getDefaultNodeTable().getColumn("score").getType());
+		assertEquals(Double.valueOf(1.5), n1.get("score", Double.class));
+		assertEquals(Double.valueOf(2), n2.get("score", Double.class));
+	}
+
+	private final CyNode getNode(final String name) {
+		for (final CyNode node : network.getNodeList()) {
+			if (name.equals(network.getRow(node).get(CyNetwork.NAME, String.class))) {
+				return node;
+			}
+		}
+		return null;
+	}
 }
\ No newline at end of file